@@ -0,0 +1,147 @@
+package to.grindelf.sprtest.benchmarks;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.ui.ExtendedModelMap;
+import to.grindelf.sprtest.MainController;
+import to.grindelf.sprtest.auth.UserDao;
+import to.grindelf.sprtest.auth.credentials.CredentialService;
+import to.grindelf.sprtest.auth.shield.LoginShield;
+import to.grindelf.sprtest.auth.shield.TokenBucketLimiter;
+import to.grindelf.sprtest.auth.shield.UserNameFilter;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.domain.UserStatus;
+import to.grindelf.sprtest.utils.json.JsonOperator;
+import to.grindelf.sprtest.utils.json.JsonStreamWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Builds the user data sets the benchmarks run against.
+ */
+final class BenchmarkFixtures {
+
+    static final String PASSWORD = "benchmark-password";
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private BenchmarkFixtures() {
+    }
+
+    static @NotNull String userName(int index) {
+        return "user-" + index;
+    }
+
+    static @NotNull User user(int index) {
+        return new User(userName(index), PASSWORD, index % 100 == 0 ? UserStatus.ADMIN : UserStatus.JUST_USER);
+    }
+
+    /**
+     * Credential service for the fixture users, which hold plaintext passwords.
+     * Legacy upgrades are disabled so that logins do not turn into writes.
+     */
+    static @NotNull CredentialService credentials(@NotNull UserDao<User> userDao) {
+        CredentialService.Settings defaults = CredentialService.Settings.DEFAULT;
+        return new CredentialService(userDao, new CredentialService.Settings(
+                defaults.iterations(),
+                defaults.verifierThreads(),
+                defaults.verifierQueueCapacity(),
+                defaults.verifyTimeout(),
+                defaults.cacheMaximumSize(),
+                defaults.cacheTimeToLive(),
+                false
+        ));
+    }
+
+    /**
+     * Login shield whose limiters admit every attempt, so that login benchmarks measure the login
+     * itself rather than the throttling of their single client address.
+     *
+     * @param filter filter of existing user names, or null to look up every name
+     */
+    static @NotNull LoginShield loginShield(@Nullable UserNameFilter filter) {
+        TokenBucketLimiter.Settings unlimited = new TokenBucketLimiter.Settings(Integer.MAX_VALUE, Duration.ofNanos(1), 1);
+        return new LoginShield(new TokenBucketLimiter(unlimited), new TokenBucketLimiter(unlimited), filter);
+    }
+
+    /**
+     * Calls the login handler the way a form submission from one client would.
+     */
+    static @NotNull String login(@NotNull MainController controller, @NotNull String name) {
+        return controller.login(
+                name,
+                PASSWORD,
+                new MockHttpServletRequest(),
+                new MockHttpServletResponse(),
+                new ExtendedModelMap()
+        );
+    }
+
+    /**
+     * Creates a database file with the same users table as the application database.
+     */
+    static @NotNull Path createDatabase(@NotNull Path directory, int rows) throws SQLException {
+        Path file = directory.resolve("users.db");
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file)) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE users (id integer, name text PRIMARY KEY NOT NULL, password text NOT NULL, status text NOT NULL)");
+            }
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO users (id, name, password, status) VALUES (?, ?, ?, ?)")) {
+                for (int i = 0; i < rows; i++) {
+                    User user = user(i);
+                    stmt.setInt(1, i);
+                    stmt.setString(2, user.getName());
+                    stmt.setString(3, user.getPassword());
+                    stmt.setString(4, user.getStatus().toString());
+                    stmt.addBatch();
+
+                    if ((i + 1) % INSERT_BATCH_SIZE == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+            conn.commit();
+        }
+
+        return file;
+    }
+
+    /**
+     * Creates a JSON users file in the format written by {@link JsonOperator}.
+     */
+    static @NotNull Path createJsonFile(@NotNull Path directory, int rows, @NotNull JsonOperator<User, String> operator) {
+        Path file = directory.resolve("users.json");
+
+        try (JsonStreamWriter<User> writer = operator.openWriter(file.toString())) {
+            for (int i = 0; i < rows; i++) {
+                writer.write(user(i));
+            }
+        }
+
+        return file;
+    }
+
+    static void deleteRecursively(@NotNull Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package to.grindelf.sprtest.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import to.grindelf.sprtest.MainController;
+import to.grindelf.sprtest.auth.SQLUserDao;
+import to.grindelf.sprtest.auth.UserDao;
+import to.grindelf.sprtest.auth.credentials.CredentialService;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.utils.database.SQLOperator;
+import to.grindelf.sprtest.utils.database.SchemaRegistry;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.database.pool.PoolSettings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bursts of concurrent logins executed on Tomcat-sized platform thread pools versus
+ * one virtual thread per request, as with {@code spring.threads.virtual.enabled}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentLoginBenchmark {
+
+    private static final int BURST_SIZE = 1000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"10000"})
+    public int rows;
+
+    private Path directory;
+    private ConnectionPoolRegistry pools;
+    private CredentialService credentials;
+    private MainController controller;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("concurrent-login-benchmark");
+        Path file = BenchmarkFixtures.createDatabase(directory, rows);
+        pools = new ConnectionPoolRegistry(PoolSettings.DEFAULT);
+        UserDao<User> userDao = new SQLUserDao(new SQLOperator<>(pools, new SchemaRegistry()), file.toString());
+        credentials = BenchmarkFixtures.credentials(userDao);
+        controller = new MainController(userDao, credentials, BenchmarkFixtures.loginShield(null));
+
+        executor = switch (threads) {
+            case "platform" -> Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+            case "virtual" -> Executors.newVirtualThreadPerTaskExecutor();
+            default -> throw new IllegalArgumentException("Unknown thread mode: " + threads);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        credentials.close();
+        pools.close();
+        BenchmarkFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST_SIZE)
+    public int loginBurst() throws InterruptedException, ExecutionException {
+        List<Future<String>> results = new ArrayList<>(BURST_SIZE);
+        for (int i = 0; i < BURST_SIZE; i++) {
+            String name = BenchmarkFixtures.userName(ThreadLocalRandom.current().nextInt(rows));
+            results.add(executor.submit(() -> BenchmarkFixtures.login(controller, name)));
+        }
+
+        int completed = 0;
+        for (Future<String> result : results) {
+            result.get();
+            completed++;
+        }
+        return completed;
+    }
+}
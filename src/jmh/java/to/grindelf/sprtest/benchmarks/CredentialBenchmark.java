@@ -0,0 +1,80 @@
+package to.grindelf.sprtest.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import to.grindelf.sprtest.auth.credentials.CredentialService;
+import to.grindelf.sprtest.auth.credentials.PasswordHasher;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.domain.UserStatus;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of password hashing per work factor, and what the verification cache saves on repeated logins.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CredentialBenchmark {
+
+    @Param({"10000", "210000", "600000"})
+    public int iterations;
+
+    private PasswordHasher hasher;
+    private String storedHash;
+    private CredentialService uncached;
+    private CredentialService cached;
+    private User storedUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hasher = new PasswordHasher(iterations);
+        storedHash = hasher.hash(BenchmarkFixtures.PASSWORD);
+        storedUser = new User(BenchmarkFixtures.userName(0), storedHash, UserStatus.JUST_USER);
+
+        // A zero-sized cache remembers nothing, so every verification hashes
+        uncached = new CredentialService(null, settings(0));
+        cached = new CredentialService(null, settings(1_000));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        uncached.close();
+        cached.close();
+    }
+
+    @Benchmark
+    public String hash() {
+        return hasher.hash(BenchmarkFixtures.PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return hasher.verify(BenchmarkFixtures.PASSWORD, storedHash);
+    }
+
+    @Benchmark
+    public boolean verifyOnExecutor() {
+        return uncached.verify(storedUser, BenchmarkFixtures.PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verifyCached() {
+        return cached.verify(storedUser, BenchmarkFixtures.PASSWORD);
+    }
+
+    private CredentialService.Settings settings(long cacheSize) {
+        return new CredentialService.Settings(
+                iterations,
+                Runtime.getRuntime().availableProcessors(),
+                256,
+                Duration.ofMinutes(1),
+                cacheSize,
+                Duration.ofMinutes(10),
+                false
+        );
+    }
+}
@@ -0,0 +1,94 @@
+package to.grindelf.sprtest.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import to.grindelf.sprtest.MainController;
+import to.grindelf.sprtest.auth.CachingUserDao;
+import to.grindelf.sprtest.auth.SQLUserDao;
+import to.grindelf.sprtest.auth.UserDao;
+import to.grindelf.sprtest.auth.credentials.CredentialService;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.utils.database.SQLOperator;
+import to.grindelf.sprtest.utils.database.SchemaRegistry;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.database.pool.PoolSettings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups and logins with unknown user names, answered from the negative cache of a
+ * {@link CachingUserDao}, so that the cost of reporting the missing user is not hidden by SQLite.
+ * <p>{@code getUserByName} reports the missing user with a {@link NoSuchUserException};
+ * {@code findUserByName} with an empty {@code Optional}. Compare allocations with {@code -prof gc}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FailedLoginBenchmark {
+
+    private static final int UNKNOWN_NAMES = 1024;
+
+    @Param({"1000"})
+    public int rows;
+
+    private Path directory;
+    private ConnectionPoolRegistry pools;
+    private CredentialService credentials;
+    private UserDao<User> userDao;
+    private MainController controller;
+    private String[] unknownNames;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("failed-login-benchmark");
+        Path file = BenchmarkFixtures.createDatabase(directory, rows);
+        pools = new ConnectionPoolRegistry(PoolSettings.DEFAULT);
+
+        userDao = new CachingUserDao(new SQLUserDao(new SQLOperator<>(pools, new SchemaRegistry()), file.toString()));
+        credentials = BenchmarkFixtures.credentials(userDao);
+        controller = new MainController(userDao, credentials, BenchmarkFixtures.loginShield(null));
+
+        unknownNames = new String[UNKNOWN_NAMES];
+        for (int i = 0; i < UNKNOWN_NAMES; i++) {
+            unknownNames[i] = "unknown-" + i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        credentials.close();
+        pools.close();
+        BenchmarkFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public User getUserByName() {
+        try {
+            return userDao.getUserByName(unknownName());
+        } catch (NoSuchUserException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public User findUserByName() {
+        return userDao.findUserByName(unknownName()).orElse(null);
+    }
+
+    @Benchmark
+    public String login() {
+        return BenchmarkFixtures.login(controller, unknownName());
+    }
+
+    private String unknownName() {
+        return unknownNames[ThreadLocalRandom.current().nextInt(UNKNOWN_NAMES)];
+    }
+}
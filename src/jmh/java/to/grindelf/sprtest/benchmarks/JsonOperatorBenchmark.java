@@ -0,0 +1,65 @@
+package to.grindelf.sprtest.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.openjdk.jmh.annotations.*;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.utils.json.JsonOperator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Whole-file costs of {@link JsonOperator} against users files of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonOperatorBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rows;
+
+    private final JsonOperator<User, String> operator = new JsonOperator<>(new TypeReference<List<User>>() {});
+
+    private Path directory;
+    private String filePath;
+    private String outputPath;
+    private List<User> users;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("jsonoperator-benchmark");
+        filePath = BenchmarkFixtures.createJsonFile(directory, rows, operator).toString();
+        outputPath = directory.resolve("output.json").toString();
+        users = operator.readFile(filePath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<User> readFile() {
+        return operator.readFile(filePath);
+    }
+
+    @Benchmark
+    public long streamScan() {
+        try (Stream<User> stream = operator.stream(filePath)) {
+            return stream.filter(User::isAdmin).count();
+        }
+    }
+
+    @Benchmark
+    public void writeToFile() {
+        operator.writeToFile(outputPath, users);
+    }
+}
@@ -0,0 +1,73 @@
+package to.grindelf.sprtest.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import to.grindelf.sprtest.MainController;
+import to.grindelf.sprtest.auth.CachingUserDao;
+import to.grindelf.sprtest.auth.SQLUserDao;
+import to.grindelf.sprtest.auth.UserDao;
+import to.grindelf.sprtest.auth.credentials.CredentialService;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.utils.database.SQLOperator;
+import to.grindelf.sprtest.utils.database.SchemaRegistry;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.database.pool.PoolSettings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@link MainController#login} handler calls against the SQLite backend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private Path directory;
+    private ConnectionPoolRegistry pools;
+    private CredentialService credentials;
+    private MainController controller;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("login-benchmark");
+        Path file = BenchmarkFixtures.createDatabase(directory, rows);
+        pools = new ConnectionPoolRegistry(PoolSettings.DEFAULT);
+
+        UserDao<User> userDao = new SQLUserDao(new SQLOperator<>(pools, new SchemaRegistry()), file.toString());
+        UserDao<User> servedDao = cached ? new CachingUserDao(userDao) : userDao;
+        credentials = BenchmarkFixtures.credentials(servedDao);
+        controller = new MainController(servedDao, credentials, BenchmarkFixtures.loginShield(null));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        credentials.close();
+        pools.close();
+        BenchmarkFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public String login() {
+        return BenchmarkFixtures.login(controller, BenchmarkFixtures.userName(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String loginContended() {
+        return login();
+    }
+}
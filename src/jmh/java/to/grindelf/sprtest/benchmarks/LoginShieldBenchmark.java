@@ -0,0 +1,89 @@
+package to.grindelf.sprtest.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import to.grindelf.sprtest.MainController;
+import to.grindelf.sprtest.auth.NameFilteringUserDao;
+import to.grindelf.sprtest.auth.SQLUserDao;
+import to.grindelf.sprtest.auth.UserDao;
+import to.grindelf.sprtest.auth.credentials.CredentialService;
+import to.grindelf.sprtest.auth.shield.TokenBucketLimiter;
+import to.grindelf.sprtest.auth.shield.UserNameFilter;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.utils.database.SQLOperator;
+import to.grindelf.sprtest.utils.database.SchemaRegistry;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.database.pool.PoolSettings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Credential-stuffing traffic, logins with names that do not exist, against the SQLite backend
+ * with and without the user name filter, and the cost of the token bucket itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginShieldBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean filtered;
+
+    private Path directory;
+    private ConnectionPoolRegistry pools;
+    private CredentialService credentials;
+    private MainController controller;
+    private TokenBucketLimiter limiter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("login-shield-benchmark");
+        Path file = BenchmarkFixtures.createDatabase(directory, rows);
+        pools = new ConnectionPoolRegistry(PoolSettings.DEFAULT);
+
+        UserDao<User> userDao = new SQLUserDao(new SQLOperator<>(pools, new SchemaRegistry()), file.toString());
+        UserNameFilter filter = null;
+        if (filtered) {
+            filter = new UserNameFilter(UserNameFilter.Settings.DEFAULT);
+            userDao = new NameFilteringUserDao(userDao, filter);
+        }
+        credentials = BenchmarkFixtures.credentials(userDao);
+        controller = new MainController(userDao, credentials, BenchmarkFixtures.loginShield(filter));
+        limiter = new TokenBucketLimiter(new TokenBucketLimiter.Settings(30, Duration.ofSeconds(1), 16384));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        credentials.close();
+        pools.close();
+        BenchmarkFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public String loginUnknown() {
+        return BenchmarkFixtures.login(controller, "unknown-" + ThreadLocalRandom.current().nextInt(1_000_000));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String loginUnknownContended() {
+        return loginUnknown();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean tryAcquire() {
+        return limiter.tryAcquire("10.0.0." + ThreadLocalRandom.current().nextInt(256));
+    }
+}
@@ -0,0 +1,73 @@
+package to.grindelf.sprtest.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.utils.offheap.OffHeapUserTable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups in an {@link OffHeapUserTable} against a {@link ConcurrentHashMap} of the same users on the heap.
+ * <p>{@code offHeapContains} shows the lookup alone, which allocates nothing (check with
+ * {@code -prof gc}); {@code offHeapGet} adds decoding the found user.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OffHeapUserTableBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private OffHeapUserTable table;
+    private Map<String, User> map;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = new OffHeapUserTable();
+        map = new ConcurrentHashMap<>();
+        for (int i = 0; i < rows; i++) {
+            User user = BenchmarkFixtures.user(i);
+            table.put(user);
+            map.put(user.getName(), user);
+        }
+    }
+
+    @Benchmark
+    public boolean offHeapContains() {
+        return table.contains(BenchmarkFixtures.userName(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public User offHeapGet() {
+        return table.get(BenchmarkFixtures.userName(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public User offHeapGetUnknown() {
+        return table.get("unknown-" + ThreadLocalRandom.current().nextInt(1024));
+    }
+
+    @Benchmark
+    public User heapGet() {
+        return map.get(BenchmarkFixtures.userName(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public int build() {
+        OffHeapUserTable built = new OffHeapUserTable();
+        for (int i = 0; i < rows; i++) {
+            built.put(BenchmarkFixtures.user(i));
+        }
+        return built.size();
+    }
+}
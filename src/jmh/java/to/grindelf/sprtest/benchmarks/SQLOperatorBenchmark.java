@@ -0,0 +1,95 @@
+package to.grindelf.sprtest.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.DuplicateKeyException;
+import to.grindelf.sprtest.exceptions.NoSuchRowException;
+import to.grindelf.sprtest.utils.ConstantValues.DatabaseTableNames;
+import to.grindelf.sprtest.utils.database.DatabaseDaoUtils;
+import to.grindelf.sprtest.utils.database.RowMapper;
+import to.grindelf.sprtest.utils.database.SQLOperator;
+import to.grindelf.sprtest.utils.database.SchemaRegistry;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.database.pool.PoolSettings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static to.grindelf.sprtest.utils.ConstantValues.USERS_COLUMNS_NAMES;
+import static to.grindelf.sprtest.utils.ConstantValues.USERS_COLUMN_KEY_COLUMN_NAME;
+
+/**
+ * Single-statement costs of {@link SQLOperator} against users tables of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SQLOperatorBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rows;
+
+    private final AtomicLong insertedNames = new AtomicLong();
+    private final RowMapper<User> mapper = new DatabaseDaoUtils().userMapper;
+
+    private Path directory;
+    private String filePath;
+    private ConnectionPoolRegistry pools;
+    private SQLOperator<User, String> operator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("sqloperator-benchmark");
+        filePath = BenchmarkFixtures.createDatabase(directory, rows).toString();
+        pools = new ConnectionPoolRegistry(PoolSettings.DEFAULT);
+        operator = new SQLOperator<>(pools, new SchemaRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pools.close();
+        BenchmarkFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public User getByKey() throws SQLException, NoSuchRowException {
+        return operator.getByKey(randomName(), USERS_COLUMN_KEY_COLUMN_NAME, USERS_COLUMNS_NAMES, filePath, DatabaseTableNames.USERS_TABLE, mapper);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public User getByKeyContended() throws SQLException, NoSuchRowException {
+        return getByKey();
+    }
+
+    @Benchmark
+    public List<User> getAll() throws SQLException {
+        return operator.getAll(USERS_COLUMNS_NAMES, filePath, mapper, DatabaseTableNames.USERS_TABLE);
+    }
+
+    @Benchmark
+    public void postAndDelete() throws SQLException, DuplicateKeyException, NoSuchRowException {
+        String name = "inserted-" + insertedNames.incrementAndGet();
+        operator.post(new User(name, BenchmarkFixtures.PASSWORD), filePath, DatabaseTableNames.USERS_TABLE, USERS_COLUMN_KEY_COLUMN_NAME);
+        operator.delete(name, USERS_COLUMN_KEY_COLUMN_NAME, filePath, DatabaseTableNames.USERS_TABLE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void postAndDeleteContended() throws SQLException, DuplicateKeyException, NoSuchRowException {
+        postAndDelete();
+    }
+
+    private String randomName() {
+        return BenchmarkFixtures.userName(ThreadLocalRandom.current().nextInt(rows));
+    }
+}
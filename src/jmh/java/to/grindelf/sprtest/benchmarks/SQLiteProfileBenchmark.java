@@ -0,0 +1,83 @@
+package to.grindelf.sprtest.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.NoSuchRowException;
+import to.grindelf.sprtest.utils.ConstantValues.DatabaseTableNames;
+import to.grindelf.sprtest.utils.database.DatabaseDaoUtils;
+import to.grindelf.sprtest.utils.database.RowMapper;
+import to.grindelf.sprtest.utils.database.SQLOperator;
+import to.grindelf.sprtest.utils.database.SchemaRegistry;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.database.pool.PoolSettings;
+import to.grindelf.sprtest.utils.database.pool.SQLiteProfile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static to.grindelf.sprtest.utils.ConstantValues.USERS_COLUMNS_NAMES;
+import static to.grindelf.sprtest.utils.ConstantValues.USERS_COLUMN_KEY_COLUMN_NAME;
+
+/**
+ * Reads and writes running side by side under each {@link SQLiteProfile}.
+ * <p>The {@code mixed} group runs three readers (logins) against one writer (password changes),
+ * which shows how much the readers are held back by the writer's journal and fsyncs.</p>
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SQLiteProfileBenchmark {
+
+    @Param({"DEFAULT", "DURABLE", "BALANCED"})
+    public SQLiteProfile profile;
+
+    @Param({"10000"})
+    public int rows;
+
+    private final RowMapper<User> mapper = new DatabaseDaoUtils().userMapper;
+
+    private Path directory;
+    private String filePath;
+    private ConnectionPoolRegistry pools;
+    private SQLOperator<User, String> operator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("sqlite-profile-benchmark");
+        filePath = BenchmarkFixtures.createDatabase(directory, rows).toString();
+        pools = new ConnectionPoolRegistry(PoolSettings.DEFAULT.withProfile(profile));
+        operator = new SQLOperator<>(pools, new SchemaRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pools.close();
+        BenchmarkFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public User read() throws SQLException, NoSuchRowException {
+        return operator.getByKey(randomName(), USERS_COLUMN_KEY_COLUMN_NAME, USERS_COLUMNS_NAMES, filePath, DatabaseTableNames.USERS_TABLE, mapper);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void write() throws SQLException, NoSuchRowException {
+        String name = randomName();
+        operator.update(name, USERS_COLUMN_KEY_COLUMN_NAME, new User(name, BenchmarkFixtures.PASSWORD), filePath, DatabaseTableNames.USERS_TABLE);
+    }
+
+    private String randomName() {
+        return BenchmarkFixtures.userName(ThreadLocalRandom.current().nextInt(rows));
+    }
+}
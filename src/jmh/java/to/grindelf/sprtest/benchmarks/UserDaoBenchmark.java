@@ -0,0 +1,118 @@
+package to.grindelf.sprtest.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.openjdk.jmh.annotations.*;
+import to.grindelf.sprtest.auth.CachingUserDao;
+import to.grindelf.sprtest.auth.JsonUserDao;
+import to.grindelf.sprtest.auth.SQLUserDao;
+import to.grindelf.sprtest.auth.UserDao;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.utils.database.SQLOperator;
+import to.grindelf.sprtest.utils.database.SchemaRegistry;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.database.pool.PoolSettings;
+import to.grindelf.sprtest.utils.json.JsonIndexedStore;
+import to.grindelf.sprtest.utils.json.JsonOperator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link UserDao} operations on both backends, with and without the user cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDaoBenchmark {
+
+    @Param({"sqlite", "json"})
+    public String backend;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private final AtomicLong insertedNames = new AtomicLong();
+
+    private Path directory;
+    private ConnectionPoolRegistry pools;
+    private JsonIndexedStore<User, String> store;
+    private UserDao<User> userDao;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("userdao-benchmark");
+        userDao = createUserDao();
+        if (cached) {
+            userDao = new CachingUserDao(userDao);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (pools != null) {
+            pools.close();
+        }
+        if (store != null) {
+            store.close();
+        }
+        BenchmarkFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public User getUserByName() throws NoSuchUserException {
+        return userDao.getUserByName(BenchmarkFixtures.userName(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public User getUserByNameContended() throws NoSuchUserException {
+        return getUserByName();
+    }
+
+    @Benchmark
+    public Object getUserByUnknownName() {
+        try {
+            return userDao.getUserByName("unknown-" + ThreadLocalRandom.current().nextInt(1024));
+        } catch (NoSuchUserException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public void saveAndDelete() throws UserAlreadyExistsException, NoSuchUserException {
+        String name = "inserted-" + insertedNames.incrementAndGet();
+        userDao.save(new User(name, BenchmarkFixtures.PASSWORD));
+        userDao.delete(name);
+    }
+
+    private UserDao<User> createUserDao() throws SQLException {
+        return switch (backend) {
+            case "sqlite" -> {
+                Path file = BenchmarkFixtures.createDatabase(directory, rows);
+                pools = new ConnectionPoolRegistry(PoolSettings.DEFAULT);
+                yield new SQLUserDao(new SQLOperator<>(pools, new SchemaRegistry()), file.toString());
+            }
+            case "json" -> {
+                JsonOperator<User, String> operator = new JsonOperator<>(new TypeReference<List<User>>() {});
+                Path file = BenchmarkFixtures.createJsonFile(directory, rows, operator);
+                store = new JsonIndexedStore<>(operator, file.toString(), User::getName);
+                yield new JsonUserDao(store);
+            }
+            default -> throw new IllegalArgumentException("Unknown backend: " + backend);
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package to.grindelf.sprtest.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.utils.snapshot.UserSnapshot;
+import to.grindelf.sprtest.utils.snapshot.UserSnapshotWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Lookups in a memory-mapped {@link UserSnapshot}, and the cost of opening one.
+ * <p>{@code indexOf} shows the lookup alone, which allocates nothing (check with {@code -prof gc});
+ * {@code get} adds decoding the found user.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSnapshotBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private Path directory;
+    private Path file;
+    private UserSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("user-snapshot-benchmark");
+        file = directory.resolve("users.snapshot");
+        UserSnapshotWriter.write(file, IntStream.range(0, rows).mapToObj(BenchmarkFixtures::user)::iterator);
+        snapshot = UserSnapshot.open(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        snapshot.close();
+        BenchmarkFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public int indexOf() {
+        return snapshot.indexOf(BenchmarkFixtures.userName(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public User get() {
+        return snapshot.get(BenchmarkFixtures.userName(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public User getUnknown() {
+        return snapshot.get("unknown-" + ThreadLocalRandom.current().nextInt(1024));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Measurement(iterations = 20)
+    public int open() throws IOException {
+        try (UserSnapshot opened = UserSnapshot.open(file)) {
+            return opened.size();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package to.grindelf.sprtest.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import to.grindelf.sprtest.auth.SQLUserDao;
+import to.grindelf.sprtest.auth.UserDao;
+import to.grindelf.sprtest.auth.WriteBehindUserDao;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.utils.database.SQLOperator;
+import to.grindelf.sprtest.utils.database.SchemaRegistry;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.database.pool.PoolSettings;
+import to.grindelf.sprtest.utils.database.pool.SQLiteProfile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Signups saved directly versus through the {@link WriteBehindUserDao}, under the durable profile
+ * where every direct save waits for an fsync of the database.
+ * <p>The write-behind queue is large and waits long for room, so a writer that falls behind shows
+ * up as backpressure in the signup time rather than as rejected signups.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class WriteBehindBenchmark {
+
+    @Param({"false", "true"})
+    public boolean writeBehind;
+
+    @Param({"DURABLE"})
+    public SQLiteProfile profile;
+
+    private final AtomicLong signups = new AtomicLong();
+
+    private Path directory;
+    private ConnectionPoolRegistry pools;
+    private WriteBehindUserDao queue;
+    private UserDao<User> userDao;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("write-behind-benchmark");
+        Path file = BenchmarkFixtures.createDatabase(directory, 1000);
+        pools = new ConnectionPoolRegistry(PoolSettings.DEFAULT.withProfile(profile));
+        userDao = new SQLUserDao(new SQLOperator<>(pools, new SchemaRegistry()), file.toString());
+
+        if (writeBehind) {
+            WriteBehindUserDao.Settings defaults = WriteBehindUserDao.Settings.defaults(directory.resolve("pending.log"));
+            queue = new WriteBehindUserDao(userDao, new WriteBehindUserDao.Settings(
+                    100_000,
+                    defaults.maxBatchSize(),
+                    defaults.maxStaleness(),
+                    Duration.ofMinutes(1),
+                    defaults.retryDelay(),
+                    defaults.logPath(),
+                    defaults.syncLog(),
+                    defaults.segmentBytes()
+            ));
+            userDao = queue;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (queue != null) {
+            queue.close();
+        }
+        pools.close();
+        BenchmarkFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void signup() throws UserAlreadyExistsException {
+        userDao.save(new User("signup-" + signups.incrementAndGet(), BenchmarkFixtures.PASSWORD));
+    }
+}
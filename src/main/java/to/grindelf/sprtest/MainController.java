@@ -1,22 +1,46 @@
 package to.grindelf.sprtest;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.view.RedirectView;
-import to.grindelf.sprtest.auth.UserDaoImpl;
+import to.grindelf.sprtest.auth.UserDao;
+import to.grindelf.sprtest.auth.credentials.CredentialService;
+import to.grindelf.sprtest.auth.shield.LoginShield;
 import to.grindelf.sprtest.domain.User;
-import to.grindelf.sprtest.exceptions.NoSuchUserException;
 import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
-import to.grindelf.sprtest.utils.database.SQLOperator;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @Controller
 public class MainController {
 
+    private static final String WRONG_CREDENTIALS = "Wrong user name or password.";
+    private static final String TOO_MANY_ATTEMPTS = "Too many login attempts. Try again later.";
+    private static final String NAME_TAKEN = "This user name is already taken.";
+    private static final String READ_ONLY = "Signing up is not available on this server.";
+    private static final String BUSY = "The server is busy. Try again in a moment.";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final UserDao<User> userDao;
+    private final CredentialService credentials;
+    private final LoginShield shield;
+
+    public MainController(UserDao<User> userDao, CredentialService credentials, LoginShield shield) {
+        this.userDao = userDao;
+        this.credentials = credentials;
+        this.shield = shield;
+    }
+
     @RequestMapping("/")
     public RedirectView redirectToLogin() {
         return new RedirectView("/login");
@@ -27,28 +51,50 @@ public class MainController {
         return "login";
     }
 
+    /**
+     * Checks the attempt with the {@link LoginShield} before anything is looked up. Throttled
+     * attempts get status 429 and unknown names are answered like wrong passwords. No failed
+     * attempt throws: the user is looked up with {@link UserDao#findUserByName}. A verification
+     * turned away by the saturated password verifier gets status 503.
+     */
     @PostMapping("/login")
     public String login(
             @RequestParam String name,
-            @RequestParam String password
+            @RequestParam String password,
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Model model
     ) {
+        LoginShield.Verdict verdict = shield.check(request.getRemoteAddr(), name);
+        if (verdict.isThrottled()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            model.addAttribute("error", TOO_MANY_ATTEMPTS);
+            return "login";
+        }
+        if (verdict == LoginShield.Verdict.UNKNOWN_NAME) {
+            model.addAttribute("error", WRONG_CREDENTIALS);
+            return "login";
+        }
 
-        User loginUser = new User(name, password);
-        SQLOperator<User, String> operator = new SQLOperator<>();
-        UserDaoImpl userDao = new UserDaoImpl(operator);
+        // Empty for a false positive of the name filter, or a user deleted in the meantime
+        Optional<User> storedUser = userDao.findUserByName(name);
 
+        boolean verified;
         try {
-            User storedUser = userDao.getUserByName(name);
+            verified = storedUser.isPresent() && credentials.verify(storedUser.get(), password);
+        } catch (RejectedExecutionException e) {
+            return busy("login", response, model);
+        }
 
-            if (storedUser.equals(loginUser) && storedUser.isJustUser()) {
+        if (verified) {
+            if (storedUser.get().isJustUser()) {
                 return "home";
-            } else if (storedUser.equals(loginUser) && storedUser.isAdmin()) {
+            } else if (storedUser.get().isAdmin()) {
                 return "home-admin";
             }
-        } catch (NoSuchUserException e) {
-            throw new RuntimeException(e);
         }
 
+        model.addAttribute("error", WRONG_CREDENTIALS);
         return "login";
     }
 
@@ -57,21 +103,47 @@ public class MainController {
         return "signup";
     }
 
+    /**
+     * Saves the new user and opens the login page. A taken name is an expected outcome: it gets
+     * status 409 and the signup page again, without an exception leaving the controller. Read-only
+     * storage, such as a user snapshot, turns every signup away with status 403.
+     */
     @PostMapping("/signup")
     public String signup(
             @RequestParam String name,
-            @RequestParam String password
+            @RequestParam String password,
+            HttpServletResponse response,
+            Model model
     ) {
-        User newUser = new User(name, password);
-        SQLOperator<User, String> operator = new SQLOperator<>();
-        UserDaoImpl userDao = new UserDaoImpl(operator);
+        User newUser;
+        try {
+            newUser = new User(name, credentials.hash(password));
+        } catch (RejectedExecutionException e) {
+            return busy("signup", response, model);
+        }
 
         try {
             userDao.save(newUser);
             return "login";
         } catch (UserAlreadyExistsException e) {
-            throw new RuntimeException(e);
+            response.setStatus(HttpStatus.CONFLICT.value());
+            model.addAttribute("error", NAME_TAKEN);
+            return "signup";
+        } catch (UnsupportedOperationException e) {
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            model.addAttribute("error", READ_ONLY);
+            return "signup";
         }
     }
+
+    /**
+     * Answers with status 503 and asks the client to retry shortly, since the password verifier frees up quickly.
+     */
+    private static String busy(String view, HttpServletResponse response, Model model) {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        model.addAttribute("error", BUSY);
+        return view;
+    }
 }
 
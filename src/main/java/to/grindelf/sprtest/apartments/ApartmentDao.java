@@ -0,0 +1,14 @@
+package to.grindelf.sprtest.apartments;
+
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.exceptions.NoSuchApartmentException;
+
+import java.util.List;
+
+public interface ApartmentDao<T> {
+
+    T getApartmentById(@NotNull String apartmentId) throws NoSuchApartmentException;
+    List<T> getAll();
+    void save(@NotNull T apartment);
+    void delete(@NotNull String apartmentId) throws NoSuchApartmentException;
+}
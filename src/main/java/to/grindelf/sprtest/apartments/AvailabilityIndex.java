@@ -0,0 +1,215 @@
+package to.grindelf.sprtest.apartments;
+
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.domain.Booking;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of booked date ranges per apartment.
+ * <p>Each apartment has an immutable schedule: its bookings as half-open day ranges sorted by
+ * start, plus the running maximum of their ends. A range {@code [from, to)} is free if every
+ * booking starting before {@code to} ends on or before {@code from}, which is one binary search
+ * and one array read. Mutations copy the schedule of the single affected apartment and swap it in,
+ * so lookups never lock and never see a half-applied change.</p>
+ * <p>Only registered apartments have a schedule. Bookings are never enough to make an apartment
+ * known, so a booking of a removed or unknown apartment cannot bring it back into the free list.</p>
+ */
+public final class AvailabilityIndex {
+
+    private final Map<String, Schedule> schedules = new ConcurrentHashMap<>();
+
+    /**
+     * Registers an apartment without bookings, so that it is reported as free.
+     *
+     * @param apartmentId id of the apartment
+     */
+    public void addApartment(@NotNull String apartmentId) {
+        schedules.putIfAbsent(apartmentId, Schedule.EMPTY);
+    }
+
+    /**
+     * Registers an apartment together with its stored bookings. The schedule is built before it is
+     * published, so the apartment never appears free for a range its bookings cover.
+     *
+     * @param apartmentId id of the apartment
+     * @param bookings    stored bookings of the apartment
+     */
+    public void addApartment(@NotNull String apartmentId, @NotNull Iterable<Booking> bookings) {
+        Schedule schedule = Schedule.EMPTY;
+        for (Booking booking : bookings) {
+            schedule = schedule.with(booking.getId(), booking.getDateFrom().toEpochDay(), booking.getDateTo().toEpochDay());
+        }
+        schedules.putIfAbsent(apartmentId, schedule);
+    }
+
+    public void removeApartment(@NotNull String apartmentId) {
+        schedules.remove(apartmentId);
+    }
+
+    public boolean hasApartment(@NotNull String apartmentId) {
+        return schedules.containsKey(apartmentId);
+    }
+
+    /**
+     * Adds the booking to the schedule of its apartment.
+     *
+     * @param booking stored booking
+     * @return false if the apartment is not registered, in which case the booking is ignored
+     */
+    public boolean add(@NotNull Booking booking) {
+        return schedules.computeIfPresent(booking.getApartmentId(), (id, schedule) ->
+                schedule.with(
+                        booking.getId(),
+                        booking.getDateFrom().toEpochDay(),
+                        booking.getDateTo().toEpochDay()
+                )
+        ) != null;
+    }
+
+    public void remove(@NotNull Booking booking) {
+        schedules.computeIfPresent(booking.getApartmentId(), (id, schedule) -> schedule.without(booking.getId()));
+    }
+
+    /**
+     * Tells whether no booking of the apartment overlaps the range.
+     *
+     * @param apartmentId id of the apartment
+     * @param from        first night of the range
+     * @param to          day after the last night of the range
+     * @return true if the apartment is registered and free for the whole range
+     */
+    public boolean isFree(@NotNull String apartmentId, @NotNull LocalDate from, @NotNull LocalDate to) {
+        checkRange(from, to);
+        Schedule schedule = schedules.get(apartmentId);
+        return schedule != null && schedule.isFree(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * Returns the ids of the apartments with no booking overlapping the range.
+     *
+     * @param from first night of the range
+     * @param to   day after the last night of the range
+     * @return ids of the free apartments, in no particular order
+     */
+    public @NotNull List<String> freeApartments(@NotNull LocalDate from, @NotNull LocalDate to) {
+        checkRange(from, to);
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+
+        List<String> free = new ArrayList<>();
+        schedules.forEach((apartmentId, schedule) -> {
+            if (schedule.isFree(fromDay, toDay)) {
+                free.add(apartmentId);
+            }
+        });
+        return free;
+    }
+
+    private static void checkRange(@NotNull LocalDate from, @NotNull LocalDate to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Range must end after it starts: " + from + " - " + to);
+        }
+    }
+
+    /**
+     * Immutable bookings of one apartment, sorted by start day.
+     */
+    private static final class Schedule {
+
+        static final Schedule EMPTY = new Schedule(new long[0], new long[0], new long[0], new long[0]);
+
+        private final long[] ids;
+        private final long[] starts;
+        private final long[] ends;
+        // maxEnds[i] is the latest end among the bookings 0..i
+        private final long[] maxEnds;
+
+        private Schedule(long[] ids, long[] starts, long[] ends, long[] maxEnds) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = maxEnds;
+        }
+
+        boolean isFree(long from, long to) {
+            int startingBefore = firstStartAtOrAfter(to);
+            return startingBefore == 0 || maxEnds[startingBefore - 1] <= from;
+        }
+
+        @NotNull Schedule with(long id, long start, long end) {
+            int size = ids.length;
+            int position = firstStartAtOrAfter(start);
+
+            long[] newIds = insert(ids, position, id);
+            long[] newStarts = insert(starts, position, start);
+            long[] newEnds = insert(ends, position, end);
+            long[] newMaxEnds = Arrays.copyOf(maxEnds, size + 1);
+            recomputeMaxEnds(newEnds, newMaxEnds, position);
+
+            return new Schedule(newIds, newStarts, newEnds, newMaxEnds);
+        }
+
+        @NotNull Schedule without(long id) {
+            int position = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    position = i;
+                    break;
+                }
+            }
+            if (position < 0) {
+                return this;
+            }
+
+            long[] newEnds = delete(ends, position);
+            long[] newMaxEnds = Arrays.copyOf(maxEnds, ids.length - 1);
+            recomputeMaxEnds(newEnds, newMaxEnds, position);
+
+            return new Schedule(delete(ids, position), delete(starts, position), newEnds, newMaxEnds);
+        }
+
+        /**
+         * Returns the number of bookings starting before the day.
+         */
+        private int firstStartAtOrAfter(long day) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < day) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static void recomputeMaxEnds(long[] ends, long[] maxEnds, int from) {
+            for (int i = from; i < ends.length; i++) {
+                maxEnds[i] = i == 0 ? ends[i] : Math.max(maxEnds[i - 1], ends[i]);
+            }
+        }
+
+        private static long[] insert(long[] array, int position, long value) {
+            long[] result = new long[array.length + 1];
+            System.arraycopy(array, 0, result, 0, position);
+            result[position] = value;
+            System.arraycopy(array, position, result, position + 1, array.length - position);
+            return result;
+        }
+
+        private static long[] delete(long[] array, int position) {
+            long[] result = new long[array.length - 1];
+            System.arraycopy(array, 0, result, 0, position);
+            System.arraycopy(array, position + 1, result, position, array.length - position - 1);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package to.grindelf.sprtest.apartments;
+
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.domain.Apartment;
+import to.grindelf.sprtest.domain.Booking;
+import to.grindelf.sprtest.exceptions.BookingConflictException;
+import to.grindelf.sprtest.exceptions.NoSuchApartmentException;
+import to.grindelf.sprtest.exceptions.NoSuchBookingException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Apartments, bookings and their availability, kept consistent with each other.
+ * <p>Availability questions are answered from an {@link AvailabilityIndex}, which is filled from
+ * the storage on first use and then updated by every write through this service.</p>
+ */
+public class AvailabilityService {
+
+    private final ApartmentDao<Apartment> apartmentDao;
+    private final BookingDao<Booking> bookingDao;
+    private final AvailabilityIndex index = new AvailabilityIndex();
+    private final BookingAdmission admission;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    public AvailabilityService(@NotNull ApartmentDao<Apartment> apartmentDao, @NotNull BookingDao<Booking> bookingDao) {
+        this.apartmentDao = apartmentDao;
+        this.bookingDao = bookingDao;
+        this.admission = new BookingAdmission(index, apartmentDao, bookingDao);
+    }
+
+    // ======================================================== \\
+    //                       AVAILABILITY                       \\
+    // ======================================================== \\
+
+    /**
+     * Tells whether the apartment is free for every night of the range.
+     *
+     * @param apartmentId id of the apartment
+     * @param from        first night of the range
+     * @param to          day after the last night of the range
+     * @return true if no booking of the apartment overlaps the range
+     */
+    public boolean isFree(@NotNull String apartmentId, @NotNull LocalDate from, @NotNull LocalDate to) {
+        ensureLoaded();
+        return index.isFree(apartmentId, from, to);
+    }
+
+    /**
+     * Returns the ids of the apartments free for every night of the range.
+     *
+     * @param from first night of the range
+     * @param to   day after the last night of the range
+     * @return ids of the free apartments, in no particular order
+     */
+    public @NotNull List<String> findFreeApartments(@NotNull LocalDate from, @NotNull LocalDate to) {
+        ensureLoaded();
+        return index.freeApartments(from, to);
+    }
+
+    // ======================================================== \\
+    //                          WRITES                          \\
+    // ======================================================== \\
+
+    /**
+     * Stores the apartment and makes it available for booking. Bookings stored for its id earlier,
+     * e.g. before it was removed and added again, keep their ranges taken.
+     *
+     * @param apartment apartment to store
+     */
+    public void addApartment(@NotNull Apartment apartment) {
+        ensureLoaded();
+        admission.register(apartment);
+    }
+
+    public void removeApartment(@NotNull String apartmentId) throws NoSuchApartmentException {
+        ensureLoaded();
+        admission.retire(apartmentId);
+    }
+
+    /**
+     * Stores the booking if the apartment is free for its range. Concurrent bookings of the same
+     * apartment are admitted one at a time by the {@link BookingAdmission}, so at most one of two
+     * overlapping requests succeeds.
+     *
+     * @param booking booking to store; its id is ignored
+     * @return the stored booking with its id
+     * @throws BookingConflictException if the range overlaps another booking of the apartment
+     * @throws NoSuchApartmentException if no stored apartment has the id of the booking
+     */
+    public @NotNull Booking book(@NotNull Booking booking) throws BookingConflictException, NoSuchApartmentException {
+        ensureLoaded();
+        return admission.admit(booking);
+    }
+
+    public void cancel(long bookingId) throws NoSuchBookingException {
+        ensureLoaded();
+        admission.release(bookingDao.getBookingById(bookingId));
+    }
+
+    // ======================================================== \\
+    //                         HELPERS                          \\
+    // ======================================================== \\
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+
+        loadLock.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+
+            for (Apartment apartment : apartmentDao.getAll()) {
+                index.addApartment(apartment.getId());
+            }
+            // Bookings left behind by removed apartments are skipped by the index
+            try (Stream<Booking> bookings = bookingDao.stream()) {
+                bookings.forEach(index::add);
+            }
+            loaded = true;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package to.grindelf.sprtest.apartments;
+
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.domain.Apartment;
+import to.grindelf.sprtest.domain.Booking;
+import to.grindelf.sprtest.exceptions.BookingConflictException;
+import to.grindelf.sprtest.exceptions.NoSuchApartmentException;
+import to.grindelf.sprtest.exceptions.NoSuchBookingException;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits bookings so that no two bookings of an apartment ever overlap.
+ * <p>The overlap check, the database insert and the index update of a booking run in one critical
+ * section per apartment. The sections are guarded by a fixed set of lock stripes chosen by the
+ * apartment id, so concurrent requests for the same apartment are serialized while requests for
+ * different apartments only meet on the rare stripe collision, never on a global lock.</p>
+ * <p>Only apartments registered in the index are admitted. Apartments are stored and registered
+ * through {@link #register(Apartment)}, and deleted and removed from the index through
+ * {@link #retire(String)}, both under the stripe of the apartment. No booking slips in while an
+ * apartment is removed, and an apartment removed while it is added never stays in the index.</p>
+ */
+public class BookingAdmission {
+
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final AvailabilityIndex index;
+    private final ApartmentDao<Apartment> apartmentDao;
+    private final BookingDao<Booking> bookingDao;
+    private final ReentrantLock[] stripes;
+
+    public BookingAdmission(
+            @NotNull AvailabilityIndex index,
+            @NotNull ApartmentDao<Apartment> apartmentDao,
+            @NotNull BookingDao<Booking> bookingDao
+    ) {
+        this(index, apartmentDao, bookingDao, DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param index        availability index the admission keeps up to date
+     * @param apartmentDao storage of the apartments
+     * @param bookingDao   storage of the bookings
+     * @param stripes      number of locks; rounded up to a power of two
+     */
+    public BookingAdmission(
+            @NotNull AvailabilityIndex index,
+            @NotNull ApartmentDao<Apartment> apartmentDao,
+            @NotNull BookingDao<Booking> bookingDao,
+            int stripes
+    ) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Admission needs at least one lock stripe.");
+        }
+
+        this.index = index;
+        this.apartmentDao = apartmentDao;
+        this.bookingDao = bookingDao;
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Stores the booking if no other booking of the apartment overlaps it.
+     *
+     * @param booking booking to store; its id is ignored
+     * @return the stored booking with its id
+     * @throws BookingConflictException if the range overlaps another booking of the apartment
+     * @throws NoSuchApartmentException if the apartment is not registered in the index
+     */
+    public @NotNull Booking admit(@NotNull Booking booking) throws BookingConflictException, NoSuchApartmentException {
+        ReentrantLock lock = stripeOf(booking.getApartmentId());
+
+        lock.lock();
+        try {
+            if (!index.hasApartment(booking.getApartmentId())) {
+                throw new NoSuchApartmentException(booking.getApartmentId());
+            }
+            if (!index.isFree(booking.getApartmentId(), booking.getDateFrom(), booking.getDateTo())) {
+                throw new BookingConflictException(booking.getApartmentId());
+            }
+
+            Booking stored = bookingDao.save(booking);
+            index.add(stored);
+            return stored;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the booking and frees its range.
+     *
+     * @param booking stored booking to delete
+     * @throws NoSuchBookingException if the booking is not stored
+     */
+    public void release(@NotNull Booking booking) throws NoSuchBookingException {
+        ReentrantLock lock = stripeOf(booking.getApartmentId());
+
+        lock.lock();
+        try {
+            bookingDao.delete(booking.getId());
+            index.remove(booking);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the apartment and registers it in the index. Bookings stored for its id earlier, e.g.
+     * before it was removed and added again, keep their ranges taken.
+     *
+     * @param apartment apartment to store
+     */
+    public void register(@NotNull Apartment apartment) {
+        ReentrantLock lock = stripeOf(apartment.getId());
+
+        lock.lock();
+        try {
+            apartmentDao.save(apartment);
+            index.addApartment(apartment.getId(), bookingDao.getBookingsOfApartment(apartment.getId()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the apartment and removes it from the index, so that it is neither listed as free nor admitted.
+     *
+     * @param apartmentId id of the apartment
+     * @throws NoSuchApartmentException if the apartment is not stored
+     */
+    public void retire(@NotNull String apartmentId) throws NoSuchApartmentException {
+        ReentrantLock lock = stripeOf(apartmentId);
+
+        lock.lock();
+        try {
+            apartmentDao.delete(apartmentId);
+            index.removeApartment(apartmentId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private @NotNull ReentrantLock stripeOf(@NotNull String apartmentId) {
+        int hash = apartmentId.hashCode();
+        // Spread the high bits, as HashMap does, so that similar ids do not share a stripe
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
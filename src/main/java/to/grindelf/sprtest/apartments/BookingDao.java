@@ -0,0 +1,37 @@
+package to.grindelf.sprtest.apartments;
+
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.exceptions.NoSuchBookingException;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface BookingDao<T> {
+
+    T getBookingById(long bookingId) throws NoSuchBookingException;
+    List<T> getAll();
+
+    /**
+     * Returns every booking, read lazily. The stream must be closed after use.
+     *
+     * @return stream of all bookings
+     */
+    Stream<T> stream();
+
+    /**
+     * Returns the bookings of one apartment, read with a query on its id rather than a scan of every booking.
+     *
+     * @param apartmentId id of the apartment
+     * @return bookings of the apartment, in no particular order
+     */
+    List<T> getBookingsOfApartment(@NotNull String apartmentId);
+
+    /**
+     * Stores a new booking under a fresh id.
+     *
+     * @param booking booking to store; its id is ignored
+     * @return the stored booking with its id
+     */
+    T save(@NotNull T booking);
+    void delete(long bookingId) throws NoSuchBookingException;
+}
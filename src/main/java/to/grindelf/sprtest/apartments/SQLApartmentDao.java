@@ -0,0 +1,114 @@
+package to.grindelf.sprtest.apartments;
+
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.domain.Apartment;
+import to.grindelf.sprtest.exceptions.DuplicateKeyException;
+import to.grindelf.sprtest.exceptions.NoSuchApartmentException;
+import to.grindelf.sprtest.exceptions.NoSuchRowException;
+import to.grindelf.sprtest.utils.SQLDataOperator;
+import to.grindelf.sprtest.utils.database.DatabaseDaoUtils;
+import to.grindelf.sprtest.utils.database.RowMapper;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static to.grindelf.sprtest.utils.ConstantValues.*;
+
+/**
+ * Apartment DAO backed by the SQLite database file.
+ * <p>The apartments table is not part of the original database, so it is created on first use
+ * rather than at startup.</p>
+ */
+public class SQLApartmentDao implements ApartmentDao<Apartment> {
+
+    private static final String TABLE_DEFINITION = "id TEXT PRIMARY KEY NOT NULL, title TEXT NOT NULL";
+
+    private final SQLDataOperator<Apartment, String> operator;
+    private final String filePath;
+    private final RowMapper<Apartment> mapper = new DatabaseDaoUtils().apartmentMapper;
+    private volatile boolean tableReady;
+
+    public SQLApartmentDao(@NotNull SQLDataOperator<Apartment, String> operator) {
+        this(operator, USER_DB_FILE_PATH);
+    }
+
+    public SQLApartmentDao(@NotNull SQLDataOperator<Apartment, String> operator, @NotNull String filePath) {
+        this.operator = operator;
+        this.filePath = filePath;
+    }
+
+    @Override
+    public Apartment getApartmentById(@NotNull String apartmentId) throws NoSuchApartmentException {
+        try {
+            ensureTable();
+            return this.operator.getByKey(
+                    apartmentId,
+                    APARTMENTS_COLUMN_KEY_COLUMN_NAME,
+                    APARTMENTS_COLUMNS_NAMES,
+                    this.filePath,
+                    DatabaseTableNames.APARTMENTS_TABLE,
+                    mapper
+            );
+        } catch (NoSuchRowException e) {
+            throw new NoSuchApartmentException(apartmentId);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public List<Apartment> getAll() {
+        try {
+            ensureTable();
+            return this.operator.getAll(
+                    APARTMENTS_COLUMNS_NAMES,
+                    this.filePath,
+                    mapper,
+                    DatabaseTableNames.APARTMENTS_TABLE
+            );
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void save(@NotNull Apartment apartment) {
+        try {
+            ensureTable();
+            this.operator.post(
+                    apartment,
+                    this.filePath,
+                    DatabaseTableNames.APARTMENTS_TABLE,
+                    APARTMENTS_COLUMN_KEY_COLUMN_NAME
+            );
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("Apartment " + apartment.getId() + " already exists.");
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void delete(@NotNull String apartmentId) throws NoSuchApartmentException {
+        try {
+            ensureTable();
+            this.operator.delete(
+                    apartmentId,
+                    APARTMENTS_COLUMN_KEY_COLUMN_NAME,
+                    this.filePath,
+                    DatabaseTableNames.APARTMENTS_TABLE
+            );
+        } catch (NoSuchRowException e) {
+            throw new NoSuchApartmentException(apartmentId);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void ensureTable() throws SQLException {
+        if (!tableReady) {
+            this.operator.createTableIfAbsent(this.filePath, DatabaseTableNames.APARTMENTS_TABLE, TABLE_DEFINITION);
+            tableReady = true;
+        }
+    }
+}
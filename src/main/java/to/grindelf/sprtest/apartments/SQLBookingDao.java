@@ -0,0 +1,127 @@
+package to.grindelf.sprtest.apartments;
+
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.domain.Booking;
+import to.grindelf.sprtest.exceptions.NoSuchBookingException;
+import to.grindelf.sprtest.exceptions.NoSuchRowException;
+import to.grindelf.sprtest.utils.SQLDataOperator;
+import to.grindelf.sprtest.utils.database.DatabaseDaoUtils;
+import to.grindelf.sprtest.utils.database.RowMapper;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static to.grindelf.sprtest.utils.ConstantValues.*;
+
+/**
+ * Booking DAO backed by the SQLite database file.
+ * <p>Ids are assigned by SQLite: the id column is an {@code INTEGER PRIMARY KEY}, so a booking inserted
+ * without one is stored under a fresh rowid, which is unique across every process writing the file.</p>
+ */
+public class SQLBookingDao implements BookingDao<Booking> {
+
+    private final SQLDataOperator<Booking, Long> operator;
+    private final String filePath;
+    private final RowMapper<Booking> mapper = new DatabaseDaoUtils().bookingMapper;
+
+    public SQLBookingDao(@NotNull SQLDataOperator<Booking, Long> operator) {
+        this(operator, USER_DB_FILE_PATH);
+    }
+
+    public SQLBookingDao(@NotNull SQLDataOperator<Booking, Long> operator, @NotNull String filePath) {
+        this.operator = operator;
+        this.filePath = filePath;
+    }
+
+    @Override
+    public Booking getBookingById(long bookingId) throws NoSuchBookingException {
+        try {
+            return this.operator.getByKey(
+                    bookingId,
+                    BOOKINGS_COLUMN_KEY_COLUMN_NAME,
+                    BOOKINGS_COLUMNS_NAMES,
+                    this.filePath,
+                    DatabaseTableNames.BOOKINGS_TABLE,
+                    mapper
+            );
+        } catch (NoSuchRowException e) {
+            throw new NoSuchBookingException(bookingId);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public List<Booking> getAll() {
+        try (Stream<Booking> bookings = stream()) {
+            return bookings.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    @Override
+    public Stream<Booking> stream() {
+        return this.operator.stream(
+                BOOKINGS_COLUMN_KEY_COLUMN_NAME,
+                BOOKINGS_COLUMNS_NAMES,
+                this.filePath,
+                mapper,
+                DatabaseTableNames.BOOKINGS_TABLE
+        );
+    }
+
+    @Override
+    public List<Booking> getBookingsOfApartment(@NotNull String apartmentId) {
+        try {
+            return this.operator.getAllByColumn(
+                    apartmentId,
+                    BOOKINGS_APARTMENT_COLUMN_NAME,
+                    BOOKINGS_COLUMNS_NAMES,
+                    this.filePath,
+                    mapper,
+                    DatabaseTableNames.BOOKINGS_TABLE
+            );
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public Booking save(@NotNull Booking booking) {
+        Booking unassigned = new Booking(
+                null,
+                booking.getApartmentId(),
+                booking.getBookerName(),
+                booking.getDateFrom(),
+                booking.getDateTo()
+        );
+
+        try {
+            return booking.withId(this.operator.postGeneratingKey(
+                    unassigned,
+                    this.filePath,
+                    DatabaseTableNames.BOOKINGS_TABLE
+            ));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void delete(long bookingId) throws NoSuchBookingException {
+        try {
+            this.operator.delete(
+                    bookingId,
+                    BOOKINGS_COLUMN_KEY_COLUMN_NAME,
+                    this.filePath,
+                    DatabaseTableNames.BOOKINGS_TABLE
+            );
+        } catch (NoSuchRowException e) {
+            throw new NoSuchBookingException(bookingId);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
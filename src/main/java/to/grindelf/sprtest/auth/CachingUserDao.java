@@ -0,0 +1,217 @@
+package to.grindelf.sprtest.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache in front of another {@link UserDao}.
+ * <p>Users found by name are kept in a bounded cache (W-TinyLFU admission, size and TTL eviction).
+ * Names that were looked up and not found are remembered in a separate, short-lived negative
+ * cache, so repeated attempts with unknown names do not reach the storage. Every write through
+ * this DAO invalidates both caches for the affected name.</p>
+ * <p>A name is looked up in the storage outside of any cache lock, so a slow read stalls neither
+ * other names nor the carrier thread of a virtual thread. Every write through this DAO counts itself
+ * before it invalidates its name, and a lookup publishes what it read only if no write was counted
+ * since it started: a write racing with the lookup can therefore leave neither an old user nor its
+ * name as unknown behind. Bulk imports do not know their names upfront; each one starts a new
+ * generation instead, and names remembered as unknown in an earlier generation are looked up again.</p>
+ */
+public class CachingUserDao implements UserDao<User> {
+
+    /**
+     * Settings of the user cache.
+     *
+     * @param maximumSize         maximum number of cached users
+     * @param timeToLive          how long a cached user is served before it is reloaded
+     * @param negativeMaximumSize maximum number of remembered unknown names
+     * @param negativeTimeToLive  how long an unknown name is remembered
+     */
+    public record Settings(
+            long maximumSize,
+            @NotNull Duration timeToLive,
+            long negativeMaximumSize,
+            @NotNull Duration negativeTimeToLive
+    ) {
+        public static final Settings DEFAULT = new Settings(
+                10_000,
+                Duration.ofMinutes(10),
+                100_000,
+                Duration.ofSeconds(30)
+        );
+    }
+
+    /**
+     * Counters of both caches.
+     *
+     * @param users        statistics of the cache of found users
+     * @param unknownNames statistics of the negative cache of unknown names
+     */
+    public record Statistics(@NotNull CacheStats users, @NotNull CacheStats unknownNames) {
+    }
+
+    private final UserDao<User> delegate;
+    private final Cache<String, User> users;
+    private final Cache<String, Long> unknownNames;
+    private final AtomicLong importGeneration = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    public CachingUserDao(@NotNull UserDao<User> delegate) {
+        this(delegate, Settings.DEFAULT);
+    }
+
+    public CachingUserDao(@NotNull UserDao<User> delegate, @NotNull Settings settings) {
+        this.delegate = delegate;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(settings.maximumSize())
+                .expireAfterWrite(settings.timeToLive())
+                .recordStats()
+                .build();
+        this.unknownNames = Caffeine.newBuilder()
+                .maximumSize(settings.negativeMaximumSize())
+                .expireAfterWrite(settings.negativeTimeToLive())
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public User getUserByName(@NotNull String userName) throws NoSuchUserException {
+        Optional<User> user = findUserByName(userName);
+
+        if (user.isEmpty()) {
+            throw new NoSuchUserException();
+        }
+
+        return user.get();
+    }
+
+    @Override
+    public Optional<User> findUserByName(@NotNull String userName) {
+        Long unknownSince = unknownNames.getIfPresent(userName);
+        if (unknownSince != null && unknownSince == importGeneration.get()) {
+            return Optional.empty();
+        }
+
+        User user = users.getIfPresent(userName);
+        if (user != null) {
+            return Optional.of(user);
+        }
+
+        long generation = importGeneration.get();
+        long writesBefore = writes.get();
+        Optional<User> loaded = delegate.findUserByName(userName);
+
+        // Checked under the lock of the entry, so a write counted after the check invalidates what is published
+        if (loaded.isPresent()) {
+            users.asMap().compute(userName, (name, cached) -> writes.get() == writesBefore ? loaded.get() : cached);
+        } else {
+            unknownNames.asMap().compute(userName, (name, recorded) -> writes.get() == writesBefore ? Long.valueOf(generation) : recorded);
+        }
+
+        return loaded;
+    }
+
+    @Override
+    public List<User> getAll() throws SQLException {
+        return delegate.getAll();
+    }
+
+    /**
+     * Pages are read from the storage directly; listing users is not worth evicting looked-up users for.
+     */
+    @Override
+    public List<User> getPage(@Nullable String afterName, int limit) {
+        return delegate.getPage(afterName, limit);
+    }
+
+    @Override
+    public Stream<User> stream() {
+        return delegate.stream();
+    }
+
+    @Override
+    public void save(@NotNull User user) throws UserAlreadyExistsException {
+        try {
+            delegate.save(user);
+        } finally {
+            invalidate(user.getName());
+        }
+    }
+
+    /**
+     * Saves the users and starts a new generation of the negative cache, since a bulk import may add any name.
+     * Cached users stay: a bulk import skips names that are taken, so it never changes them.
+     */
+    @Override
+    public BulkImportReport<String> saveAll(@NotNull Iterable<? extends User> users) {
+        try {
+            return delegate.saveAll(users);
+        } finally {
+            // Entries recorded by lookups still in flight carry the old generation and are ignored
+            importGeneration.incrementAndGet();
+            unknownNames.invalidateAll();
+        }
+    }
+
+    @Override
+    public void update(@NotNull User user) throws NoSuchUserException {
+        try {
+            delegate.update(user);
+        } finally {
+            invalidate(user.getName());
+        }
+    }
+
+    @Override
+    public void delete(@NotNull String userName) throws NoSuchUserException {
+        try {
+            delegate.delete(userName);
+        } finally {
+            invalidate(userName);
+        }
+    }
+
+    /**
+     * Drops everything cached for the name.
+     *
+     * @param userName name of the user
+     */
+    public void invalidate(@NotNull String userName) {
+        // Lookups in flight may have read the storage before the write; they no longer publish
+        writes.incrementAndGet();
+        unknownNames.invalidate(userName);
+        users.invalidate(userName);
+    }
+
+    /**
+     * Drops both caches entirely.
+     */
+    public void invalidateAll() {
+        importGeneration.incrementAndGet();
+        writes.incrementAndGet();
+        unknownNames.invalidateAll();
+        users.invalidateAll();
+    }
+
+    /**
+     * Returns hit, miss and eviction counters of both caches.
+     *
+     * @return cache statistics
+     */
+    public @NotNull Statistics getStatistics() {
+        return new Statistics(users.stats(), unknownNames.stats());
+    }
+}
@@ -0,0 +1,82 @@
+package to.grindelf.sprtest.auth;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+import to.grindelf.sprtest.utils.json.JsonIndexedStore;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * User DAO backed by the JSON file, served from an in-memory {@link JsonIndexedStore}.
+ */
+public class JsonUserDao implements UserDao<User> {
+
+    private final JsonIndexedStore<User, String> store;
+
+    public JsonUserDao(@NotNull JsonIndexedStore<User, String> store) {
+        this.store = store;
+    }
+
+    @Override
+    public User getUserByName(@NotNull String userName) throws NoSuchUserException {
+        User resultUser = this.store.get(userName);
+
+        if (resultUser == null) {
+            throw new NoSuchUserException();
+        }
+
+        return resultUser;
+    }
+
+    @Override
+    public Optional<User> findUserByName(@NotNull String userName) {
+        return Optional.ofNullable(this.store.get(userName));
+    }
+
+    @Override
+    public List<User> getAll() {
+        return this.store.values();
+    }
+
+    @Override
+    public List<User> getPage(@Nullable String afterName, int limit) {
+        return this.store.page(afterName, limit);
+    }
+
+    @Override
+    public Stream<User> stream() {
+        return this.store.stream();
+    }
+
+    @Override
+    public void save(@NotNull User user) throws UserAlreadyExistsException {
+        if (!this.store.insert(user)) {
+            throw new UserAlreadyExistsException();
+        }
+    }
+
+    @Override
+    public BulkImportReport<String> saveAll(@NotNull Iterable<? extends User> users) {
+        return this.store.insertAll(users);
+    }
+
+    @Override
+    public void update(@NotNull User user) throws NoSuchUserException {
+        if (!this.store.replace(user)) {
+            throw new NoSuchUserException();
+        }
+    }
+
+    @Override
+    public void delete(@NotNull String userName) throws NoSuchUserException {
+        if (!this.store.remove(userName)) {
+            throw new NoSuchUserException();
+        }
+    }
+}
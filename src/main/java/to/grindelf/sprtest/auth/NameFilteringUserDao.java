@@ -0,0 +1,119 @@
+package to.grindelf.sprtest.auth;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import to.grindelf.sprtest.auth.shield.UserNameFilter;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a {@link UserNameFilter} in step with another {@link UserDao} and answers lookups of
+ * names the filter rules out without reaching it.
+ * <p>The names of the storage are added when the DAO is created, and every name saved through it
+ * is added before the save, so a name is in the filter by the time it can be found. Users added
+ * to the storage by other processes are not seen; the filter must not be used then.</p>
+ */
+public class NameFilteringUserDao implements UserDao<User> {
+
+    private final UserDao<User> delegate;
+    private final UserNameFilter filter;
+
+    /**
+     * Adds every user name of the storage to the filter.
+     *
+     * @param delegate DAO of the storage
+     * @param filter   filter to keep current
+     */
+    public NameFilteringUserDao(@NotNull UserDao<User> delegate, @NotNull UserNameFilter filter) {
+        this.delegate = delegate;
+        this.filter = filter;
+
+        try (Stream<User> users = delegate.stream()) {
+            users.forEach(user -> filter.add(user.getName()));
+        }
+    }
+
+    @Override
+    public User getUserByName(@NotNull String userName) throws NoSuchUserException {
+        if (!filter.mightContain(userName)) {
+            throw new NoSuchUserException();
+        }
+        return delegate.getUserByName(userName);
+    }
+
+    @Override
+    public Optional<User> findUserByName(@NotNull String userName) {
+        if (!filter.mightContain(userName)) {
+            return Optional.empty();
+        }
+        return delegate.findUserByName(userName);
+    }
+
+    @Override
+    public List<User> getAll() throws SQLException {
+        return delegate.getAll();
+    }
+
+    @Override
+    public List<User> getPage(@Nullable String afterName, int limit) {
+        return delegate.getPage(afterName, limit);
+    }
+
+    @Override
+    public Stream<User> stream() {
+        return delegate.stream();
+    }
+
+    @Override
+    public void save(@NotNull User user) throws UserAlreadyExistsException {
+        filter.add(user.getName());
+        delegate.save(user);
+    }
+
+    @Override
+    public BulkImportReport<String> saveAll(@NotNull Iterable<? extends User> users) {
+        return delegate.saveAll(() -> new AddingIterator(users.iterator()));
+    }
+
+    @Override
+    public void update(@NotNull User user) throws NoSuchUserException {
+        delegate.update(user);
+    }
+
+    @Override
+    public void delete(@NotNull String userName) throws NoSuchUserException {
+        delegate.delete(userName);
+    }
+
+    /**
+     * Adds each name as the storage reads the user, so a bulk import is not buffered here.
+     */
+    private final class AddingIterator implements Iterator<User> {
+
+        private final Iterator<? extends User> users;
+
+        private AddingIterator(@NotNull Iterator<? extends User> users) {
+            this.users = users;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return users.hasNext();
+        }
+
+        @Override
+        public User next() {
+            User user = users.next();
+            filter.add(user.getName());
+            return user;
+        }
+    }
+}
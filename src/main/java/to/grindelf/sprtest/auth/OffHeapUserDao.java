@@ -0,0 +1,192 @@
+package to.grindelf.sprtest.auth;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+import to.grindelf.sprtest.utils.offheap.OffHeapUserTable;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Keeps every user of another {@link UserDao} in an {@link OffHeapUserTable}.
+ * <p>An alternative to {@link CachingUserDao} for large user bases: the table holds all users,
+ * so every lookup by name is answered from it, unknown names included, while the heap holds
+ * only the table's handful of objects. The users are loaded once when the DAO is created.</p>
+ * <p>Listings are read from the storage. Writes go to the storage first and are then applied to
+ * the table, under a lock of the name's stripe, so writes of one name reach both in the same order.</p>
+ */
+public class OffHeapUserDao implements UserDao<User> {
+
+    private static final int NAME_STRIPES = 64;
+    private static final int IMPORT_CHUNK_SIZE = 1024;
+
+    private final UserDao<User> delegate;
+    private final OffHeapUserTable table = new OffHeapUserTable();
+    private final ReentrantLock[] stripes = new ReentrantLock[NAME_STRIPES];
+
+    /**
+     * Loads every user of the storage into the table.
+     *
+     * @param delegate DAO of the storage
+     */
+    public OffHeapUserDao(@NotNull UserDao<User> delegate) {
+        this.delegate = delegate;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+
+        try (Stream<User> users = delegate.stream()) {
+            users.forEach(table::put);
+        }
+    }
+
+    @Override
+    public User getUserByName(@NotNull String userName) throws NoSuchUserException {
+        User user = table.get(userName);
+
+        if (user == null) {
+            throw new NoSuchUserException();
+        }
+
+        return user;
+    }
+
+    @Override
+    public Optional<User> findUserByName(@NotNull String userName) {
+        return Optional.ofNullable(table.get(userName));
+    }
+
+    @Override
+    public List<User> getAll() throws SQLException {
+        return delegate.getAll();
+    }
+
+    @Override
+    public List<User> getPage(@Nullable String afterName, int limit) {
+        return delegate.getPage(afterName, limit);
+    }
+
+    @Override
+    public Stream<User> stream() {
+        return delegate.stream();
+    }
+
+    @Override
+    public void save(@NotNull User user) throws UserAlreadyExistsException {
+        ReentrantLock stripe = stripeOf(user.getName());
+        stripe.lock();
+        try {
+            delegate.save(user);
+            table.put(user);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Saves the users and adds those that were not skipped as conflicts. Holds every stripe,
+     * since a bulk import may touch any name.
+     * <p>The users are read from the iterable in chunks of {@value #IMPORT_CHUNK_SIZE}, and each chunk
+     * is saved with its own {@link UserDao#saveAll} of the storage, so a large import is never held in
+     * memory at once. If a chunk fails, the chunks before it stay saved and in the table.</p>
+     */
+    @Override
+    public BulkImportReport<String> saveAll(@NotNull Iterable<? extends User> users) {
+        Iterator<? extends User> iterator = users.iterator();
+        List<User> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        long imported = 0;
+        List<String> conflicts = new ArrayList<>();
+
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+        try {
+            while (iterator.hasNext()) {
+                while (iterator.hasNext() && chunk.size() < IMPORT_CHUNK_SIZE) {
+                    chunk.add(iterator.next());
+                }
+
+                BulkImportReport<String> report = saveChunk(chunk);
+                imported += report.imported();
+                conflicts.addAll(report.conflicts());
+                chunk.clear();
+            }
+
+            return new BulkImportReport<>(imported, conflicts);
+        } finally {
+            for (ReentrantLock stripe : stripes) {
+                stripe.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void update(@NotNull User user) throws NoSuchUserException {
+        ReentrantLock stripe = stripeOf(user.getName());
+        stripe.lock();
+        try {
+            delegate.update(user);
+            table.put(user);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public void delete(@NotNull String userName) throws NoSuchUserException {
+        ReentrantLock stripe = stripeOf(userName);
+        stripe.lock();
+        try {
+            delegate.delete(userName);
+            table.remove(userName);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Returns the size of the table and the native memory it takes.
+     *
+     * @return table statistics
+     */
+    public @NotNull OffHeapUserTable.Statistics getStatistics() {
+        return table.getStatistics();
+    }
+
+    /**
+     * Saves one chunk of an import and adds its imported users to the table. Called with every stripe held.
+     */
+    private @NotNull BulkImportReport<String> saveChunk(@NotNull List<User> chunk) {
+        BulkImportReport<String> report = delegate.saveAll(chunk);
+
+        // Repeats of a name within the chunk are reported as conflicts too, and the first one is
+        // imported, so a name was imported if it occurs more often than it conflicted
+        Map<String, Integer> occurrences = new HashMap<>();
+        chunk.forEach(user -> occurrences.merge(user.getName(), 1, Integer::sum));
+        report.conflicts().forEach(name -> occurrences.merge(name, -1, Integer::sum));
+
+        for (User user : chunk) {
+            if (occurrences.getOrDefault(user.getName(), 0) > 0) {
+                occurrences.remove(user.getName());
+                table.put(user);
+            }
+        }
+        return report;
+    }
+
+    private @NotNull ReentrantLock stripeOf(@NotNull String userName) {
+        int hash = userName.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
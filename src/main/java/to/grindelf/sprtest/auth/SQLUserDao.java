@@ -0,0 +1,191 @@
+package to.grindelf.sprtest.auth;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.DuplicateKeyException;
+import to.grindelf.sprtest.exceptions.NoSuchRowException;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+import to.grindelf.sprtest.utils.BulkImportSettings;
+import to.grindelf.sprtest.utils.SQLDataOperator;
+import to.grindelf.sprtest.utils.database.DatabaseDaoUtils;
+import to.grindelf.sprtest.utils.database.RowMapper;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static to.grindelf.sprtest.utils.ConstantValues.*;
+
+/**
+ * User DAO backed by the SQLite database file.
+ */
+public class SQLUserDao implements UserDao<User> {
+
+    private final SQLDataOperator<User, String> operator;
+    private final String filePath;
+    private final BulkImportSettings importSettings;
+    private final RowMapper<User> mapper = new DatabaseDaoUtils().userMapper;
+
+    public SQLUserDao(@NotNull SQLDataOperator<User, String> operator) {
+        this(operator, USER_DB_FILE_PATH);
+    }
+
+    /**
+     * Constructor for a users table in another database file than the default one.
+     *
+     * @param operator operator to access the database with
+     * @param filePath path to the database file
+     */
+    public SQLUserDao(@NotNull SQLDataOperator<User, String> operator, @NotNull String filePath) {
+        this(operator, filePath, BulkImportSettings.DEFAULT);
+    }
+
+    /**
+     * Constructor with custom settings of {@link #saveAll(Iterable)}.
+     *
+     * @param operator       operator to access the database with
+     * @param filePath       path to the database file
+     * @param importSettings batch size and validation mode of bulk imports
+     */
+    public SQLUserDao(
+            @NotNull SQLDataOperator<User, String> operator,
+            @NotNull String filePath,
+            @NotNull BulkImportSettings importSettings
+    ) {
+        this.operator = operator;
+        this.filePath = filePath;
+        this.importSettings = importSettings;
+    }
+
+    @Override
+    public User getUserByName(@NotNull String userName) throws NoSuchUserException {
+        Optional<User> user = findUserByName(userName);
+
+        if (user.isEmpty()) {
+            throw new NoSuchUserException();
+        }
+
+        return user.get();
+    }
+
+    @Override
+    public Optional<User> findUserByName(@NotNull String userName) {
+        try {
+            return this.operator.findByKey(
+                    userName,
+                    USERS_COLUMN_KEY_COLUMN_NAME,
+                    USERS_COLUMNS_NAMES,
+                    this.filePath,
+                    DatabaseTableNames.USERS_TABLE,
+                    mapper
+            );
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public List<User> getAll() {
+        try (Stream<User> users = stream()) {
+            return users.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    @Override
+    public List<User> getPage(@Nullable String afterName, int limit) {
+        try {
+            return this.operator.getPage(
+                    afterName,
+                    USERS_COLUMN_KEY_COLUMN_NAME,
+                    limit,
+                    USERS_COLUMNS_NAMES,
+                    this.filePath,
+                    mapper,
+                    DatabaseTableNames.USERS_TABLE
+            );
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public Stream<User> stream() {
+        return this.operator.stream(
+                USERS_COLUMN_KEY_COLUMN_NAME,
+                USERS_COLUMNS_NAMES,
+                this.filePath,
+                mapper,
+                DatabaseTableNames.USERS_TABLE
+        );
+    }
+
+    @Override
+    public void save(@NotNull User user) throws UserAlreadyExistsException {
+        try {
+            this.operator.post(
+                    user,
+                    this.filePath,
+                    DatabaseTableNames.USERS_TABLE,
+                    USERS_COLUMN_KEY_COLUMN_NAME
+            );
+        } catch (DuplicateKeyException e) {
+            throw new UserAlreadyExistsException();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public BulkImportReport<String> saveAll(@NotNull Iterable<? extends User> users) {
+        try {
+            return this.operator.postAll(
+                    users,
+                    this.filePath,
+                    DatabaseTableNames.USERS_TABLE,
+                    USERS_COLUMN_KEY_COLUMN_NAME,
+                    this.importSettings
+            );
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void update(@NotNull User user) throws NoSuchUserException {
+        try {
+            this.operator.update(
+                    user.getName(),
+                    USERS_COLUMN_KEY_COLUMN_NAME,
+                    user,
+                    this.filePath,
+                    DatabaseTableNames.USERS_TABLE
+            );
+        } catch (NoSuchRowException e) {
+            throw new NoSuchUserException();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void delete(@NotNull String userName) throws NoSuchUserException {
+        try {
+            this.operator.delete(
+                    userName,
+                    USERS_COLUMN_KEY_COLUMN_NAME,
+                    this.filePath,
+                    DatabaseTableNames.USERS_TABLE
+            );
+        } catch (NoSuchRowException e) {
+            throw new NoSuchUserException();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package to.grindelf.sprtest.auth;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+import to.grindelf.sprtest.utils.snapshot.UserSnapshot;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Read-only user DAO backed by a memory-mapped {@link UserSnapshot}.
+ * <p>Meant for nodes that only authenticate: lookups need neither a connection nor parsing, so
+ * no cache is put in front of it. Every write throws {@link UnsupportedOperationException}.</p>
+ */
+public class SnapshotUserDao implements UserDao<User> {
+
+    private final UserSnapshot snapshot;
+
+    public SnapshotUserDao(@NotNull UserSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public User getUserByName(@NotNull String userName) throws NoSuchUserException {
+        User user = snapshot.get(userName);
+
+        if (user == null) {
+            throw new NoSuchUserException();
+        }
+
+        return user;
+    }
+
+    @Override
+    public Optional<User> findUserByName(@NotNull String userName) {
+        return Optional.ofNullable(snapshot.get(userName));
+    }
+
+    @Override
+    public List<User> getAll() {
+        return snapshot.stream().toList();
+    }
+
+    @Override
+    public List<User> getPage(@Nullable String afterName, int limit) {
+        return snapshot.page(afterName, limit);
+    }
+
+    @Override
+    public Stream<User> stream() {
+        return snapshot.stream();
+    }
+
+    @Override
+    public void save(@NotNull User user) {
+        throw readOnly();
+    }
+
+    @Override
+    public BulkImportReport<String> saveAll(@NotNull Iterable<? extends User> users) {
+        throw readOnly();
+    }
+
+    @Override
+    public void update(@NotNull User user) {
+        throw readOnly();
+    }
+
+    @Override
+    public void delete(@NotNull String userName) {
+        throw readOnly();
+    }
+
+    private @NotNull UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("User snapshot " + snapshot.getPath() + " is read-only.");
+    }
+}
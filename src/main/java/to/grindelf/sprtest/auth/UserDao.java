@@ -1,19 +1,64 @@
 package to.grindelf.sprtest.auth;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.stereotype.Component;
 import to.grindelf.sprtest.exceptions.NoSuchUserException;
 import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.utils.BulkImportReport;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Component
 public interface UserDao<T> {
 
     T getUserByName(@NotNull String userName) throws NoSuchUserException;
+
+    /**
+     * Returns the user with the name, if there is one. Unlike {@link #getUserByName}, an unknown
+     * name is an empty result rather than an exception, which suits paths where unknown names
+     * are routine, such as failed logins.
+     *
+     * @param userName name of the user
+     * @return the user, or empty if there is none
+     */
+    default Optional<T> findUserByName(@NotNull String userName) {
+        try {
+            return Optional.of(getUserByName(userName));
+        } catch (NoSuchUserException e) {
+            return Optional.empty();
+        }
+    }
+
     List<T> getAll() throws SQLException;
+
+    /**
+     * Returns one page of users ordered by name.
+     *
+     * @param afterName name after which the page starts, or null for the first page
+     * @param limit     maximum number of users on the page
+     * @return users of the page
+     */
+    List<T> getPage(@Nullable String afterName, int limit);
+
+    /**
+     * Returns every user ordered by name, read lazily. The stream must be closed after use.
+     *
+     * @return stream of all users
+     */
+    Stream<T> stream();
     void save(@NotNull T user) throws UserAlreadyExistsException;
+
+    /**
+     * Saves many users at once. Users whose name is already taken are skipped and reported.
+     *
+     * @param users users to save
+     * @return number of saved users and names of the skipped ones
+     */
+    BulkImportReport<String> saveAll(@NotNull Iterable<? extends T> users);
     void update(@NotNull T user) throws NoSuchUserException;
     void delete(@NotNull String userName) throws NoSuchUserException;
 }
@@ -0,0 +1,96 @@
+package to.grindelf.sprtest.auth;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.domain.UserStatus;
+import to.grindelf.sprtest.exceptions.JSONException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+import to.grindelf.sprtest.utils.json.JsonOperator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static to.grindelf.sprtest.utils.ConstantValues.USERS_COLUMNS_NAMES;
+
+/**
+ * Imports users from CSV and JSON files through {@link UserDao#saveAll(Iterable)}.
+ * <p>Files are streamed, so only the rows of the batch being written are held in memory.</p>
+ */
+public class UserImporter {
+
+    private static final String CSV_SEPARATOR = ",";
+    private static final String CSV_HEADER = String.join(CSV_SEPARATOR, USERS_COLUMNS_NAMES);
+
+    private final UserDao<User> userDao;
+    private final JsonOperator<User, String> jsonOperator;
+
+    public UserImporter(@NotNull UserDao<User> userDao) {
+        this(userDao, new JsonOperator<>(new TypeReference<List<User>>() {}));
+    }
+
+    public UserImporter(@NotNull UserDao<User> userDao, @NotNull JsonOperator<User, String> jsonOperator) {
+        this.userDao = userDao;
+        this.jsonOperator = jsonOperator;
+    }
+
+    /**
+     * Imports users from a CSV file with the columns {@code name,password,status}.
+     * <p>The header line is optional. Values are not quoted, so they must not contain commas.</p>
+     *
+     * @param file CSV file to import
+     * @return number of imported users and names of the skipped ones
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line does not have three values or has an unknown status
+     */
+    public @NotNull BulkImportReport<String> importCsv(@NotNull Path file) throws IOException {
+        try (Stream<User> users = Files.lines(file, StandardCharsets.UTF_8)
+                .map(String::strip)
+                .filter(line -> !line.isEmpty() && !line.equalsIgnoreCase(CSV_HEADER))
+                .map(UserImporter::parseCsvLine)) {
+            return userDao.saveAll(users::iterator);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Imports users from a JSON file holding an array of users.
+     *
+     * @param file JSON file to import
+     * @return number of imported users and names of the skipped ones
+     * @throws JSONException if the file cannot be read or parsed
+     */
+    public @NotNull BulkImportReport<String> importJson(@NotNull Path file) throws JSONException {
+        try (Stream<User> users = jsonOperator.stream(file.toString())) {
+            return userDao.saveAll(users::iterator);
+        }
+    }
+
+    private static @NotNull User parseCsvLine(@NotNull String line) {
+        String[] values = line.split(CSV_SEPARATOR, -1);
+
+        if (values.length != USERS_COLUMNS_NAMES.size()) {
+            throw new IllegalArgumentException("Expected " + CSV_HEADER + " but got: " + line);
+        }
+
+        return new User(values[0].strip(), values[1].strip(), parseStatus(values[2].strip()));
+    }
+
+    /**
+     * Parses the status strictly, so that a typo is not imported as an admin.
+     */
+    private static @NotNull UserStatus parseStatus(@NotNull String value) {
+        for (UserStatus status : UserStatus.values()) {
+            if (status.toString().equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown user status: " + value);
+    }
+}
@@ -0,0 +1,43 @@
+package to.grindelf.sprtest.auth;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.utils.snapshot.UserSnapshotWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Writes a {@link to.grindelf.sprtest.utils.snapshot.UserSnapshot} of the users of the active
+ * backend once at startup, for read-only nodes running the snapshot backend.
+ */
+public class UserSnapshotExporter implements ApplicationRunner {
+
+    private final UserDao<User> userDao;
+    private final Path target;
+
+    public UserSnapshotExporter(@NotNull UserDao<User> userDao, @NotNull Path target) {
+        this.userDao = userDao;
+        this.target = target;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        export();
+    }
+
+    /**
+     * Writes the snapshot, replacing the previous one.
+     *
+     * @return number of exported users
+     * @throws IOException if the snapshot cannot be written
+     */
+    public int export() throws IOException {
+        try (Stream<User> users = userDao.stream()) {
+            return UserSnapshotWriter.write(target, users::iterator);
+        }
+    }
+}
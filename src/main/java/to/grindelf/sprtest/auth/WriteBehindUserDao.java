@@ -0,0 +1,850 @@
+package to.grindelf.sprtest.auth;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind front of another {@link UserDao}: saves, updates and deletes return as soon as
+ * they are checked and appended to a local log, and a single writer thread applies them to the
+ * storage in batches.
+ * <p>A write is admitted only if it would succeed right now, so callers still get
+ * {@link UserAlreadyExistsException} and {@link NoSuchUserException} synchronously. Admitted
+ * writes wait in a bounded queue; when {@link Settings#queueCapacity()} writes are pending,
+ * further writers wait up to {@link Settings#offerTimeout()} and are then rejected. The writer
+ * collects writes for at most {@link Settings#maxStaleness()} after the oldest one arrived, saves
+ * consecutive signups with one {@link UserDao#saveAll} transaction and drops updates that a later
+ * write of the same user replaces.</p>
+ * <p>Lookups by name see pending writes before the storage does, so a user can log in right after
+ * signing up. Listing users waits until every write admitted so far is applied instead.</p>
+ * <p>The log lives next to the storage and is replayed on startup, so admitted writes survive a
+ * crash of the process; with {@link Settings#syncLog()} they survive a crash of the machine as well.
+ * It is written in segments named after {@link Settings#logPath()} with an increasing suffix; once
+ * a segment reaches {@link Settings#segmentBytes()} the next write starts a new one. After every
+ * batch the writer checkpoints: segments holding only applied writes are deleted, and the current
+ * one is emptied if the writer caught up. The log therefore stays within about one segment beyond
+ * the pending writes, however rarely the queue runs empty. Writes are applied at least once: a batch
+ * that fails is retried after {@link Settings#retryDelay()}, and the writer gives up on it only when
+ * closed, leaving it in the log for the next start.</p>
+ */
+public class WriteBehindUserDao implements UserDao<User>, AutoCloseable {
+
+    /**
+     * Settings of the write-behind queue.
+     *
+     * @param queueCapacity maximum number of admitted writes not yet applied to the storage
+     * @param maxBatchSize  maximum number of writes applied together
+     * @param maxStaleness  how long the writer waits for more writes after the oldest pending one
+     * @param offerTimeout  how long a writer waits for room in a full queue before it is rejected
+     * @param retryDelay    pause before a batch that failed is applied again
+     * @param logPath       path the log segments are named after
+     * @param syncLog       whether every append is forced to the disk before the write returns
+     * @param segmentBytes  size after which the log continues in a new segment
+     */
+    public record Settings(
+            int queueCapacity,
+            int maxBatchSize,
+            @NotNull Duration maxStaleness,
+            @NotNull Duration offerTimeout,
+            @NotNull Duration retryDelay,
+            @NotNull Path logPath,
+            boolean syncLog,
+            long segmentBytes
+    ) {
+        public static final long DEFAULT_SEGMENT_BYTES = 4L << 20;
+
+        public Settings {
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("Write-behind queue must hold at least one write.");
+            }
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("Write-behind batches must hold at least one write.");
+            }
+            if (segmentBytes < 1) {
+                throw new IllegalArgumentException("Write-behind log segments must hold at least one byte.");
+            }
+        }
+
+        /**
+         * Default settings: 1024 pending writes, batches of 256 collected for up to 50 ms,
+         * log appends flushed to the operating system but not forced to the disk, 4 MiB segments.
+         *
+         * @param logPath path of the log of admitted writes
+         * @return default settings
+         */
+        public static @NotNull Settings defaults(@NotNull Path logPath) {
+            return new Settings(
+                    1024,
+                    256,
+                    Duration.ofMillis(50),
+                    Duration.ofSeconds(1),
+                    Duration.ofSeconds(1),
+                    logPath,
+                    false,
+                    DEFAULT_SEGMENT_BYTES
+            );
+        }
+    }
+
+    /**
+     * Counters of the write-behind queue.
+     *
+     * @param admitted  writes accepted from callers
+     * @param applied   writes applied to the storage, including dropped and conflicting ones
+     * @param batches   batches applied to the storage
+     * @param coalesced updates dropped because a later write of the same user replaced them
+     * @param conflicts writes the storage refused when they were applied
+     * @param failures  batch attempts that failed and were retried
+     * @param rejected  writes refused because the queue stayed full
+     * @param pending   writes currently waiting to be applied
+     */
+    public record Statistics(
+            long admitted,
+            long applied,
+            long batches,
+            long coalesced,
+            long conflicts,
+            long failures,
+            long rejected,
+            int pending
+    ) {
+    }
+
+    private enum Kind {
+        SAVE,
+        UPDATE,
+        DELETE
+    }
+
+    private record PendingWrite(long sequence, @NotNull Kind kind, @NotNull String name, @Nullable User user, long admittedNanos) {
+    }
+
+    /**
+     * Log segment no longer appended to.
+     *
+     * @param path         file of the segment
+     * @param lastSequence sequence of the last write in the segment
+     */
+    private record Segment(@NotNull Path path, long lastSequence) {
+    }
+
+    private static final String OPERATION_FIELD = "op";
+    private static final String NAME_FIELD = "name";
+    private static final String VALUE_FIELD = "value";
+    private static final long IDLE_POLL_MILLIS = 100;
+    private static final int NAME_STRIPES = 64;
+
+    private final UserDao<User> delegate;
+    private final Settings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Semaphore slots;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Map<String, PendingWrite> pending = new ConcurrentHashMap<>();
+
+    // Writes of one name are checked and queued under its stripe, so they cannot overtake each other
+    private final ReentrantLock[] stripes = new ReentrantLock[NAME_STRIPES];
+
+    // Guards the current segment and the sequence, so that log order is queue order
+    private final ReentrantLock admission = new ReentrantLock();
+    private FileChannel log;
+    private Path segmentPath;
+    private long segmentSize;
+    private long nextSegment = 1;
+    private long lastSequence;
+
+    // Sealed segments in log order; appended under the admission lock, removed by the writer only
+    private final Deque<Segment> sealed = new ConcurrentLinkedDeque<>();
+
+    private final ReentrantLock progressLock = new ReentrantLock();
+    private final Condition progress = progressLock.newCondition();
+    private volatile long appliedSequence;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * Opens the log, starts the writer and queues the writes left in the log by a previous run.
+     *
+     * @param delegate DAO the writes are applied to
+     * @param settings queue settings
+     */
+    public WriteBehindUserDao(@NotNull UserDao<User> delegate, @NotNull Settings settings) {
+        this.delegate = delegate;
+        this.settings = settings;
+        this.slots = new Semaphore(settings.queueCapacity(), true);
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+
+        // Recovered segments stay sealed until the writer has applied every write in them
+        List<PendingWrite> recovered = readLog();
+        this.lastSequence = recovered.size();
+        openSegment();
+        this.writer = new Thread(this::runWriter, "user-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+        for (PendingWrite write : recovered) {
+            slots.acquireUninterruptibly();
+            admission.lock();
+            try {
+                enqueue(write);
+            } finally {
+                admission.unlock();
+            }
+        }
+    }
+
+    // ======================================================== \\
+    //                          READS                           \\
+    // ======================================================== \\
+
+    @Override
+    public User getUserByName(@NotNull String userName) throws NoSuchUserException {
+        PendingWrite write = pending.get(userName);
+        if (write == null) {
+            return delegate.getUserByName(userName);
+        }
+
+        if (write.kind() == Kind.DELETE) {
+            throw new NoSuchUserException();
+        }
+        return write.user();
+    }
+
+    @Override
+    public Optional<User> findUserByName(@NotNull String userName) {
+        PendingWrite write = pending.get(userName);
+        if (write == null) {
+            return delegate.findUserByName(userName);
+        }
+
+        return write.kind() == Kind.DELETE ? Optional.empty() : Optional.of(write.user());
+    }
+
+    @Override
+    public List<User> getAll() throws SQLException {
+        flush();
+        return delegate.getAll();
+    }
+
+    @Override
+    public List<User> getPage(@Nullable String afterName, int limit) {
+        flush();
+        return delegate.getPage(afterName, limit);
+    }
+
+    @Override
+    public Stream<User> stream() {
+        flush();
+        return delegate.stream();
+    }
+
+    // ======================================================== \\
+    //                          WRITES                          \\
+    // ======================================================== \\
+
+    /**
+     * Queues the user for saving.
+     *
+     * @throws UserAlreadyExistsException if the name is taken in the storage or by a pending write
+     * @throws RejectedExecutionException if the queue stays full for longer than the offer timeout
+     */
+    @Override
+    public void save(@NotNull User user) throws UserAlreadyExistsException {
+        acquireSlot();
+        boolean queued = false;
+        ReentrantLock stripe = stripeOf(user.getName());
+        stripe.lock();
+        try {
+            if (exists(user.getName())) {
+                throw new UserAlreadyExistsException();
+            }
+            admit(Kind.SAVE, user.getName(), user);
+            queued = true;
+        } finally {
+            stripe.unlock();
+            if (!queued) {
+                slots.release();
+            }
+        }
+    }
+
+    /**
+     * Applies pending writes, then saves the users directly; a bulk import is batched already.
+     * Writes checked during the import are queued after it and may turn out to conflict with it.
+     */
+    @Override
+    public BulkImportReport<String> saveAll(@NotNull Iterable<? extends User> users) {
+        admission.lock();
+        try {
+            flush();
+            return delegate.saveAll(users);
+        } finally {
+            admission.unlock();
+        }
+    }
+
+    /**
+     * Queues the new state of the user.
+     *
+     * @throws NoSuchUserException        if the user exists neither in the storage nor in a pending write
+     * @throws RejectedExecutionException if the queue stays full for longer than the offer timeout
+     */
+    @Override
+    public void update(@NotNull User user) throws NoSuchUserException {
+        acquireSlot();
+        boolean queued = false;
+        ReentrantLock stripe = stripeOf(user.getName());
+        stripe.lock();
+        try {
+            if (!exists(user.getName())) {
+                throw new NoSuchUserException();
+            }
+            admit(Kind.UPDATE, user.getName(), user);
+            queued = true;
+        } finally {
+            stripe.unlock();
+            if (!queued) {
+                slots.release();
+            }
+        }
+    }
+
+    /**
+     * Queues the deletion of the user.
+     *
+     * @throws NoSuchUserException        if the user exists neither in the storage nor in a pending write
+     * @throws RejectedExecutionException if the queue stays full for longer than the offer timeout
+     */
+    @Override
+    public void delete(@NotNull String userName) throws NoSuchUserException {
+        acquireSlot();
+        boolean queued = false;
+        ReentrantLock stripe = stripeOf(userName);
+        stripe.lock();
+        try {
+            if (!exists(userName)) {
+                throw new NoSuchUserException();
+            }
+            admit(Kind.DELETE, userName, null);
+            queued = true;
+        } finally {
+            stripe.unlock();
+            if (!queued) {
+                slots.release();
+            }
+        }
+    }
+
+    /**
+     * Blocks until every write admitted before the call is applied to the storage.
+     *
+     * @throws IllegalStateException if the writer stopped or the thread is interrupted while waiting
+     */
+    public void flush() {
+        long target;
+        admission.lock();
+        try {
+            target = lastSequence;
+        } finally {
+            admission.unlock();
+        }
+
+        progressLock.lock();
+        try {
+            while (appliedSequence < target) {
+                if (!writer.isAlive()) {
+                    throw new IllegalStateException("Write-behind writer stopped with writes pending.");
+                }
+                progress.await(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for pending writes.", e);
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the counters of the queue.
+     *
+     * @return queue statistics
+     */
+    public @NotNull Statistics getStatistics() {
+        return new Statistics(
+                admitted.sum(),
+                applied.sum(),
+                batches.sum(),
+                coalesced.sum(),
+                conflicts.sum(),
+                failures.sum(),
+                rejected.sum(),
+                settings.queueCapacity() - slots.availablePermits()
+        );
+    }
+
+    /**
+     * Refuses further writes, waits until the writer applied the queued ones and closes the log.
+     * The segments are removed if nothing is left in them.
+     */
+    @Override
+    public void close() {
+        admission.lock();
+        try {
+            closed = true;
+        } finally {
+            admission.unlock();
+        }
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        admission.lock();
+        try {
+            log.close();
+            if (appliedSequence == lastSequence) {
+                for (Segment segment = sealed.poll(); segment != null; segment = sealed.poll()) {
+                    Files.deleteIfExists(segment.path());
+                }
+                Files.deleteIfExists(segmentPath);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error occurred while closing write-behind log " + settings.logPath(), e);
+        } finally {
+            admission.unlock();
+        }
+    }
+
+    // ======================================================== \\
+    //                        ADMISSION                         \\
+    // ======================================================== \\
+
+    private void acquireSlot() {
+        try {
+            if (!slots.tryAcquire(settings.offerTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new RejectedExecutionException("Too many pending user writes.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting to queue a user write.", e);
+        }
+    }
+
+    private @NotNull ReentrantLock stripeOf(@NotNull String userName) {
+        int hash = userName.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * Checks whether the user exists once the pending writes are applied. Called under the stripe
+     * of the name; the writer removes a pending write only after applying it, so a name missing
+     * from the pending writes is answered by the storage.
+     */
+    private boolean exists(@NotNull String userName) {
+        PendingWrite write = pending.get(userName);
+        if (write != null) {
+            return write.kind() != Kind.DELETE;
+        }
+
+        return delegate.findUserByName(userName).isPresent();
+    }
+
+    /**
+     * Logs and queues a checked write. Called under the stripe of the name with a slot acquired.
+     */
+    private void admit(@NotNull Kind kind, @NotNull String name, @Nullable User user) {
+        admission.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Write-behind queue is closed.");
+            }
+
+            PendingWrite write = new PendingWrite(++lastSequence, kind, name, user, System.nanoTime());
+            appendToLog(write);
+            enqueue(write);
+        } finally {
+            admission.unlock();
+        }
+    }
+
+    /**
+     * Queues a write that is in the log already.
+     */
+    private void enqueue(@NotNull PendingWrite write) {
+        pending.put(write.name(), write);
+        queue.add(write);
+        admitted.increment();
+    }
+
+    // ======================================================== \\
+    //                          WRITER                          \\
+    // ======================================================== \\
+
+    private void runWriter() {
+        List<PendingWrite> batch = new ArrayList<>(settings.maxBatchSize());
+
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                collect(batch, first);
+                if (!applyUntilDone(batch)) {
+                    return;
+                }
+                completed(batch);
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds writes to the batch until it is full or the oldest write reached the maximum staleness.
+     */
+    private void collect(@NotNull List<PendingWrite> batch, @NotNull PendingWrite first) throws InterruptedException {
+        long deadline = first.admittedNanos() + settings.maxStaleness().toNanos();
+
+        while (batch.size() < settings.maxBatchSize()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || closed) {
+                queue.drainTo(batch, settings.maxBatchSize() - batch.size());
+                return;
+            }
+
+            PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Applies the batch, retrying until it succeeds.
+     *
+     * @return false if the writer was closed while the batch kept failing
+     */
+    private boolean applyUntilDone(@NotNull List<PendingWrite> batch) throws InterruptedException {
+        while (true) {
+            try {
+                apply(batch);
+                return true;
+            } catch (RuntimeException e) {
+                failures.increment();
+                if (closed) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.sleep(settings.retryDelay().toNanos());
+            }
+        }
+    }
+
+    private void apply(@NotNull List<PendingWrite> batch) {
+        Map<String, Integer> lastWriteOf = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            lastWriteOf.put(batch.get(i).name(), i);
+        }
+
+        List<User> saves = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+
+            if (write.kind() == Kind.SAVE) {
+                saves.add(write.user());
+                continue;
+            }
+
+            applySaves(saves);
+            // A later update or delete replaces the user entirely; a later save implies a delete in between
+            if (write.kind() == Kind.UPDATE && lastWriteOf.get(write.name()) > i) {
+                coalesced.increment();
+                continue;
+            }
+
+            try {
+                if (write.kind() == Kind.UPDATE) {
+                    delegate.update(write.user());
+                } else {
+                    delegate.delete(write.name());
+                }
+            } catch (NoSuchUserException e) {
+                conflicts.increment();
+            }
+        }
+        applySaves(saves);
+    }
+
+    private void applySaves(@NotNull List<User> saves) {
+        if (saves.isEmpty()) {
+            return;
+        }
+
+        BulkImportReport<String> report = delegate.saveAll(saves);
+        conflicts.add(report.conflicts().size());
+        saves.clear();
+    }
+
+    private void completed(@NotNull List<PendingWrite> batch) {
+        for (PendingWrite write : batch) {
+            pending.remove(write.name(), write);
+        }
+        slots.release(batch.size());
+        applied.add(batch.size());
+        batches.increment();
+
+        progressLock.lock();
+        try {
+            appliedSequence = batch.getLast().sequence();
+            progress.signalAll();
+        } finally {
+            progressLock.unlock();
+        }
+
+        checkpoint();
+    }
+
+    // ======================================================== \\
+    //                           LOG                            \\
+    // ======================================================== \\
+
+    /**
+     * Appends the write to the current segment, starting a new segment first if the current one is full.
+     * Called under the admission lock.
+     */
+    private void appendToLog(@NotNull PendingWrite write) {
+        ObjectNode entry = objectMapper.createObjectNode();
+        entry.put(OPERATION_FIELD, write.kind().name().toLowerCase());
+        entry.put(NAME_FIELD, write.name());
+        if (write.user() != null) {
+            entry.set(VALUE_FIELD, objectMapper.valueToTree(write.user()));
+        }
+
+        try {
+            if (segmentSize >= settings.segmentBytes()) {
+                log.close();
+                sealed.add(new Segment(segmentPath, write.sequence() - 1));
+                openSegment();
+            }
+
+            ByteBuffer line = ByteBuffer.wrap((objectMapper.writeValueAsString(entry) + '\n').getBytes(StandardCharsets.UTF_8));
+            segmentSize += line.remaining();
+            while (line.hasRemaining()) {
+                log.write(line);
+            }
+            if (settings.syncLog()) {
+                log.force(false);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error occurred while writing to write-behind log " + segmentPath, e);
+        }
+    }
+
+    /**
+     * Opens a new, empty current segment. Called under the admission lock or from the constructor.
+     */
+    private void openSegment() {
+        segmentPath = segmentPath(nextSegment++);
+        try {
+            log = FileChannel.open(
+                    segmentPath,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING
+            );
+        } catch (IOException e) {
+            throw new RuntimeException("Error occurred while opening write-behind log " + segmentPath, e);
+        }
+        segmentSize = 0;
+    }
+
+    /**
+     * Deletes the sealed segments whose writes are all applied and empties the current segment if
+     * every logged write is applied. Emptying is skipped while a caller holds the admission lock;
+     * the next batch tries again, and the segment size bounds the log in the meantime.
+     */
+    private void checkpoint() {
+        // Segments are sealed in log order, so the applied ones are at the head
+        for (Segment segment = sealed.peek(); segment != null && segment.lastSequence() <= appliedSequence; segment = sealed.peek()) {
+            try {
+                Files.deleteIfExists(segment.path());
+            } catch (IOException e) {
+                failures.increment();
+                return;
+            }
+            sealed.poll();
+        }
+
+        if (!admission.tryLock()) {
+            return;
+        }
+
+        try {
+            if (appliedSequence == lastSequence && log.isOpen() && segmentSize > 0) {
+                log.truncate(0);
+                segmentSize = 0;
+            }
+        } catch (IOException e) {
+            failures.increment();
+        } finally {
+            admission.unlock();
+        }
+    }
+
+    private @NotNull Path segmentPath(long index) {
+        return settings.logPath().resolveSibling(settings.logPath().getFileName() + "." + index);
+    }
+
+    /**
+     * Returns the indexes of the segments on disk, in log order.
+     */
+    private @NotNull List<Long> segmentsOnDisk() throws IOException {
+        Path directory = settings.logPath().toAbsolutePath().getParent();
+        String prefix = settings.logPath().getFileName() + ".";
+        if (directory == null || !Files.isDirectory(directory)) {
+            return List.of();
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.length() > prefix.length() && name.startsWith(prefix))
+                    .map(name -> name.substring(prefix.length()))
+                    .filter(suffix -> suffix.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted(Comparator.naturalOrder())
+                    .toList();
+        }
+    }
+
+    /**
+     * Reads the writes left in the segments of a previous run and seals the segments. A torn last
+     * line is cut off, so that it cannot hide the writes of a later segment on the next replay.
+     */
+    private @NotNull List<PendingWrite> readLog() {
+        List<PendingWrite> writes = new ArrayList<>();
+        List<Long> indexes;
+        try {
+            indexes = segmentsOnDisk();
+        } catch (IOException e) {
+            throw new RuntimeException("Error occurred while listing write-behind log " + settings.logPath(), e);
+        }
+
+        for (long index : indexes) {
+            Path path = segmentPath(index);
+            int before = writes.size();
+            readSegment(path, writes);
+
+            if (writes.size() > before) {
+                sealed.add(new Segment(path, writes.size()));
+            } else {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    throw new RuntimeException("Error occurred while removing write-behind log " + path, e);
+                }
+            }
+            nextSegment = index + 1;
+        }
+        return writes;
+    }
+
+    private void readSegment(@NotNull Path path, @NotNull List<PendingWrite> writes) {
+        long validBytes = 0;
+        // Decoded leniently: a character torn by a crash must fail the JSON parse of its line, not the whole read
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)
+        )) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode entry;
+                try {
+                    entry = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    // A torn last line is what a crash in the middle of an append leaves behind
+                    break;
+                }
+
+                if (entry != null && entry.has(OPERATION_FIELD)) {
+                    Kind kind = Kind.valueOf(entry.get(OPERATION_FIELD).asText().toUpperCase());
+                    User user = entry.has(VALUE_FIELD) ? objectMapper.treeToValue(entry.get(VALUE_FIELD), User.class) : null;
+                    writes.add(new PendingWrite(
+                            writes.size() + 1,
+                            kind,
+                            entry.get(NAME_FIELD).asText(),
+                            user,
+                            System.nanoTime()
+                    ));
+                }
+                validBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error occurred while reading write-behind log " + path, e);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            if (channel.size() > validBytes) {
+                channel.truncate(validBytes);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error occurred while repairing write-behind log " + path, e);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package to.grindelf.sprtest.auth.credentials;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.auth.UserDao;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashes and verifies user passwords.
+ * <p>Hashing is deliberately slow, so it runs on a small dedicated executor with a bounded queue:
+ * a burst of logins occupies at most {@link Settings#verifierThreads()} cores and is rejected
+ * beyond {@link Settings#verifierQueueCapacity()} waiting verifications, instead of starving the
+ * request threads. Successful verifications are remembered for a short time, keyed by an HMAC of
+ * the submitted credential and the stored hash under a per-process random key, so repeated logins
+ * skip the hashing and a changed password never matches a remembered entry.</p>
+ * <p>Users still holding a legacy plaintext password are verified by plain comparison. If enabled,
+ * such passwords, and hashes made with another work factor than the configured one, are replaced
+ * by a fresh hash on the first successful login.</p>
+ */
+public class CredentialService implements AutoCloseable {
+
+    /**
+     * Settings of password hashing and verification.
+     *
+     * @param iterations            PBKDF2 iterations of new hashes
+     * @param verifierThreads       threads hashing passwords
+     * @param verifierQueueCapacity verifications allowed to wait for a free thread
+     * @param verifyTimeout         how long a login waits for its verification
+     * @param cacheMaximumSize      maximum number of remembered successful verifications
+     * @param cacheTimeToLive       how long a successful verification is remembered
+     * @param upgradeLegacy         whether plaintext passwords and hashes of another work factor are rehashed on login
+     */
+    public record Settings(
+            int iterations,
+            int verifierThreads,
+            int verifierQueueCapacity,
+            @NotNull Duration verifyTimeout,
+            long cacheMaximumSize,
+            @NotNull Duration cacheTimeToLive,
+            boolean upgradeLegacy
+    ) {
+        public static final Settings DEFAULT = new Settings(
+                PasswordHasher.DEFAULT_ITERATIONS,
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                256,
+                Duration.ofSeconds(5),
+                10_000,
+                Duration.ofMinutes(5),
+                true
+        );
+    }
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private final UserDao<User> userDao;
+    private final PasswordHasher hasher;
+    private final Settings settings;
+    private final ThreadPoolExecutor verifier;
+    private final Cache<String, Boolean> verified;
+    private final SecretKeySpec cacheKey;
+
+    public CredentialService(@NotNull UserDao<User> userDao) {
+        this(userDao, Settings.DEFAULT);
+    }
+
+    public CredentialService(@NotNull UserDao<User> userDao, @NotNull Settings settings) {
+        this.userDao = userDao;
+        this.hasher = new PasswordHasher(settings.iterations());
+        this.settings = settings;
+        this.verifier = newVerifier(settings);
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(settings.cacheMaximumSize())
+                .expireAfterWrite(settings.cacheTimeToLive())
+                .recordStats()
+                .build();
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.cacheKey = new SecretKeySpec(key, MAC_ALGORITHM);
+    }
+
+    /**
+     * Hashes a new password for storage.
+     *
+     * @param password password chosen by the user
+     * @return encoded hash to store instead of the password
+     * @throws RejectedExecutionException if too many hashes are waiting already or hashing does not finish in time
+     */
+    public @NotNull String hash(@NotNull String password) {
+        return run(() -> hasher.hash(password));
+    }
+
+    /**
+     * Checks the submitted password against the stored user.
+     *
+     * @param storedUser user loaded from the storage
+     * @param password   submitted password
+     * @return true if the password matches
+     * @throws RejectedExecutionException if too many verifications are waiting already or the verification
+     *                                    does not finish in time
+     */
+    public boolean verify(@NotNull User storedUser, @NotNull String password) {
+        String stored = storedUser.getPassword();
+        String cacheEntry = cacheEntry(storedUser.getName(), password, stored);
+
+        if (verified.getIfPresent(cacheEntry) != null) {
+            return true;
+        }
+
+        if (!run(() -> hasher.verify(password, stored))) {
+            return false;
+        }
+
+        verified.put(cacheEntry, Boolean.TRUE);
+        if (settings.upgradeLegacy() && hasher.needsRehash(stored)) {
+            upgrade(storedUser, password);
+        }
+        return true;
+    }
+
+    /**
+     * Returns hit and miss counters of the verification cache.
+     *
+     * @return cache statistics
+     */
+    public @NotNull CacheStats getCacheStatistics() {
+        return verified.stats();
+    }
+
+    /**
+     * Stops the verifier threads. Verifications already running are completed.
+     */
+    @Override
+    public void close() {
+        verifier.shutdown();
+    }
+
+    // ======================================================== \\
+    //                         HELPERS                          \\
+    // ======================================================== \\
+
+    private <R> R run(@NotNull Callable<R> task) {
+        Future<R> future = verifier.submit(task);
+
+        try {
+            return future.get(settings.verifyTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            // Waiting that long means the verifier is saturated, just as when the queue is full
+            throw new RejectedExecutionException("Password hashing did not finish in " + settings.verifyTimeout(), e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void upgrade(@NotNull User storedUser, @NotNull String password) {
+        try {
+            userDao.update(new User(storedUser.getName(), hash(password), storedUser.getStatus()));
+        } catch (NoSuchUserException | RejectedExecutionException | IllegalStateException ignored) {
+            // The user is upgraded on a later login; this one succeeds either way.
+        } catch (UnsupportedOperationException ignored) {
+            // Read-only storage keeps the legacy password; the login succeeds either way.
+        }
+    }
+
+    private @NotNull String cacheEntry(@NotNull String name, @NotNull String password, @NotNull String stored) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(cacheKey);
+            mac.update(name.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(password.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(stored.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(MAC_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private static @NotNull ThreadPoolExecutor newVerifier(@NotNull Settings settings) {
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        return new ThreadPoolExecutor(
+                settings.verifierThreads(),
+                settings.verifierThreads(),
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.verifierQueueCapacity()),
+                task -> {
+                    Thread thread = new Thread(task, "credential-verifier-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+}
@@ -0,0 +1,130 @@
+package to.grindelf.sprtest.auth.credentials;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Salted PBKDF2 password hashes, built on the JDK only.
+ * <p>Hashes are stored as {@code pbkdf2-sha512$<iterations>$<salt>$<hash>} with Base64 salt and hash,
+ * so the cost can be raised later without invalidating existing hashes. Any other stored value is
+ * treated as a legacy plaintext password.</p>
+ */
+public final class PasswordHasher {
+
+    /**
+     * Default work factor, following the OWASP recommendation for PBKDF2-HMAC-SHA512.
+     */
+    public static final int DEFAULT_ITERATIONS = 210_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA512";
+    private static final String PREFIX = "pbkdf2-sha512";
+    private static final String SEPARATOR = "$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private final Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+    private final Base64.Decoder decoder = Base64.getDecoder();
+
+    public PasswordHasher() {
+        this(DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * @param iterations PBKDF2 iterations of new hashes; verification uses the count stored in the hash
+     */
+    public PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("PBKDF2 needs at least one iteration.");
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Hashes the password with a fresh random salt.
+     *
+     * @param password password to hash
+     * @return encoded hash to store instead of the password
+     */
+    public @NotNull String hash(@NotNull String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+
+        return PREFIX + SEPARATOR + iterations
+                + SEPARATOR + encoder.encodeToString(salt)
+                + SEPARATOR + encoder.encodeToString(derive(password, salt, iterations));
+    }
+
+    /**
+     * Checks the password against a stored hash, or against a legacy plaintext password.
+     * Both comparisons take the same time wherever the first difference is.
+     *
+     * @param password password to check
+     * @param stored   stored hash or legacy plaintext password
+     * @return true if the password matches
+     */
+    public boolean verify(@NotNull String password, @NotNull String stored) {
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(
+                    password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8)
+            );
+        }
+
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = decoder.decode(parts[2]);
+            byte[] expected = decoder.decode(parts[3]);
+            return storedIterations > 0 && MessageDigest.isEqual(derive(password, salt, storedIterations), expected);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Tells whether the stored value should be replaced by a fresh hash: it is plaintext
+     * or it was hashed with another work factor.
+     *
+     * @param stored stored hash or legacy plaintext password
+     * @return true if the value should be rehashed
+     */
+    public boolean needsRehash(@NotNull String stored) {
+        return !stored.startsWith(PREFIX + SEPARATOR + iterations + SEPARATOR);
+    }
+
+    public static boolean isHashed(@NotNull String stored) {
+        return stored.startsWith(PREFIX + SEPARATOR);
+    }
+
+    private static byte[] derive(@NotNull String password, byte[] salt, int iterations) {
+        char[] chars = password.toCharArray();
+        PBEKeySpec spec = new PBEKeySpec(chars, salt, iterations, HASH_BITS);
+
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+            Arrays.fill(chars, '\0');
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package to.grindelf.sprtest.auth.shield;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decides whether a login attempt may reach the storage and the password hashing.
+ * <p>An attempt is checked in order of cost: the token bucket of the client address, which
+ * throttles a single source trying many names; the {@link UserNameFilter}, which turns away
+ * names that do not exist without a lookup; and the token bucket of the user name, which
+ * throttles guessing the password of one account from many addresses. Each check is a few
+ * memory accesses and none of them blocks or throws.</p>
+ */
+public class LoginShield {
+
+    /**
+     * Outcome of the checks.
+     */
+    public enum Verdict {
+        /** The attempt may proceed. */
+        ADMITTED,
+        /** The client address has made too many attempts. */
+        ADDRESS_THROTTLED,
+        /** The user name has been tried too often. */
+        NAME_THROTTLED,
+        /** No user has the name. */
+        UNKNOWN_NAME;
+
+        public boolean isThrottled() {
+            return this == ADDRESS_THROTTLED || this == NAME_THROTTLED;
+        }
+    }
+
+    /**
+     * Counters of both limiters and the filter.
+     *
+     * @param addresses statistics of the per-address limiter
+     * @param names     statistics of the per-name limiter
+     * @param filter    statistics of the name filter, or null without one
+     */
+    public record Statistics(
+            @NotNull TokenBucketLimiter.Statistics addresses,
+            @NotNull TokenBucketLimiter.Statistics names,
+            @Nullable UserNameFilter.Statistics filter
+    ) {
+    }
+
+    private final TokenBucketLimiter addresses;
+    private final TokenBucketLimiter names;
+    private final UserNameFilter filter;
+
+    /**
+     * @param addresses limiter of attempts per client address
+     * @param names     limiter of attempts per user name
+     * @param filter    filter of existing user names, or null to look up every name
+     */
+    public LoginShield(
+            @NotNull TokenBucketLimiter addresses,
+            @NotNull TokenBucketLimiter names,
+            @Nullable UserNameFilter filter
+    ) {
+        this.addresses = addresses;
+        this.names = names;
+        this.filter = filter;
+    }
+
+    /**
+     * Checks a login attempt and takes a token from the buckets it passes.
+     *
+     * @param clientAddress address the attempt comes from
+     * @param userName      submitted user name
+     * @return whether the attempt may proceed and why not
+     */
+    public @NotNull Verdict check(@NotNull String clientAddress, @NotNull String userName) {
+        if (!addresses.tryAcquire(clientAddress)) {
+            return Verdict.ADDRESS_THROTTLED;
+        }
+        if (filter != null && !filter.mightContain(userName)) {
+            return Verdict.UNKNOWN_NAME;
+        }
+        if (!names.tryAcquire(userName)) {
+            return Verdict.NAME_THROTTLED;
+        }
+        return Verdict.ADMITTED;
+    }
+
+    public @NotNull Statistics getStatistics() {
+        return new Statistics(
+                addresses.getStatistics(),
+                names.getStatistics(),
+                filter == null ? null : filter.getStatistics()
+        );
+    }
+}
@@ -0,0 +1,112 @@
+package to.grindelf.sprtest.auth.shield;
+
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.utils.KeyHash;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for an unbounded set of keys, such as client addresses or user names, in a fixed
+ * amount of memory.
+ * <p>Keys are hashed onto a fixed array of buckets, so keys that share a bucket share its
+ * tokens. The hash is seeded per process, so colliding keys cannot be chosen in advance.</p>
+ * <p>Each bucket is a single {@code long}, the time at which it will be full again (the generic
+ * cell rate algorithm, which admits exactly what a token bucket admits). Taking a token is one
+ * compare-and-set of that time, so the limiter takes no locks and needs no refilling thread.</p>
+ */
+public final class TokenBucketLimiter {
+
+    /**
+     * Settings of the buckets.
+     *
+     * @param burst   tokens of a full bucket
+     * @param refill  time in which one token is added
+     * @param buckets number of buckets, rounded up to a power of two
+     */
+    public record Settings(int burst, @NotNull Duration refill, int buckets) {
+
+        public Settings {
+            if (burst < 1) {
+                throw new IllegalArgumentException("Burst must be positive: " + burst);
+            }
+            if (refill.isNegative() || refill.isZero()) {
+                throw new IllegalArgumentException("Refill time must be positive: " + refill);
+            }
+            if (buckets < 1 || buckets > 1 << 30) {
+                throw new IllegalArgumentException("Bucket count must be between 1 and 2^30: " + buckets);
+            }
+        }
+    }
+
+    /**
+     * Counters of taken tokens.
+     *
+     * @param allowed  requests that got a token
+     * @param rejected requests that found their bucket empty
+     */
+    public record Statistics(long allowed, long rejected) {
+    }
+
+    private final AtomicLongArray buckets;
+    private final long interval;
+    private final long tolerance;
+    private final long seed = new SecureRandom().nextLong();
+    private final LongSupplier clock;
+    private final long origin;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public TokenBucketLimiter(@NotNull Settings settings) {
+        this(settings, System::nanoTime);
+    }
+
+    /**
+     * @param settings bucket settings
+     * @param clock    source of nanoseconds, as {@link System#nanoTime()}
+     */
+    public TokenBucketLimiter(@NotNull Settings settings, @NotNull LongSupplier clock) {
+        this.buckets = new AtomicLongArray(Integer.highestOneBit(settings.buckets() * 2 - 1));
+        this.interval = settings.refill().toNanos();
+        this.tolerance = interval > Long.MAX_VALUE / settings.burst() ? Long.MAX_VALUE : interval * settings.burst();
+        this.clock = clock;
+        // Times are kept relative to the creation, so an untouched bucket (zero) is full
+        this.origin = clock.getAsLong();
+    }
+
+    /**
+     * Takes a token from the bucket of the key.
+     *
+     * @param key key to limit
+     * @return true if a token was taken, false if the bucket is empty
+     */
+    public boolean tryAcquire(@NotNull String key) {
+        int index = indexOf(key);
+        long now = clock.getAsLong() - origin;
+
+        while (true) {
+            long full = buckets.get(index);
+            long next = Math.max(full, now) + interval;
+            if (next - now > tolerance) {
+                rejected.increment();
+                return false;
+            }
+            if (buckets.compareAndSet(index, full, next)) {
+                allowed.increment();
+                return true;
+            }
+        }
+    }
+
+    public @NotNull Statistics getStatistics() {
+        return new Statistics(allowed.sum(), rejected.sum());
+    }
+
+    private int indexOf(@NotNull String key) {
+        return (int) KeyHash.hash(key, seed) & (buckets.length() - 1);
+    }
+}
@@ -0,0 +1,122 @@
+package to.grindelf.sprtest.auth.shield;
+
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.utils.KeyHash;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter of existing user names.
+ * <p>Answers whether a name might exist without reaching the storage: a name that was never added
+ * is reported absent with the configured false positive rate, and a name that was added is never
+ * reported absent. Names cannot be removed, so deleted users only add false positives until restart.</p>
+ * <p>Bits are set with compare-and-set on an {@link AtomicLongArray}, so adding and querying
+ * never block each other. The bit positions derive from a hash seeded per process.</p>
+ */
+public final class UserNameFilter {
+
+    /**
+     * Size of the filter.
+     *
+     * @param expectedNames     number of names the filter is sized for
+     * @param falsePositiveRate share of unknown names reported as possibly existing at that number of names
+     */
+    public record Settings(long expectedNames, double falsePositiveRate) {
+
+        public static final Settings DEFAULT = new Settings(1_000_000, 0.01);
+
+        public Settings {
+            if (expectedNames < 1) {
+                throw new IllegalArgumentException("Expected name count must be positive: " + expectedNames);
+            }
+            if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+                throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+            }
+        }
+    }
+
+    /**
+     * Size and counters of the filter.
+     *
+     * @param bits          bits of the filter
+     * @param hashFunctions bits set per name
+     * @param added         names added
+     * @param rejected      queries answered with "absent"
+     */
+    public record Statistics(long bits, int hashFunctions, long added, long rejected) {
+    }
+
+    private static final double LN_2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashFunctions;
+    private final long seed = new SecureRandom().nextLong();
+
+    private final LongAdder added = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public UserNameFilter(@NotNull Settings settings) {
+        double optimalBits = -settings.expectedNames() * Math.log(settings.falsePositiveRate()) / (LN_2 * LN_2);
+        long wordCount = Math.max(1, (long) Math.ceil(optimalBits / Long.SIZE));
+        if (wordCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("User name filter would be too large: " + settings);
+        }
+
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bits = wordCount * Long.SIZE;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bits / settings.expectedNames() * LN_2));
+    }
+
+    /**
+     * Adds the name, after which it is always reported as possibly existing.
+     *
+     * @param userName name of the user
+     */
+    public void add(@NotNull String userName) {
+        long hash = KeyHash.hash(userName, seed);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = bitOf(hash, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+        added.increment();
+    }
+
+    /**
+     * Checks whether the name might exist.
+     *
+     * @param userName name of the user
+     * @return false if the name certainly does not exist
+     */
+    public boolean mightContain(@NotNull String userName) {
+        long hash = KeyHash.hash(userName, seed);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = bitOf(hash, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                rejected.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public @NotNull Statistics getStatistics() {
+        return new Statistics(bits, hashFunctions, added.sum(), rejected.sum());
+    }
+
+    /**
+     * Derives the i-th bit position from the two halves of the hash (Kirsch-Mitzenmacher double hashing).
+     */
+    private long bitOf(long hash, int i) {
+        long combined = (hash >>> 32) + i * ((hash & 0xFFFFFFFFL) | 1);
+        return Long.remainderUnsigned(combined, bits);
+    }
+}
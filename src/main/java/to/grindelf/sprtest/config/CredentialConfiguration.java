@@ -0,0 +1,21 @@
+package to.grindelf.sprtest.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import to.grindelf.sprtest.auth.UserDao;
+import to.grindelf.sprtest.auth.credentials.CredentialService;
+import to.grindelf.sprtest.domain.User;
+
+/**
+ * Creates the single {@link CredentialService}, so that every request shares its verifier threads and cache.
+ */
+@Configuration
+@EnableConfigurationProperties(CredentialProperties.class)
+public class CredentialConfiguration {
+
+    @Bean
+    public CredentialService credentialService(UserDao<User> userDao, CredentialProperties properties) {
+        return new CredentialService(userDao, properties.toSettings());
+    }
+}
@@ -0,0 +1,36 @@
+package to.grindelf.sprtest.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import to.grindelf.sprtest.auth.credentials.CredentialService;
+
+import java.time.Duration;
+
+/**
+ * Password hashing settings bound from the {@code sprtest.credentials.*} application properties.
+ * Unset thread count defaults to half of the available processors.
+ */
+@ConfigurationProperties(prefix = "sprtest.credentials")
+public record CredentialProperties(
+        @DefaultValue("210000") int iterations,
+        @DefaultValue("0") int verifierThreads,
+        @DefaultValue("256") int verifierQueueCapacity,
+        @DefaultValue("5s") Duration verifyTimeout,
+        @DefaultValue("10000") long cacheMaximumSize,
+        @DefaultValue("5m") Duration cacheTimeToLive,
+        @DefaultValue("true") boolean upgradeLegacy
+) {
+
+    public @NotNull CredentialService.Settings toSettings() {
+        return new CredentialService.Settings(
+                iterations,
+                verifierThreads > 0 ? verifierThreads : CredentialService.Settings.DEFAULT.verifierThreads(),
+                verifierQueueCapacity,
+                verifyTimeout,
+                cacheMaximumSize,
+                cacheTimeToLive,
+                upgradeLegacy
+        );
+    }
+}
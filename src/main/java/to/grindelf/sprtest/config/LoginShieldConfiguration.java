@@ -0,0 +1,35 @@
+package to.grindelf.sprtest.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import to.grindelf.sprtest.auth.shield.LoginShield;
+import to.grindelf.sprtest.auth.shield.TokenBucketLimiter;
+import to.grindelf.sprtest.auth.shield.UserNameFilter;
+
+import java.util.Optional;
+
+/**
+ * Creates the single {@link LoginShield} and the {@link UserNameFilter} it shares with the user DAO,
+ * which keeps the filter current.
+ */
+@Configuration
+@EnableConfigurationProperties(LoginShieldProperties.class)
+public class LoginShieldConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "sprtest.login-shield.name-filter.enabled", havingValue = "true", matchIfMissing = true)
+    public UserNameFilter userNameFilter(LoginShieldProperties properties) {
+        return new UserNameFilter(properties.nameFilter().toSettings());
+    }
+
+    @Bean
+    public LoginShield loginShield(LoginShieldProperties properties, Optional<UserNameFilter> userNameFilter) {
+        return new LoginShield(
+                new TokenBucketLimiter(properties.addressSettings()),
+                new TokenBucketLimiter(properties.nameSettings()),
+                userNameFilter.orElse(null)
+        );
+    }
+}
@@ -0,0 +1,48 @@
+package to.grindelf.sprtest.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import to.grindelf.sprtest.auth.shield.TokenBucketLimiter;
+import to.grindelf.sprtest.auth.shield.UserNameFilter;
+
+import java.time.Duration;
+
+/**
+ * Login throttling settings bound from the {@code sprtest.login-shield.*} application properties.
+ *
+ * @param buckets       token buckets of each limiter
+ * @param addressBurst  attempts a client address may make at once
+ * @param addressRefill time in which a client address regains one attempt
+ * @param nameBurst     attempts a user name may get at once
+ * @param nameRefill    time in which a user name regains one attempt
+ * @param nameFilter    filter of existing user names
+ */
+@ConfigurationProperties(prefix = "sprtest.login-shield")
+public record LoginShieldProperties(
+        @DefaultValue("16384") int buckets,
+        @DefaultValue("30") int addressBurst,
+        @DefaultValue("1s") Duration addressRefill,
+        @DefaultValue("5") int nameBurst,
+        @DefaultValue("30s") Duration nameRefill,
+        @DefaultValue NameFilter nameFilter
+) {
+
+    public @NotNull TokenBucketLimiter.Settings addressSettings() {
+        return new TokenBucketLimiter.Settings(addressBurst, addressRefill, buckets);
+    }
+
+    public @NotNull TokenBucketLimiter.Settings nameSettings() {
+        return new TokenBucketLimiter.Settings(nameBurst, nameRefill, buckets);
+    }
+
+    public record NameFilter(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("1000000") long expectedNames,
+            @DefaultValue("0.01") double falsePositiveRate
+    ) {
+        public @NotNull UserNameFilter.Settings toSettings() {
+            return new UserNameFilter.Settings(expectedNames, falsePositiveRate);
+        }
+    }
+}
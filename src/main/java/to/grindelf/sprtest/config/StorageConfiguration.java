@@ -0,0 +1,256 @@
+package to.grindelf.sprtest.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import to.grindelf.sprtest.apartments.AvailabilityService;
+import to.grindelf.sprtest.apartments.SQLApartmentDao;
+import to.grindelf.sprtest.apartments.SQLBookingDao;
+import to.grindelf.sprtest.auth.CachingUserDao;
+import to.grindelf.sprtest.auth.JsonUserDao;
+import to.grindelf.sprtest.auth.NameFilteringUserDao;
+import to.grindelf.sprtest.auth.OffHeapUserDao;
+import to.grindelf.sprtest.auth.SQLUserDao;
+import to.grindelf.sprtest.auth.SnapshotUserDao;
+import to.grindelf.sprtest.auth.UserDao;
+import to.grindelf.sprtest.auth.UserSnapshotExporter;
+import to.grindelf.sprtest.auth.WriteBehindUserDao;
+import to.grindelf.sprtest.auth.shield.UserNameFilter;
+import to.grindelf.sprtest.domain.Apartment;
+import to.grindelf.sprtest.domain.Booking;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.metrics.ConnectionPoolMeterBinder;
+import to.grindelf.sprtest.metrics.TimedSQLDataOperator;
+import to.grindelf.sprtest.metrics.TimedUserDao;
+import to.grindelf.sprtest.utils.database.SQLOperator;
+import to.grindelf.sprtest.utils.database.SchemaRegistry;
+import to.grindelf.sprtest.utils.database.SchemaValidator;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.json.JsonIndexedStore;
+import to.grindelf.sprtest.utils.json.JsonOperator;
+import to.grindelf.sprtest.utils.snapshot.UserSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static to.grindelf.sprtest.utils.ConstantValues.USER_DB_FILE_PATH;
+import static to.grindelf.sprtest.utils.ConstantValues.USER_JSON_FILE_PATH;
+
+/**
+ * Assembles the storage stack once per application: operator, DAO and cache.
+ * <p>The backend is selected with {@code sprtest.storage.backend} ({@code sqlite}, {@code json}
+ * or the read-only {@code snapshot}),
+ * and only the DAO implementation of that backend is created, so calls never branch on it.
+ * Every bean here is a thread-safe singleton shared by all request threads.</p>
+ * <p>The DAOs and the operators they use are wrapped in timed decorators that record into the
+ * {@link MeterRegistry}, which Actuator exposes at {@code /actuator/prometheus}.</p>
+ * <p>With {@code sprtest.storage.write-behind.enabled} the cached DAO is put behind a
+ * {@link WriteBehindUserDao}. It is a bean of its own so that its queue is drained on shutdown.</p>
+ * <p>If there is a {@link UserNameFilter} (see {@link LoginShieldConfiguration}), the outermost
+ * storage DAO keeps it current, so it sees every write made through this application.</p>
+ */
+@Configuration
+@EnableConfigurationProperties(StorageProperties.class)
+public class StorageConfiguration {
+
+    private static final String BACKEND_PROPERTY = "sprtest.storage.backend";
+    private static final String WRITE_BEHIND_PROPERTY = "sprtest.storage.write-behind.enabled";
+    private static final String SNAPSHOT_EXPORT_PROPERTY = "sprtest.storage.snapshot.export-on-startup";
+
+    @Bean
+    @ConditionalOnProperty(name = SNAPSHOT_EXPORT_PROPERTY, havingValue = "true")
+    public UserSnapshotExporter userSnapshotExporter(UserDao<User> userDao, StorageProperties properties) {
+        return new UserSnapshotExporter(userDao, Path.of(properties.snapshot().path()));
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = BACKEND_PROPERTY, havingValue = "sqlite", matchIfMissing = true)
+    static class SqliteStorageConfiguration {
+
+        @Bean
+        public ConnectionPoolRegistry connectionPoolRegistry(StorageProperties properties) {
+            return new ConnectionPoolRegistry(properties.pool().toSettings());
+        }
+
+        @Bean
+        public ConnectionPoolMeterBinder connectionPoolMeterBinder(ConnectionPoolRegistry pools) {
+            return new ConnectionPoolMeterBinder(pools, List.of(USER_DB_FILE_PATH));
+        }
+
+        @Bean
+        public SchemaRegistry schemaRegistry() {
+            return new SchemaRegistry();
+        }
+
+        @Bean
+        public SQLOperator<User, String> userOperator(ConnectionPoolRegistry pools, SchemaRegistry schemas) {
+            return new SQLOperator<>(pools, schemas);
+        }
+
+        @Bean
+        public SQLOperator<Apartment, String> apartmentOperator(ConnectionPoolRegistry pools, SchemaRegistry schemas) {
+            return new SQLOperator<>(pools, schemas);
+        }
+
+        @Bean
+        public SQLOperator<Booking, Long> bookingOperator(ConnectionPoolRegistry pools, SchemaRegistry schemas) {
+            return new SQLOperator<>(pools, schemas);
+        }
+
+        @Bean
+        public SchemaValidator schemaValidator(SQLOperator<User, String> userOperator) {
+            return new SchemaValidator(userOperator);
+        }
+
+        @Bean
+        @ConditionalOnProperty(name = WRITE_BEHIND_PROPERTY, havingValue = "true")
+        public WriteBehindUserDao writeBehindUserDao(
+                SQLOperator<User, String> userOperator,
+                StorageProperties properties,
+                MeterRegistry registry
+        ) {
+            return new WriteBehindUserDao(storageDao(userOperator, properties, registry), properties.writeBehind().toSettings());
+        }
+
+        @Bean
+        @Primary
+        public UserDao<User> userDao(
+                SQLOperator<User, String> userOperator,
+                StorageProperties properties,
+                MeterRegistry registry,
+                Optional<WriteBehindUserDao> writeBehind,
+                Optional<UserNameFilter> userNameFilter
+        ) {
+            return withMetrics(
+                    withNameFilter(
+                            writeBehind.<UserDao<User>>map(dao -> dao)
+                                    .orElseGet(() -> storageDao(userOperator, properties, registry)),
+                            userNameFilter
+                    ),
+                    registry
+            );
+        }
+
+        private static UserDao<User> storageDao(
+                SQLOperator<User, String> userOperator,
+                StorageProperties properties,
+                MeterRegistry registry
+        ) {
+            return withCache(
+                    new SQLUserDao(
+                            new TimedSQLDataOperator<>(userOperator, registry),
+                            USER_DB_FILE_PATH,
+                            properties.bulkImport().toSettings()
+                    ),
+                    properties
+            );
+        }
+
+        /**
+         * Nothing is read from the database here: the apartments table and the availability
+         * index are created on first use.
+         */
+        @Bean
+        public AvailabilityService availabilityService(
+                SQLOperator<Apartment, String> apartmentOperator,
+                SQLOperator<Booking, Long> bookingOperator,
+                MeterRegistry registry
+        ) {
+            return new AvailabilityService(
+                    new SQLApartmentDao(new TimedSQLDataOperator<>(apartmentOperator, registry)),
+                    new SQLBookingDao(new TimedSQLDataOperator<>(bookingOperator, registry))
+            );
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = BACKEND_PROPERTY, havingValue = "json")
+    static class JsonStorageConfiguration {
+
+        @Bean
+        public JsonOperator<User, String> userOperator() {
+            return new JsonOperator<>(new TypeReference<List<User>>() {});
+        }
+
+        @Bean
+        public JsonIndexedStore<User, String> userStore(JsonOperator<User, String> userOperator, StorageProperties properties) {
+            return new JsonIndexedStore<>(
+                    userOperator,
+                    USER_JSON_FILE_PATH,
+                    User::getName,
+                    properties.json().compactionThreshold()
+            );
+        }
+
+        @Bean
+        @ConditionalOnProperty(name = WRITE_BEHIND_PROPERTY, havingValue = "true")
+        public WriteBehindUserDao writeBehindUserDao(JsonIndexedStore<User, String> userStore, StorageProperties properties) {
+            return new WriteBehindUserDao(
+                    withCache(new JsonUserDao(userStore), properties),
+                    properties.writeBehind().toSettings()
+            );
+        }
+
+        @Bean
+        @Primary
+        public UserDao<User> userDao(
+                JsonIndexedStore<User, String> userStore,
+                StorageProperties properties,
+                MeterRegistry registry,
+                Optional<WriteBehindUserDao> writeBehind,
+                Optional<UserNameFilter> userNameFilter
+        ) {
+            return withMetrics(
+                    withNameFilter(
+                            writeBehind.<UserDao<User>>map(dao -> dao)
+                                    .orElseGet(() -> withCache(new JsonUserDao(userStore), properties)),
+                            userNameFilter
+                    ),
+                    registry
+            );
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = BACKEND_PROPERTY, havingValue = "snapshot")
+    static class SnapshotStorageConfiguration {
+
+        @Bean
+        public UserSnapshot userSnapshot(StorageProperties properties) throws IOException {
+            return UserSnapshot.open(Path.of(properties.snapshot().path()));
+        }
+
+        @Bean
+        public UserDao<User> userDao(
+                UserSnapshot userSnapshot,
+                MeterRegistry registry,
+                Optional<UserNameFilter> userNameFilter
+        ) {
+            return withMetrics(withNameFilter(new SnapshotUserDao(userSnapshot), userNameFilter), registry);
+        }
+    }
+
+    private static UserDao<User> withCache(UserDao<User> userDao, StorageProperties properties) {
+        if (!properties.cache().enabled()) {
+            return userDao;
+        }
+        if (properties.cache().offHeap()) {
+            return new OffHeapUserDao(userDao);
+        }
+        return new CachingUserDao(userDao, properties.cache().toSettings());
+    }
+
+    private static UserDao<User> withNameFilter(UserDao<User> userDao, Optional<UserNameFilter> userNameFilter) {
+        return userNameFilter.<UserDao<User>>map(filter -> new NameFilteringUserDao(userDao, filter)).orElse(userDao);
+    }
+
+    private static UserDao<User> withMetrics(UserDao<User> userDao, MeterRegistry registry) {
+        return new TimedUserDao<>(userDao, registry);
+    }
+}
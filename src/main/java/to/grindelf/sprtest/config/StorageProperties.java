@@ -0,0 +1,146 @@
+package to.grindelf.sprtest.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+import to.grindelf.sprtest.auth.CachingUserDao;
+import to.grindelf.sprtest.auth.OffHeapUserDao;
+import to.grindelf.sprtest.auth.WriteBehindUserDao;
+import to.grindelf.sprtest.utils.BulkImportSettings;
+import to.grindelf.sprtest.utils.database.pool.PoolSettings;
+import to.grindelf.sprtest.utils.database.pool.SQLiteProfile;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Storage settings bound from the {@code sprtest.storage.*} application properties.
+ *
+ * @param backend      which storage backend holds the users
+ * @param pool         SQLite connection pool settings
+ * @param cache        user cache settings
+ * @param json         JSON store settings
+ * @param bulkImport   bulk import settings
+ * @param writeBehind  write-behind queue settings
+ * @param snapshot     binary user snapshot settings
+ * @throws IllegalArgumentException if the snapshot backend is asked to export the snapshot it serves
+ */
+@ConfigurationProperties(prefix = "sprtest.storage")
+public record StorageProperties(
+        @DefaultValue("sqlite") Backend backend,
+        @DefaultValue Pool pool,
+        @DefaultValue Cache cache,
+        @DefaultValue Json json,
+        @DefaultValue BulkImport bulkImport,
+        @DefaultValue WriteBehind writeBehind,
+        @DefaultValue Snapshot snapshot
+) {
+
+    public StorageProperties {
+        // The snapshot would be mapped before it is exported, and exporting it would replace the mapped file
+        if (backend == Backend.SNAPSHOT && snapshot != null && snapshot.exportOnStartup()) {
+            throw new IllegalArgumentException(
+                    "The snapshot backend serves " + snapshot.path() + " and cannot export it on startup as well;"
+                            + " set sprtest.storage.snapshot.export-on-startup=false."
+            );
+        }
+    }
+
+    /**
+     * Available storage backends.
+     */
+    public enum Backend {
+        SQLITE,
+        JSON,
+        SNAPSHOT
+    }
+
+    public record Pool(
+            @DefaultValue("4") int maxReaders,
+            @DefaultValue("5s") Duration acquireTimeout,
+            @DefaultValue("5m") Duration maxIdle,
+            @DefaultValue("30s") Duration validationInterval,
+            @DefaultValue("64") int maxPendingWrites,
+            @DefaultValue("default") SQLiteProfile profile,
+            @DefaultValue("32") int statementCacheSize
+    ) {
+        public @NotNull PoolSettings toSettings() {
+            return new PoolSettings(
+                    maxReaders,
+                    acquireTimeout,
+                    maxIdle,
+                    validationInterval,
+                    maxPendingWrites,
+                    profile,
+                    statementCacheSize
+            );
+        }
+    }
+
+    /**
+     * @param offHeap keep every user in an {@link OffHeapUserDao} instead of caching looked-up users;
+     *                the other settings then do not apply
+     */
+    public record Cache(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("false") boolean offHeap,
+            @DefaultValue("10000") long maximumSize,
+            @DefaultValue("10m") Duration timeToLive,
+            @DefaultValue("100000") long negativeMaximumSize,
+            @DefaultValue("30s") Duration negativeTimeToLive
+    ) {
+        public @NotNull CachingUserDao.Settings toSettings() {
+            return new CachingUserDao.Settings(maximumSize, timeToLive, negativeMaximumSize, negativeTimeToLive);
+        }
+    }
+
+    public record Json(
+            @DefaultValue("1000") int compactionThreshold
+    ) {
+    }
+
+    public record BulkImport(
+            @DefaultValue("500") int batchSize,
+            @DefaultValue("false") boolean validateEachRow
+    ) {
+        public @NotNull BulkImportSettings toSettings() {
+            return new BulkImportSettings(batchSize, validateEachRow);
+        }
+    }
+
+    public record WriteBehind(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("1024") int queueCapacity,
+            @DefaultValue("256") int maxBatchSize,
+            @DefaultValue("50ms") Duration maxStaleness,
+            @DefaultValue("1s") Duration offerTimeout,
+            @DefaultValue("1s") Duration retryDelay,
+            @DefaultValue("src/main/resources/users-pending.log") String logPath,
+            @DefaultValue("false") boolean syncLog,
+            @DefaultValue("4MB") DataSize segmentSize
+    ) {
+        public @NotNull WriteBehindUserDao.Settings toSettings() {
+            return new WriteBehindUserDao.Settings(
+                    queueCapacity,
+                    maxBatchSize,
+                    maxStaleness,
+                    offerTimeout,
+                    retryDelay,
+                    Path.of(logPath),
+                    syncLog,
+                    segmentSize.toBytes()
+            );
+        }
+    }
+
+    /**
+     * @param path            path of the binary user snapshot
+     * @param exportOnStartup whether the users of the active backend are written to the snapshot at startup
+     */
+    public record Snapshot(
+            @DefaultValue("src/main/resources/users.snapshot") String path,
+            @DefaultValue("false") boolean exportOnStartup
+    ) {
+    }
+}
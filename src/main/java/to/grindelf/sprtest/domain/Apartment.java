@@ -0,0 +1,61 @@
+package to.grindelf.sprtest.domain;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+public final class Apartment {
+
+    private String id;
+    private String title;
+
+    public Apartment(@NotNull String id, @NotNull String title) {
+        this.id = id;
+        this.title = title;
+    }
+
+    public Apartment() {
+        this.id = "no id";
+        this.title = "no title";
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    @NotNull
+    @Contract(pure = true)
+    @Override
+    public String toString() {
+        return "Apartment{" +
+                "id='" + id + '\'' + ", " +
+                "title='" + title + '\'' +
+                '}'
+                ;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Apartment)) return false;
+        Apartment apartmentAsApartment = (Apartment) o;
+        return Objects.equals(this.id, apartmentAsApartment.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+}
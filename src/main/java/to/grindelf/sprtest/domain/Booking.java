@@ -0,0 +1,131 @@
+package to.grindelf.sprtest.domain;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Booking of an apartment for the nights from {@code dateFrom} up to, but not including, {@code dateTo}.
+ * A booking ending on a day therefore does not overlap another one starting on the same day.
+ */
+public final class Booking {
+
+    private Long id;
+    private String apartmentId;
+    private String bookerName;
+    private LocalDate dateFrom;
+    private LocalDate dateTo;
+
+    public Booking(
+            Long id,
+            @NotNull String apartmentId,
+            @NotNull String bookerName,
+            @NotNull LocalDate dateFrom,
+            @NotNull LocalDate dateTo
+    ) {
+        if (!dateFrom.isBefore(dateTo)) {
+            throw new IllegalArgumentException("Booking must end after it starts: " + dateFrom + " - " + dateTo);
+        }
+        this.id = id;
+        this.apartmentId = apartmentId;
+        this.bookerName = bookerName;
+        this.dateFrom = dateFrom;
+        this.dateTo = dateTo;
+    }
+
+    public Booking() {
+    }
+
+    /**
+     * Returns a copy of the booking with the id set, e.g. once the storage assigned one.
+     *
+     * @param id id of the booking
+     * @return booking with the id
+     */
+    public @NotNull Booking withId(@NotNull Long id) {
+        return new Booking(id, apartmentId, bookerName, dateFrom, dateTo);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getApartmentId() {
+        return apartmentId;
+    }
+
+    public void setApartmentId(String apartmentId) {
+        this.apartmentId = apartmentId;
+    }
+
+    public String getBookerName() {
+        return bookerName;
+    }
+
+    public void setBookerName(String bookerName) {
+        this.bookerName = bookerName;
+    }
+
+    public LocalDate getDateFrom() {
+        return dateFrom;
+    }
+
+    public void setDateFrom(LocalDate dateFrom) {
+        this.dateFrom = dateFrom;
+    }
+
+    public LocalDate getDateTo() {
+        return dateTo;
+    }
+
+    public void setDateTo(LocalDate dateTo) {
+        this.dateTo = dateTo;
+    }
+
+    /**
+     * Tells whether the booking shares at least one night with the range.
+     *
+     * @param from first night of the range
+     * @param to   day after the last night of the range
+     * @return true if the booking overlaps the range
+     */
+    public boolean overlaps(@NotNull LocalDate from, @NotNull LocalDate to) {
+        return dateFrom.isBefore(to) && from.isBefore(dateTo);
+    }
+
+    @NotNull
+    @Contract(pure = true)
+    @Override
+    public String toString() {
+        return "Booking{" +
+                "id=" + id + ", " +
+                "apartmentId='" + apartmentId + '\'' + ", " +
+                "bookerName='" + bookerName + '\'' + ", " +
+                "dateFrom=" + dateFrom + ", " +
+                "dateTo=" + dateTo +
+                '}'
+                ;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Booking)) return false;
+        Booking bookingAsBooking = (Booking) o;
+        return Objects.equals(this.id, bookingAsBooking.id)
+                && Objects.equals(this.apartmentId, bookingAsBooking.apartmentId)
+                && Objects.equals(this.bookerName, bookingAsBooking.bookerName)
+                && Objects.equals(this.dateFrom, bookingAsBooking.dateFrom)
+                && Objects.equals(this.dateTo, bookingAsBooking.dateTo);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+}
@@ -0,0 +1,8 @@
+package to.grindelf.sprtest.exceptions;
+
+public class BookingConflictException extends StacklessException {
+
+    public BookingConflictException(String apartmentId) {
+        super("Apartment " + apartmentId + " is already booked for these dates! Try other dates.");
+    }
+}
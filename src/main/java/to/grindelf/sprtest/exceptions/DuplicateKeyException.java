@@ -0,0 +1,12 @@
+package to.grindelf.sprtest.exceptions;
+
+/**
+ * A row with the key of an inserted row exists already. Thrown by the SQL operators, which serve
+ * every entity; the DAOs translate it into the exception of their entity, e.g. {@link UserAlreadyExistsException}.
+ */
+public class DuplicateKeyException extends StacklessException {
+
+    public DuplicateKeyException(String tableName, Object key) {
+        super("Key " + key + " is already taken in table " + tableName + "!");
+    }
+}
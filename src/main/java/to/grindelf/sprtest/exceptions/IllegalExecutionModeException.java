@@ -1,8 +1,8 @@
 package to.grindelf.sprtest.exceptions;
 
-public class IllegalExecutionModeException extends Throwable {
+public class IllegalExecutionModeException extends RuntimeException {
 
     public IllegalExecutionModeException() {
-        System.err.println("This execution mode is not supported!");
+        super("This execution mode is not supported!");
     }
 }
@@ -0,0 +1,8 @@
+package to.grindelf.sprtest.exceptions;
+
+public class NoSuchApartmentException extends StacklessException {
+
+    public NoSuchApartmentException(String apartmentId) {
+        super("No apartment with id " + apartmentId + "!");
+    }
+}
@@ -0,0 +1,8 @@
+package to.grindelf.sprtest.exceptions;
+
+public class NoSuchBookingException extends StacklessException {
+
+    public NoSuchBookingException(long bookingId) {
+        super("No booking with id " + bookingId + "!");
+    }
+}
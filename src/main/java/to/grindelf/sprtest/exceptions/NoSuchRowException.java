@@ -0,0 +1,12 @@
+package to.grindelf.sprtest.exceptions;
+
+/**
+ * No row of a table has the requested key. Thrown by the SQL operators, which serve every
+ * entity; the DAOs translate it into the exception of their entity, e.g. {@link NoSuchUserException}.
+ */
+public class NoSuchRowException extends StacklessException {
+
+    public NoSuchRowException(String tableName, Object key) {
+        super("No row with key " + key + " in table " + tableName + "!");
+    }
+}
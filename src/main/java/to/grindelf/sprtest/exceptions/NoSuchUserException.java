@@ -1,8 +1,8 @@
 package to.grindelf.sprtest.exceptions;
 
-public class NoSuchUserException extends Exception {
+public class NoSuchUserException extends StacklessException {
 
     public NoSuchUserException() {
-        System.err.println("No such authorized user!");
+        super("No such authorized user!");
     }
 }
@@ -0,0 +1,15 @@
+package to.grindelf.sprtest.exceptions;
+
+/**
+ * Checked exception for an expected outcome, such as an unknown user name or a taken one.
+ * <p>Callers handle these as results rather than failures, so they are created without a stack
+ * trace and without suppressed exceptions: filling in the stack was most of the cost of throwing
+ * them. Where an outcome is routine on a hot path, prefer the {@code Optional} variant of the
+ * method, e.g. {@code UserDao.findUserByName}.</p>
+ */
+public abstract class StacklessException extends Exception {
+
+    protected StacklessException(String message) {
+        super(message, null, false, false);
+    }
+}
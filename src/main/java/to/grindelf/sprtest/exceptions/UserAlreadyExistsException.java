@@ -1,6 +1,6 @@
 package to.grindelf.sprtest.exceptions;
 
-public class UserAlreadyExistsException extends Exception {
+public class UserAlreadyExistsException extends StacklessException {
 
     public UserAlreadyExistsException() {
         super("This user already exists! Try another user name.");
@@ -0,0 +1,115 @@
+package to.grindelf.sprtest.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.database.pool.PoolMetrics;
+import to.grindelf.sprtest.utils.database.pool.SQLiteConnectionPool;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Exposes the counters of the connection pools of the given database files.
+ * <p>The pool keeps its own counters, so nothing is recorded on the borrowing path: every
+ * meter reads a fresh {@link PoolMetrics} snapshot when the registry is scraped. Meters are
+ * named {@code sprtest.pool.*} and tagged with the database file name.</p>
+ */
+public class ConnectionPoolMeterBinder implements MeterBinder {
+
+    private final ConnectionPoolRegistry pools;
+    private final List<String> filePaths;
+
+    /**
+     * @param pools     registry holding the pools
+     * @param filePaths database files whose pools are exposed; pools are created on first use
+     */
+    public ConnectionPoolMeterBinder(@NotNull ConnectionPoolRegistry pools, @NotNull List<String> filePaths) {
+        this.pools = pools;
+        this.filePaths = List.copyOf(filePaths);
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        for (String filePath : filePaths) {
+            SQLiteConnectionPool pool = pools.poolFor(filePath);
+            Tags tags = Tags.of("file", new File(filePath).getName());
+
+            gauge(registry, pool, tags, "sprtest.pool.readers.idle", PoolMetrics::idleReaders);
+            gauge(registry, pool, tags, "sprtest.pool.readers.active", PoolMetrics::activeReaders);
+            gauge(registry, pool, tags, "sprtest.pool.writer.active", metrics -> metrics.writerActive() ? 1 : 0);
+            gauge(registry, pool, tags, "sprtest.pool.statements.hit.ratio", PoolMetrics::statementCacheHitRatio);
+
+            counter(registry, pool, tags, "sprtest.pool.connections.opened", PoolMetrics::connectionsOpened);
+            counter(registry, pool, tags, "sprtest.pool.connections.closed", PoolMetrics::connectionsClosed);
+            counter(registry, pool, tags, "sprtest.pool.evictions", PoolMetrics::evictions);
+            counter(registry, pool, tags, "sprtest.pool.health.check.failures", PoolMetrics::healthCheckFailures);
+            counter(registry, pool, tags, "sprtest.pool.acquire.timeouts", PoolMetrics::acquireTimeouts);
+            counter(registry, pool, tags, "sprtest.pool.statements.hits", PoolMetrics::statementCacheHits);
+            counter(registry, pool, tags, "sprtest.pool.statements.misses", PoolMetrics::statementCacheMisses);
+            counter(registry, pool, tags, "sprtest.pool.statements.evictions", PoolMetrics::statementCacheEvictions);
+
+            acquireTimer(registry, pool, tags.and("mode", "read"),
+                    PoolMetrics::readerBorrows, PoolMetrics::readerAcquireNanos);
+            acquireTimer(registry, pool, tags.and("mode", "write"),
+                    PoolMetrics::writerBorrows, PoolMetrics::writerAcquireNanos);
+
+            Gauge.builder("sprtest.pool.file.size", filePath, path -> new File(path).length())
+                    .description("Size of the database file")
+                    .baseUnit("bytes")
+                    .tags(tags)
+                    .register(registry);
+        }
+    }
+
+    private static void gauge(
+            @NotNull MeterRegistry registry,
+            @NotNull SQLiteConnectionPool pool,
+            @NotNull Tags tags,
+            @NotNull String name,
+            @NotNull ToDoubleFunction<PoolMetrics> value
+    ) {
+        Gauge.builder(name, pool, it -> value.applyAsDouble(it.metrics()))
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static void counter(
+            @NotNull MeterRegistry registry,
+            @NotNull SQLiteConnectionPool pool,
+            @NotNull Tags tags,
+            @NotNull String name,
+            @NotNull ToLongFunction<PoolMetrics> value
+    ) {
+        FunctionCounter.builder(name, pool, it -> value.applyAsLong(it.metrics()))
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static void acquireTimer(
+            @NotNull MeterRegistry registry,
+            @NotNull SQLiteConnectionPool pool,
+            @NotNull Tags tags,
+            @NotNull ToLongFunction<PoolMetrics> count,
+            @NotNull ToLongFunction<PoolMetrics> totalNanos
+    ) {
+        FunctionTimer.builder(
+                        "sprtest.pool.acquire",
+                        pool,
+                        it -> count.applyAsLong(it.metrics()),
+                        it -> totalNanos.applyAsLong(it.metrics()),
+                        TimeUnit.NANOSECONDS
+                )
+                .description("Time spent waiting for and opening pooled connections")
+                .tags(tags)
+                .register(registry);
+    }
+}
@@ -0,0 +1,210 @@
+package to.grindelf.sprtest.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.exceptions.DuplicateKeyException;
+import to.grindelf.sprtest.exceptions.NoSuchRowException;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Records the meters shared by the timed decorators of one storage layer.
+ * <p>Every meter name starts with the prefix of the layer and is tagged with the operation
+ * and its target (a table or a DAO), so that e.g. {@code sprtest.sql.operations}
+ * yields a latency histogram per operation and table. Meters are looked up in the registry
+ * on every call; Micrometer keeps them by name and tags, so nothing is registered twice.</p>
+ */
+class OperationMetrics {
+
+    static final String OUTCOME_SUCCESS = "success";
+    static final String OUTCOME_REJECTED = "rejected";
+    static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final String prefix;
+
+    /**
+     * @param registry registry to record into
+     * @param prefix   prefix of all meter names, e.g. {@code sprtest.sql}
+     */
+    OperationMetrics(@NotNull MeterRegistry registry, @NotNull String prefix) {
+        this.registry = registry;
+        this.prefix = prefix;
+    }
+
+    @NotNull Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Stops the sample of an operation that completed normally.
+     */
+    void success(@NotNull Timer.Sample sample, @NotNull String operation, @NotNull String target) {
+        sample.stop(timer(operation, target, OUTCOME_SUCCESS));
+    }
+
+    /**
+     * Stops the sample of an operation that threw.
+     * <p>Missing and duplicate users or rows are expected answers rather than faults, so they are tagged
+     * {@code rejected} and do not count as errors. Anything else is tagged {@code error} and
+     * counted by exception type.</p>
+     */
+    void failure(
+            @NotNull Timer.Sample sample,
+            @NotNull String operation,
+            @NotNull String target,
+            @NotNull Throwable failure
+    ) {
+        if (failure instanceof NoSuchUserException || failure instanceof UserAlreadyExistsException
+                || failure instanceof NoSuchRowException || failure instanceof DuplicateKeyException) {
+            sample.stop(timer(operation, target, OUTCOME_REJECTED));
+            return;
+        }
+
+        sample.stop(timer(operation, target, OUTCOME_ERROR));
+        Counter.builder(prefix + ".errors")
+                .description("Failed storage operations")
+                .tag("operation", operation)
+                .tag("target", target)
+                .tag("exception", failure.getClass().getSimpleName())
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Times a lazily read stream and counts the rows it returns.
+     * <p>The sample runs from now until the source fails, is exhausted or is closed, whichever comes
+     * first, and is stopped exactly once: a failure of the source is recorded as such, and a stream
+     * read to its end is recorded even if it is never closed. Exceptions thrown by the consumer of
+     * the rows are not failures of the source and are not recorded. A stream that is neither read
+     * to its end nor closed is never recorded.</p>
+     *
+     * @param source    stream to time; closed with the returned stream
+     * @param operation operation tag
+     * @param target    target tag
+     * @return stream of the same rows
+     */
+    <T> @NotNull Stream<T> stream(@NotNull Stream<T> source, @NotNull String operation, @NotNull String target) {
+        TimedSpliterator<T> rows = new TimedSpliterator<>(source.spliterator(), start(), operation, target);
+
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try {
+                source.close();
+            } catch (RuntimeException e) {
+                rows.failed(e);
+                throw e;
+            }
+            rows.finished();
+        });
+    }
+
+    /**
+     * Records how many rows or objects an operation returned or wrote.
+     */
+    void rows(@NotNull String operation, @NotNull String target, long count) {
+        DistributionSummary.builder(prefix + ".rows")
+                .description("Rows read or written per storage operation")
+                .tag("operation", operation)
+                .tag("target", target)
+                .register(registry)
+                .record(count);
+    }
+
+    /**
+     * Spliterator that passes the rows of its source through and records the stream once it ends.
+     */
+    private final class TimedSpliterator<T> implements Spliterator<T> {
+
+        private final Spliterator<T> source;
+        private final Timer.Sample sample;
+        private final String operation;
+        private final String target;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+        // Advanced only by the thread consuming the stream
+        private long rows;
+        private T next;
+
+        private TimedSpliterator(
+                @NotNull Spliterator<T> source,
+                @NotNull Timer.Sample sample,
+                @NotNull String operation,
+                @NotNull String target
+        ) {
+            this.source = source;
+            this.sample = sample;
+            this.operation = operation;
+            this.target = target;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            boolean advanced;
+            try {
+                // The row is handed over outside the try, so failures of the consumer are not recorded
+                advanced = source.tryAdvance(row -> next = row);
+            } catch (RuntimeException e) {
+                failed(e);
+                throw e;
+            }
+
+            if (!advanced) {
+                finished();
+                return false;
+            }
+
+            rows++;
+            T row = next;
+            next = null;
+            action.accept(row);
+            return true;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & (ORDERED | NONNULL);
+        }
+
+        private void finished() {
+            if (recorded.compareAndSet(false, true)) {
+                success(sample, operation, target);
+                rows(operation, target, rows);
+            }
+        }
+
+        private void failed(@NotNull RuntimeException failure) {
+            if (recorded.compareAndSet(false, true)) {
+                failure(sample, operation, target, failure);
+                rows(operation, target, rows);
+            }
+        }
+    }
+
+    private @NotNull Timer timer(@NotNull String operation, @NotNull String target, @NotNull String outcome) {
+        return Timer.builder(prefix + ".operations")
+                .description("Latency of storage operations")
+                .tag("operation", operation)
+                .tag("target", target)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
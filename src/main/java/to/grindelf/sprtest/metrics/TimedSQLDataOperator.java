@@ -0,0 +1,261 @@
+package to.grindelf.sprtest.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import to.grindelf.sprtest.exceptions.DuplicateKeyException;
+import to.grindelf.sprtest.exceptions.NoSuchRowException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+import to.grindelf.sprtest.utils.BulkImportSettings;
+import to.grindelf.sprtest.utils.ConstantValues.DatabaseTableNames;
+import to.grindelf.sprtest.utils.SQLDataOperator;
+import to.grindelf.sprtest.utils.database.RowMapper;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link SQLDataOperator} that records latency, row counts and errors of another operator.
+ * <p>Meters are named {@code sprtest.sql.*} and tagged with the operation and the table.
+ * A stream is timed from its creation until its cursor fails, is exhausted or is closed,
+ * and a failing cursor is recorded as an error.</p>
+ *
+ * @param <T> type of the object to operate on.
+ * @param <K> type of the object to use as a key to get other objects.
+ */
+public class TimedSQLDataOperator<T, K> implements SQLDataOperator<T, K> {
+
+    private final SQLDataOperator<T, K> delegate;
+    private final OperationMetrics metrics;
+
+    public TimedSQLDataOperator(@NotNull SQLDataOperator<T, K> delegate, @NotNull MeterRegistry registry) {
+        this.delegate = delegate;
+        this.metrics = new OperationMetrics(registry, "sprtest.sql");
+    }
+
+    @Override
+    public void createTableIfAbsent(
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName,
+            @NotNull String columnDefinitions
+    ) throws SQLException {
+        Timer.Sample sample = metrics.start();
+        try {
+            delegate.createTableIfAbsent(filePath, tableName, columnDefinitions);
+            metrics.success(sample, "createTable", tableName.toString());
+        } catch (Exception e) {
+            metrics.failure(sample, "createTable", tableName.toString(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public T getByKey(
+            @NotNull K key,
+            @NotNull String keyColumnName,
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName,
+            @NotNull RowMapper<T> mapper
+    ) throws SQLException, NoSuchRowException {
+        Timer.Sample sample = metrics.start();
+        try {
+            T result = delegate.getByKey(key, keyColumnName, columns, filePath, tableName, mapper);
+            metrics.success(sample, "getByKey", tableName.toString());
+            return result;
+        } catch (Exception e) {
+            metrics.failure(sample, "getByKey", tableName.toString(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<T> findByKey(
+            @NotNull K key,
+            @NotNull String keyColumnName,
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName,
+            @NotNull RowMapper<T> mapper
+    ) throws SQLException {
+        Timer.Sample sample = metrics.start();
+        try {
+            Optional<T> result = delegate.findByKey(key, keyColumnName, columns, filePath, tableName, mapper);
+            metrics.success(sample, "findByKey", tableName.toString());
+            metrics.rows("findByKey", tableName.toString(), result.isPresent() ? 1 : 0);
+            return result;
+        } catch (Exception e) {
+            metrics.failure(sample, "findByKey", tableName.toString(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public @NotNull List<T> getAll(
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull RowMapper<T> mapper,
+            @NotNull DatabaseTableNames tableName
+    ) throws SQLException {
+        Timer.Sample sample = metrics.start();
+        try {
+            List<T> result = delegate.getAll(columns, filePath, mapper, tableName);
+            metrics.success(sample, "getAll", tableName.toString());
+            metrics.rows("getAll", tableName.toString(), result.size());
+            return result;
+        } catch (Exception e) {
+            metrics.failure(sample, "getAll", tableName.toString(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public @NotNull List<T> getAllByColumn(
+            @NotNull Object value,
+            @NotNull String columnName,
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull RowMapper<T> mapper,
+            @NotNull DatabaseTableNames tableName
+    ) throws SQLException {
+        Timer.Sample sample = metrics.start();
+        try {
+            List<T> result = delegate.getAllByColumn(value, columnName, columns, filePath, mapper, tableName);
+            metrics.success(sample, "getAllByColumn", tableName.toString());
+            metrics.rows("getAllByColumn", tableName.toString(), result.size());
+            return result;
+        } catch (Exception e) {
+            metrics.failure(sample, "getAllByColumn", tableName.toString(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public @NotNull List<T> getPage(
+            @Nullable K afterKey,
+            @NotNull String keyColumnName,
+            int limit,
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull RowMapper<T> mapper,
+            @NotNull DatabaseTableNames tableName
+    ) throws SQLException {
+        Timer.Sample sample = metrics.start();
+        try {
+            List<T> result = delegate.getPage(afterKey, keyColumnName, limit, columns, filePath, mapper, tableName);
+            metrics.success(sample, "getPage", tableName.toString());
+            metrics.rows("getPage", tableName.toString(), result.size());
+            return result;
+        } catch (Exception e) {
+            metrics.failure(sample, "getPage", tableName.toString(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public @NotNull Stream<T> stream(
+            @NotNull String keyColumnName,
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull RowMapper<T> mapper,
+            @NotNull DatabaseTableNames tableName
+    ) {
+        return metrics.stream(
+                delegate.stream(keyColumnName, columns, filePath, mapper, tableName),
+                "stream",
+                tableName.toString()
+        );
+    }
+
+    @Override
+    public void post(
+            @NotNull T data,
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName,
+            @NotNull String keyColumnName
+    ) throws SQLException, DuplicateKeyException {
+        Timer.Sample sample = metrics.start();
+        try {
+            delegate.post(data, filePath, tableName, keyColumnName);
+            metrics.success(sample, "post", tableName.toString());
+        } catch (Exception e) {
+            metrics.failure(sample, "post", tableName.toString(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public long postGeneratingKey(
+            @NotNull T data,
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName
+    ) throws SQLException {
+        Timer.Sample sample = metrics.start();
+        try {
+            long key = delegate.postGeneratingKey(data, filePath, tableName);
+            metrics.success(sample, "postGeneratingKey", tableName.toString());
+            return key;
+        } catch (Exception e) {
+            metrics.failure(sample, "postGeneratingKey", tableName.toString(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public @NotNull BulkImportReport<K> postAll(
+            @NotNull Iterable<? extends T> data,
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName,
+            @NotNull String keyColumnName,
+            @NotNull BulkImportSettings settings
+    ) throws SQLException {
+        Timer.Sample sample = metrics.start();
+        try {
+            BulkImportReport<K> report = delegate.postAll(data, filePath, tableName, keyColumnName, settings);
+            metrics.success(sample, "postAll", tableName.toString());
+            metrics.rows("postAll", tableName.toString(), report.imported());
+            return report;
+        } catch (Exception e) {
+            metrics.failure(sample, "postAll", tableName.toString(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void update(
+            @NotNull K key,
+            @NotNull String keyColumnName,
+            @NotNull T data,
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName
+    ) throws SQLException, NoSuchRowException {
+        Timer.Sample sample = metrics.start();
+        try {
+            delegate.update(key, keyColumnName, data, filePath, tableName);
+            metrics.success(sample, "update", tableName.toString());
+        } catch (Exception e) {
+            metrics.failure(sample, "update", tableName.toString(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(
+            @NotNull K key,
+            @NotNull String keyColumnName,
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName
+    ) throws SQLException, NoSuchRowException {
+        Timer.Sample sample = metrics.start();
+        try {
+            delegate.delete(key, keyColumnName, filePath, tableName);
+            metrics.success(sample, "delete", tableName.toString());
+        } catch (Exception e) {
+            metrics.failure(sample, "delete", tableName.toString(), e);
+            throw e;
+        }
+    }
+}
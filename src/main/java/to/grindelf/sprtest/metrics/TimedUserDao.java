@@ -0,0 +1,147 @@
+package to.grindelf.sprtest.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import to.grindelf.sprtest.auth.UserDao;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserDao} that records latency, row counts and errors of another DAO.
+ * <p>It is meant to be the outermost DAO, so its timers show what callers see including
+ * any cache, while the operator decorators below it show what reached the storage.
+ * Meters are named {@code sprtest.dao.*} and tagged with the operation and {@code target=users}.
+ * Unknown and duplicate users are tagged {@code outcome=rejected}.</p>
+ *
+ * @param <T> type of the user
+ */
+public class TimedUserDao<T> implements UserDao<T> {
+
+    private static final String TARGET = "users";
+
+    private final UserDao<T> delegate;
+    private final OperationMetrics metrics;
+
+    public TimedUserDao(@NotNull UserDao<T> delegate, @NotNull MeterRegistry registry) {
+        this.delegate = delegate;
+        this.metrics = new OperationMetrics(registry, "sprtest.dao");
+    }
+
+    @Override
+    public T getUserByName(@NotNull String userName) throws NoSuchUserException {
+        Timer.Sample sample = metrics.start();
+        try {
+            T user = delegate.getUserByName(userName);
+            metrics.success(sample, "getUserByName", TARGET);
+            return user;
+        } catch (Exception e) {
+            metrics.failure(sample, "getUserByName", TARGET, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<T> findUserByName(@NotNull String userName) {
+        Timer.Sample sample = metrics.start();
+        try {
+            Optional<T> user = delegate.findUserByName(userName);
+            metrics.success(sample, "findUserByName", TARGET);
+            metrics.rows("findUserByName", TARGET, user.isPresent() ? 1 : 0);
+            return user;
+        } catch (Exception e) {
+            metrics.failure(sample, "findUserByName", TARGET, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<T> getAll() throws SQLException {
+        Timer.Sample sample = metrics.start();
+        try {
+            List<T> users = delegate.getAll();
+            metrics.success(sample, "getAll", TARGET);
+            metrics.rows("getAll", TARGET, users.size());
+            return users;
+        } catch (Exception e) {
+            metrics.failure(sample, "getAll", TARGET, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<T> getPage(@Nullable String afterName, int limit) {
+        Timer.Sample sample = metrics.start();
+        try {
+            List<T> users = delegate.getPage(afterName, limit);
+            metrics.success(sample, "getPage", TARGET);
+            metrics.rows("getPage", TARGET, users.size());
+            return users;
+        } catch (Exception e) {
+            metrics.failure(sample, "getPage", TARGET, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return metrics.stream(delegate.stream(), "stream", TARGET);
+    }
+
+    @Override
+    public void save(@NotNull T user) throws UserAlreadyExistsException {
+        Timer.Sample sample = metrics.start();
+        try {
+            delegate.save(user);
+            metrics.success(sample, "save", TARGET);
+        } catch (Exception e) {
+            metrics.failure(sample, "save", TARGET, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public BulkImportReport<String> saveAll(@NotNull Iterable<? extends T> users) {
+        Timer.Sample sample = metrics.start();
+        try {
+            BulkImportReport<String> report = delegate.saveAll(users);
+            metrics.success(sample, "saveAll", TARGET);
+            metrics.rows("saveAll", TARGET, report.imported());
+            return report;
+        } catch (Exception e) {
+            metrics.failure(sample, "saveAll", TARGET, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void update(@NotNull T user) throws NoSuchUserException {
+        Timer.Sample sample = metrics.start();
+        try {
+            delegate.update(user);
+            metrics.success(sample, "update", TARGET);
+        } catch (Exception e) {
+            metrics.failure(sample, "update", TARGET, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(@NotNull String userName) throws NoSuchUserException {
+        Timer.Sample sample = metrics.start();
+        try {
+            delegate.delete(userName);
+            metrics.success(sample, "delete", TARGET);
+        } catch (Exception e) {
+            metrics.failure(sample, "delete", TARGET, e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package to.grindelf.sprtest.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import.
+ *
+ * @param imported  number of imported objects
+ * @param conflicts keys of the objects that were skipped because the key was already taken
+ * @param <K>       type of the key
+ */
+public record BulkImportReport<K>(long imported, @NotNull List<K> conflicts) {
+
+    public BulkImportReport {
+        conflicts = List.copyOf(conflicts);
+    }
+
+    public boolean hasConflicts() {
+        return !conflicts.isEmpty();
+    }
+}
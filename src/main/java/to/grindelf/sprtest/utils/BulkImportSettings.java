@@ -0,0 +1,19 @@
+package to.grindelf.sprtest.utils;
+
+/**
+ * Settings of bulk imports into a database file.
+ *
+ * @param batchSize       number of rows sent to the database per batch
+ * @param validateEachRow whether the class of every row is checked against the table structure;
+ *                        if false, only the first row is checked and the rest are trusted to match
+ */
+public record BulkImportSettings(int batchSize, boolean validateEachRow) {
+
+    public static final BulkImportSettings DEFAULT = new BulkImportSettings(500, false);
+
+    public BulkImportSettings {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+    }
+}
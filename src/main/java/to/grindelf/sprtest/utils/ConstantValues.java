@@ -71,6 +71,11 @@ public class ConstantValues {
             "status"
     );
     public final static String USERS_COLUMN_KEY_COLUMN_NAME = USERS_COLUMNS_NAMES.getFirst();
+    public final static List<String> APARTMENTS_COLUMNS_NAMES = List.of(
+            "id",
+            "title"
+    );
+    public final static String APARTMENTS_COLUMN_KEY_COLUMN_NAME = APARTMENTS_COLUMNS_NAMES.getFirst();
     public final static List<String> BOOKINGS_COLUMNS_NAMES = List.of(
             "id",
             "apartmentId",
@@ -79,5 +84,6 @@ public class ConstantValues {
             "dateTo"
     );
     public final static String BOOKINGS_COLUMN_KEY_COLUMN_NAME = BOOKINGS_COLUMNS_NAMES.getFirst();
+    public final static String BOOKINGS_APARTMENT_COLUMN_NAME = BOOKINGS_COLUMNS_NAMES.get(1);
 
 }
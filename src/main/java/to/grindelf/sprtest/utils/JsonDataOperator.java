@@ -0,0 +1,39 @@
+package to.grindelf.sprtest.utils;
+
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.annonations.JSONPurposed;
+import to.grindelf.sprtest.exceptions.JSONException;
+
+import java.util.List;
+
+/**
+ * Operations on data stored in JSON files.
+ *
+ * @param <T> type of the object to operate on.
+ * @param <K> type of the object to use as a key to get other objects.
+ */
+public interface JsonDataOperator<T, K> extends DataOperator<T, K> {
+
+    /**
+     * Returns the content of a file.
+     *
+     * @param filePath path to destination file
+     * @return returns the content of a file.
+     * @throws JSONException if an error occurs during the operation
+     */
+    @JSONPurposed
+    List<T> readFile(@NotNull String filePath) throws JSONException;
+
+    /**
+     * Overwrites content of the provided file with new content
+     *
+     * @param filePath path to destination file
+     * @param data     what to write in destination file
+     * @throws JSONException if an error occurs during the operation
+     */
+    @JSONPurposed
+    void writeToFile(
+            @NotNull String filePath,
+            @NotNull List<T> data
+    ) throws JSONException;
+}
@@ -0,0 +1,31 @@
+package to.grindelf.sprtest.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Seeded 64-bit hash of strings. Unlike {@link String#hashCode()}, strings that collide under one
+ * seed do not collide under another, so with a random seed per process collisions cannot be
+ * prepared in advance. Used wherever names chosen by clients pick a bucket, slot or bit.
+ */
+public final class KeyHash {
+
+    private KeyHash() {
+    }
+
+    /**
+     * @param key  string to hash
+     * @param seed seed, chosen at random once per process or per table
+     * @return 64-bit hash of the key
+     */
+    public static long hash(@NotNull String key, long seed) {
+        // FNV-1a over the chars, finished with the MurmurHash3 mixer
+        long hash = seed ^ 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001B3L;
+        }
+
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
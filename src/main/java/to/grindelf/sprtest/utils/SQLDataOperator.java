@@ -0,0 +1,264 @@
+package to.grindelf.sprtest.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import to.grindelf.sprtest.annonations.SQLPurposed;
+import to.grindelf.sprtest.exceptions.DuplicateKeyException;
+import to.grindelf.sprtest.exceptions.NoSuchRowException;
+import to.grindelf.sprtest.utils.ConstantValues.DatabaseTableNames;
+import to.grindelf.sprtest.utils.database.RowMapper;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Operations on data stored in database files.
+ * <p>Operators serve every entity, so a missing or taken key is reported with the entity-neutral
+ * {@link NoSuchRowException} and {@link DuplicateKeyException}, which the DAOs translate.</p>
+ *
+ * @param <T> type of the object to operate on.
+ * @param <K> type of the object to use as a key to get other objects.
+ */
+public interface SQLDataOperator<T, K> extends DataOperator<T, K> {
+
+    /**
+     * Creates the table unless it exists already.
+     *
+     * @param filePath          path to the database file
+     * @param tableName         name of the table to create
+     * @param columnDefinitions column definitions and constraints, as between the parentheses of {@code CREATE TABLE}
+     * @throws SQLException if an error occurs during the operation
+     */
+    @SQLPurposed
+    void createTableIfAbsent(
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName,
+            @NotNull String columnDefinitions
+    ) throws SQLException;
+
+    /**
+     * Returns the object by the provided key from the database file.
+     *
+     * @param key           key to get the object by
+     * @param keyColumnName name of the key column
+     * @param columns       columns to select; the mapper must read only these
+     * @param filePath      path to the database file
+     * @param tableName     name of the table to get data from
+     * @return returns the object by the provided key from the database file
+     * @throws SQLException       if an error occurs during the operation
+     * @throws NoSuchRowException if no row has the key
+     */
+    @SQLPurposed
+    T getByKey(
+            @NotNull K key,
+            @NotNull String keyColumnName,
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName,
+            @NotNull RowMapper<T> mapper
+    ) throws SQLException, NoSuchRowException;
+
+    /**
+     * Returns the object by the provided key from the database file, if there is one.
+     * Unlike {@link #getByKey}, a missing key is an empty result rather than an exception.
+     *
+     * @param key           key to get the object by
+     * @param keyColumnName name of the key column
+     * @param columns       columns to select; the mapper must read only these
+     * @param filePath      path to the database file
+     * @param tableName     name of the table to get data from
+     * @return the object, or empty if no row has the key
+     * @throws SQLException if an error occurs during the operation
+     */
+    @SQLPurposed
+    Optional<T> findByKey(
+            @NotNull K key,
+            @NotNull String keyColumnName,
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName,
+            @NotNull RowMapper<T> mapper
+    ) throws SQLException;
+
+    /**
+     * Returns all data from the table in the database file.
+     *
+     * @param columns   columns to select; the mapper must read only these
+     * @param filePath  path to the database file
+     * @param mapper    mapper to convert ResultSet to object
+     * @param tableName name of the table to get data from
+     * @return list of objects of type T
+     */
+    @SQLPurposed
+    @NotNull
+    List<T> getAll(
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull RowMapper<T> mapper,
+            @NotNull DatabaseTableNames tableName
+    ) throws SQLException;
+
+    /**
+     * Returns every row whose column has the value, such as the bookings of one apartment.
+     *
+     * @param value      value to match
+     * @param columnName name of the column to match
+     * @param columns    columns to select; the mapper must read only these
+     * @param filePath   path to the database file
+     * @param mapper     mapper to convert ResultSet to object
+     * @param tableName  name of the table to get data from
+     * @return matching objects, in no particular order
+     * @throws SQLException if an error occurs during the operation
+     */
+    @SQLPurposed
+    @NotNull
+    List<T> getAllByColumn(
+            @NotNull Object value,
+            @NotNull String columnName,
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull RowMapper<T> mapper,
+            @NotNull DatabaseTableNames tableName
+    ) throws SQLException;
+
+    /**
+     * Returns one page of the table ordered by the key column (keyset pagination).
+     * The next page starts after the key of the last object of this one.
+     *
+     * @param afterKey      key after which the page starts, or null for the first page
+     * @param keyColumnName name of the column that is used as a key
+     * @param limit         maximum number of objects on the page
+     * @param columns       columns to select; the mapper must read only these
+     * @param filePath      path to the database file
+     * @param mapper        mapper to convert ResultSet to object
+     * @param tableName     name of the table to get data from
+     * @return objects of the page, in key order
+     * @throws SQLException if an error occurs during the operation
+     */
+    @SQLPurposed
+    @NotNull
+    List<T> getPage(
+            @Nullable K afterKey,
+            @NotNull String keyColumnName,
+            int limit,
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull RowMapper<T> mapper,
+            @NotNull DatabaseTableNames tableName
+    ) throws SQLException;
+
+    /**
+     * Returns every object of the table, ordered by the key column, as a lazily read stream.
+     * <p>A read connection is borrowed when the stream starts to be consumed and is held until
+     * the stream is exhausted or closed, so the stream must be closed if it is not read to the end.</p>
+     *
+     * @param keyColumnName name of the column that is used as a key
+     * @param columns       columns to select; the mapper must read only these
+     * @param filePath      path to the database file
+     * @param mapper        mapper to convert ResultSet to object
+     * @param tableName     name of the table to get data from
+     * @return stream of objects in key order
+     */
+    @SQLPurposed
+    @NotNull
+    Stream<T> stream(
+            @NotNull String keyColumnName,
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull RowMapper<T> mapper,
+            @NotNull DatabaseTableNames tableName
+    );
+
+    /**
+     * Validates and, if valid, inserts data into the database file.
+     *
+     * @param data          object to insert
+     * @param filePath      path to the database file
+     * @param tableName     name of the table to insert data into
+     * @param keyColumnName
+     * @throws DuplicateKeyException if a row with the key of the data exists already
+     */
+    @SQLPurposed
+    void post(
+            @NotNull T data,
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName,
+            @NotNull String keyColumnName) throws SQLException, DuplicateKeyException;
+
+    /**
+     * Inserts data whose key is assigned by the database.
+     * <p>The key column must be an {@code INTEGER PRIMARY KEY} and the key field of the data null:
+     * SQLite then stores the row under a fresh rowid, which is returned.</p>
+     *
+     * @param data      object to insert, with a null key
+     * @param filePath  path to the database file
+     * @param tableName name of the table to insert data into
+     * @return key assigned to the inserted row
+     * @throws SQLException if an error occurs during the operation
+     */
+    @SQLPurposed
+    long postGeneratingKey(
+            @NotNull T data,
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName
+    ) throws SQLException;
+
+    /**
+     * Inserts many objects into the database file in a single transaction.
+     * <p>Objects whose key is already taken are skipped and reported instead of failing the import.
+     * If an error occurs, nothing is inserted.</p>
+     *
+     * @param data          objects to insert
+     * @param filePath      path to the database file
+     * @param tableName     name of the table to insert data into
+     * @param keyColumnName name of the column that is used as a key
+     * @param settings      batch size and validation mode of the import
+     * @return number of inserted objects and keys of the skipped ones
+     * @throws SQLException if an error occurs during the operation
+     */
+    @SQLPurposed
+    @NotNull BulkImportReport<K> postAll(
+            @NotNull Iterable<? extends T> data,
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName,
+            @NotNull String keyColumnName,
+            @NotNull BulkImportSettings settings
+    ) throws SQLException;
+
+    /**
+     * Updates the data in the database file.
+     *
+     * @param key       key to update the object by
+     * @param filePath  path to the database file
+     * @param tableName name of the table to update data in
+     * @throws SQLException       if an error occurs during the operation
+     * @throws NoSuchRowException if no row has the key
+     */
+    @SQLPurposed
+    void update(
+            @NotNull K key,
+            @NotNull String keyColumnName,
+            @NotNull T data,
+            @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName
+    ) throws SQLException, NoSuchRowException;
+
+    /**
+     * Deletes the data from the database file.
+     *
+     * @param key           key to delete the object by
+     * @param keyColumnName
+     * @param filePath      path to the database file
+     * @param tableName     name of the table to delete data from
+     * @throws SQLException       if an error occurs during the operation
+     * @throws NoSuchRowException if no row has the key
+     */
+    @SQLPurposed
+    void delete(
+            @NotNull K key,
+            @NotNull String keyColumnName, @NotNull String filePath,
+            @NotNull DatabaseTableNames tableName
+    ) throws SQLException, NoSuchRowException;
+}
@@ -0,0 +1,54 @@
+package to.grindelf.sprtest.utils;
+
+/**
+ * Encodes strings to UTF-8 one byte at a time, so that a string can be compared with
+ * encoded bytes stored elsewhere without encoding it into a new array first.
+ * <p>The encoding matches {@link String#getBytes(java.nio.charset.Charset)} with UTF-8,
+ * which writes unpaired surrogates as {@code '?'}.</p>
+ */
+public final class Utf8 {
+
+    private Utf8() {
+    }
+
+    /**
+     * Returns the code point that is actually encoded for the code point of a string.
+     *
+     * @param codePoint code point as returned by {@link String#codePointAt(int)}
+     * @return the code point, or {@code '?'} for an unpaired surrogate
+     */
+    public static int encodable(int codePoint) {
+        return codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE ? '?' : codePoint;
+    }
+
+    /**
+     * Returns the number of bytes encoding the code point.
+     *
+     * @param codePoint encodable code point
+     * @return 1 to 4
+     */
+    public static int length(int codePoint) {
+        return codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+    }
+
+    /**
+     * Returns one byte of the encoding of the code point.
+     *
+     * @param codePoint encodable code point
+     * @param length    {@link #length(int)} of the code point
+     * @param index     index of the byte, below the length
+     * @return the byte as an unsigned value
+     */
+    public static int encodedByte(int codePoint, int length, int index) {
+        if (length == 1) {
+            return codePoint;
+        }
+
+        int shift = 6 * (length - 1 - index);
+        if (index == 0) {
+            int prefix = length == 2 ? 0xC0 : length == 3 ? 0xE0 : 0xF0;
+            return prefix | (codePoint >> shift);
+        }
+        return 0x80 | ((codePoint >> shift) & 0x3F);
+    }
+}
@@ -0,0 +1,83 @@
+package to.grindelf.sprtest.utils.database;
+
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.utils.database.pool.PooledConnection;
+import to.grindelf.sprtest.utils.database.pool.SQLiteConnectionPool;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over the rows of a query, read one at a time from an open cursor.
+ * <p>The read connection is borrowed on the first advance, not when the stream is created,
+ * and is returned as soon as the last row is read or the stream is closed.</p>
+ *
+ * @param <T> type of the mapped rows
+ */
+final class CursorSpliterator<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+
+    private final SQLiteConnectionPool pool;
+    private final String query;
+    private final RowMapper<T> mapper;
+
+    private PooledConnection pooled;
+    private ResultSet resultSet;
+    private boolean finished;
+
+    CursorSpliterator(@NotNull SQLiteConnectionPool pool, @NotNull String query, @NotNull RowMapper<T> mapper) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.pool = pool;
+        this.query = query;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (finished) {
+            return false;
+        }
+
+        try {
+            if (resultSet == null) {
+                pooled = pool.borrowRead();
+                resultSet = pooled.prepare(query).executeQuery();
+            }
+
+            if (!resultSet.next()) {
+                close();
+                return false;
+            }
+
+            action.accept(mapper.mapRow(resultSet));
+            return true;
+        } catch (SQLException e) {
+            close();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Closes the cursor and returns the connection to the pool. Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        finished = true;
+
+        try {
+            if (resultSet != null) {
+                resultSet.close();
+            }
+        } catch (SQLException ignored) {
+            // The cursor is being discarded anyway.
+        } finally {
+            resultSet = null;
+            if (pooled != null) {
+                pooled.close();
+                pooled = null;
+            }
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package to.grindelf.sprtest.utils.database;
 
 
+import to.grindelf.sprtest.domain.Apartment;
+import to.grindelf.sprtest.domain.Booking;
 import to.grindelf.sprtest.domain.User;
 
+import java.time.LocalDate;
+
 /**
  * Utility class for DatabaseDao.
  */
@@ -18,4 +22,23 @@ public class DatabaseDaoUtils {
             rs.getString("status")
     );
 
+    /**
+     * Mapper for Apartment object.
+     */
+    public final RowMapper<Apartment> apartmentMapper = rs -> new Apartment(
+            rs.getString("id"),
+            rs.getString("title")
+    );
+
+    /**
+     * Mapper for Booking object. Dates are stored as ISO-8601 text.
+     */
+    public final RowMapper<Booking> bookingMapper = rs -> new Booking(
+            rs.getLong("id"),
+            rs.getString("apartmentId"),
+            rs.getString("bookerName"),
+            LocalDate.parse(rs.getString("dateFrom")),
+            LocalDate.parse(rs.getString("dateTo"))
+    );
+
 }
@@ -0,0 +1,240 @@
+package to.grindelf.sprtest.utils.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precompiled mapping between an entity class and its table columns.
+ * <p>The plan is built once per class: every instance field becomes a column with a
+ * {@link MethodHandle} getter, and the SQL text of each statement is generated once per table
+ * and key column. Binding an entity to a statement afterwards does no reflection lookups.</p>
+ *
+ * @param <T> type of the entity
+ */
+public final class EntityPlan<T> {
+
+    private static final ClassValue<EntityPlan<?>> PLANS = new ClassValue<>() {
+        @Override
+        protected EntityPlan<?> computeValue(Class<?> type) {
+            return new EntityPlan<>(type);
+        }
+    };
+
+    /**
+     * How a field value is converted before it is bound to a statement.
+     */
+    private enum Conversion {
+        /** Bound as is. */
+        NONE,
+        /**
+         * Declared enum or {@code java.time} field, bound as its {@code toString()} value
+         * (e.g. {@code UserStatus}, or a {@code LocalDate} as ISO-8601 text).
+         */
+        TO_STRING,
+        /** Field of a non-final declared type, converted only if it holds an enum or date at runtime. */
+        DYNAMIC
+    }
+
+    private record StatementKey(String kind, String tableName, String keyColumnName) {
+    }
+
+    private final Class<T> type;
+    private final List<String> columns;
+    private final MethodHandle[] getters;
+    private final Conversion[] conversions;
+    private final Map<StatementKey, String> statements = new ConcurrentHashMap<>();
+
+    private EntityPlan(@NotNull Class<T> type) {
+        this.type = type;
+
+        List<String> columnNames = new ArrayList<>();
+        List<MethodHandle> handles = new ArrayList<>();
+        List<Conversion> conversionList = new ArrayList<>();
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+
+                columnNames.add(field.getName());
+                handles.add(lookup.unreflectGetter(field)
+                        .asType(MethodType.methodType(Object.class, Object.class)));
+                conversionList.add(conversionFor(field.getType()));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access fields of " + type.getName(), e);
+        }
+
+        this.columns = List.copyOf(columnNames);
+        this.getters = handles.toArray(new MethodHandle[0]);
+        this.conversions = conversionList.toArray(new Conversion[0]);
+    }
+
+    /**
+     * Returns the plan of the class, building it on first use.
+     *
+     * @param type entity class
+     * @return cached plan of the class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> @NotNull EntityPlan<T> of(@NotNull Class<T> type) {
+        return (EntityPlan<T>) PLANS.get(type);
+    }
+
+    /**
+     * Returns the plan of the entity's class, building it on first use.
+     *
+     * @param entity entity instance
+     * @return cached plan of the entity's class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> @NotNull EntityPlan<T> forEntity(@NotNull T entity) {
+        return (EntityPlan<T>) PLANS.get(entity.getClass());
+    }
+
+    public @NotNull Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Returns the column names in declaration order of the entity fields.
+     *
+     * @return column names
+     */
+    public @NotNull List<String> columns() {
+        return columns;
+    }
+
+    // ======================================================== \\
+    //                     PRECOMPUTED SQL                      \\
+    // ======================================================== \\
+
+    public @NotNull String insertSql(@NotNull String tableName) {
+        return statements.computeIfAbsent(new StatementKey("insert", tableName, ""), key ->
+                "INSERT INTO " + tableName
+                        + " (" + String.join(",", columns) + ")"
+                        + " VALUES (" + String.join(",", Collections.nCopies(columns.size(), "?")) + ")"
+        );
+    }
+
+    /**
+     * Returns an insert that silently skips the row if the key column value is already taken.
+     * The number of affected rows tells whether the row was inserted.
+     */
+    public @NotNull String insertIfAbsentSql(@NotNull String tableName, @NotNull String keyColumnName) {
+        // Resolved before computeIfAbsent, which must not modify the map from inside its mapping function
+        String insert = insertSql(tableName);
+        return statements.computeIfAbsent(new StatementKey("insertIfAbsent", tableName, keyColumnName), key ->
+                insert + " ON CONFLICT(" + keyColumnName + ") DO NOTHING"
+        );
+    }
+
+    public @NotNull String updateSql(@NotNull String tableName, @NotNull String keyColumnName) {
+        return statements.computeIfAbsent(new StatementKey("update", tableName, keyColumnName), key -> {
+            List<String> assignments = new ArrayList<>();
+            for (String column : columns) {
+                if (!column.equals(keyColumnName)) {
+                    assignments.add(column + " = ?");
+                }
+            }
+            return "UPDATE " + tableName + " SET " + String.join(",", assignments) + " WHERE " + keyColumnName + " = ?";
+        });
+    }
+
+    // ======================================================== \\
+    //                      VALUE BINDING                       \\
+    // ======================================================== \\
+
+    /**
+     * Returns the converted value of one column of the entity.
+     *
+     * @param entity     entity to read from
+     * @param columnName column to read
+     * @return value ready to be bound to a statement
+     */
+    public Object value(@NotNull T entity, @NotNull String columnName) {
+        int index = columns.indexOf(columnName);
+        if (index < 0) {
+            throw new IllegalArgumentException("Field '" + columnName + "' is not present in " + type.getName() + ".");
+        }
+        return read(entity, index);
+    }
+
+    /**
+     * Binds every column of the entity to the statement produced by {@link #insertSql(String)}.
+     *
+     * @param stmt   statement to bind to
+     * @param entity entity to bind
+     * @throws SQLException if a parameter cannot be set
+     */
+    public void bindInsert(@NotNull PreparedStatement stmt, @NotNull T entity) throws SQLException {
+        for (int i = 0; i < getters.length; i++) {
+            stmt.setObject(i + 1, read(entity, i));
+        }
+    }
+
+    /**
+     * Binds the entity to the statement produced by {@link #updateSql(String, String)}.
+     *
+     * @param stmt          statement to bind to
+     * @param entity        entity with the new values
+     * @param keyColumnName column used as a key
+     * @param key           key of the row to update
+     * @throws SQLException if a parameter cannot be set
+     */
+    public void bindUpdate(
+            @NotNull PreparedStatement stmt,
+            @NotNull T entity,
+            @NotNull String keyColumnName,
+            @NotNull Object key
+    ) throws SQLException {
+        int index = 1;
+        for (int i = 0; i < getters.length; i++) {
+            if (!columns.get(i).equals(keyColumnName)) {
+                stmt.setObject(index++, read(entity, i));
+            }
+        }
+        stmt.setObject(index, key);
+    }
+
+    private Object read(@NotNull T entity, int index) {
+        Object value;
+        try {
+            value = (Object) getters[index].invokeExact((Object) entity);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to access field value: " + columns.get(index), e);
+        }
+
+        return switch (conversions[index]) {
+            case NONE -> value;
+            case TO_STRING -> value == null ? null : value.toString();
+            case DYNAMIC -> value instanceof Enum<?> || value instanceof TemporalAccessor ? value.toString() : value;
+        };
+    }
+
+    private static @NotNull Conversion conversionFor(@NotNull Class<?> fieldType) {
+        if (fieldType.isEnum() || TemporalAccessor.class.isAssignableFrom(fieldType)) {
+            return Conversion.TO_STRING;
+        }
+        if (fieldType.isPrimitive() || Modifier.isFinal(fieldType.getModifiers())) {
+            return Conversion.NONE;
+        }
+        return Conversion.DYNAMIC;
+    }
+}
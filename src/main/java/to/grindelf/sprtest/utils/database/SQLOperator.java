@@ -1,31 +1,106 @@
 package to.grindelf.sprtest.utils.database;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import to.grindelf.sprtest.annonations.SQLPurposed;
-import to.grindelf.sprtest.exceptions.IrregularAccessException;
-import to.grindelf.sprtest.exceptions.JSONException;
-import to.grindelf.sprtest.exceptions.NoSuchUserException;
-import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.exceptions.DuplicateKeyException;
+import to.grindelf.sprtest.exceptions.NoSuchRowException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+import to.grindelf.sprtest.utils.BulkImportSettings;
 import to.grindelf.sprtest.utils.ConstantValues;
-import to.grindelf.sprtest.utils.DataOperator;
+import to.grindelf.sprtest.utils.SQLDataOperator;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.database.pool.PooledConnection;
 
-
-import java.lang.reflect.Field;
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Class that handles SQL operations.
+ * <p>Connections are borrowed from a {@link ConnectionPoolRegistry}: reads use the pooled
+ * read-only connections, writes go through the single writer connection of the database file.
+ * Statements are taken from the statement cache of the borrowed connection and are never closed here.</p>
  *
  * @param <T> type of the object to operate on.
  * @param <K> type of the object to use as a key to get other objects.
  */
-public class SQLOperator<T, K> implements DataOperator<T, K> {
+public class SQLOperator<T, K> implements SQLDataOperator<T, K> {
+
+    private final ConnectionPoolRegistry pools;
+    private final SchemaRegistry schemas;
+
+    public SQLOperator() {
+        this(ConnectionPoolRegistry.shared(), SchemaRegistry.shared());
+    }
 
-    public SQLOperator() {}
+    /**
+     * Constructor that draws connections from the provided pool registry.
+     *
+     * @param pools registry of connection pools keyed by database file path
+     */
+    public SQLOperator(@NotNull ConnectionPoolRegistry pools) {
+        this(pools, SchemaRegistry.shared());
+    }
+
+    /**
+     * Constructor that draws connections and table structures from the provided registries.
+     *
+     * @param pools   registry of connection pools keyed by database file path
+     * @param schemas registry of cached table structures
+     */
+    public SQLOperator(@NotNull ConnectionPoolRegistry pools, @NotNull SchemaRegistry schemas) {
+        this.pools = pools;
+        this.schemas = schemas;
+    }
+
+    /**
+     * Validates the entity class against the table structure and caches the result,
+     * so that writes of this class skip the check. Intended to be called at startup.
+     *
+     * @param type      entity class
+     * @param filePath  path to the database file
+     * @param tableName name of the table the entity is stored in
+     * @throws SQLException             if the table structure cannot be read
+     * @throws IllegalArgumentException if a field of the entity has no matching column
+     */
+    @SQLPurposed
+    public void validateEntity(
+            @NotNull Class<T> type,
+            @NotNull String filePath,
+            @NotNull ConstantValues.DatabaseTableNames tableName
+    ) throws SQLException {
+        try (PooledConnection pooled = pools.poolFor(filePath).borrowRead()) {
+            schemas.ensureCompatible(filePath, tableName.toString(), EntityPlan.of(type), pooled.connection());
+        }
+    }
+
+    /**
+     * Creates the table unless it exists already, and drops the cached table structures of the
+     * database file so that the new table is seen by the next validation.
+     *
+     * @param filePath          path to the database file
+     * @param tableName         name of the table to create
+     * @param columnDefinitions column definitions and constraints, as between the parentheses of {@code CREATE TABLE}
+     * @throws SQLException if an error occurs during the operation
+     */
+    @Override
+    @SQLPurposed
+    public void createTableIfAbsent(
+            @NotNull String filePath,
+            @NotNull ConstantValues.DatabaseTableNames tableName,
+            @NotNull String columnDefinitions
+    ) throws SQLException {
+        try (PooledConnection pooled = pools.poolFor(filePath).borrowWrite();
+             Statement stmt = pooled.connection().createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + tableName + " (" + columnDefinitions + ")");
+        }
+        schemas.invalidate(filePath);
+    }
 
     // ===================================================================== \\
     //                 HIGH-LEVEL SQL OPERATIONS WITH DATA                   \\
@@ -37,30 +112,46 @@ public class SQLOperator<T, K> implements DataOperator<T, K> {
     public T getByKey(
             @NotNull K key,
             @NotNull String keyColumnName,
+            @NotNull List<String> columns,
             @NotNull String filePath,
             @NotNull ConstantValues.DatabaseTableNames tableName,
             @NotNull RowMapper<T> mapper
-    ) throws SQLException, IrregularAccessException, NoSuchUserException {
-        String url = "jdbc:sqlite:" + filePath;
-        String query = "SELECT * FROM " + tableName + " WHERE " + keyColumnName + " = ?";
+    ) throws SQLException, NoSuchRowException {
+        Optional<T> result = findByKey(key, keyColumnName, columns, filePath, tableName, mapper);
 
-        try (Connection conn = DriverManager.getConnection(url);
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+        if (result.isEmpty()) {
+            throw new NoSuchRowException(tableName.toString(), key);
+        }
 
+        return result.get();
+    }
+
+    @Override
+    @SQLPurposed
+    public Optional<T> findByKey(
+            @NotNull K key,
+            @NotNull String keyColumnName,
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull ConstantValues.DatabaseTableNames tableName,
+            @NotNull RowMapper<T> mapper
+    ) throws SQLException {
+        try (PooledConnection pooled = pools.poolFor(filePath).borrowRead()) {
+            PreparedStatement stmt = pooled.prepare(TableStatements.selectByKey(tableName.toString(), keyColumnName, columns));
             stmt.setObject(1, key);
 
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    T result = mapper.mapRow(rs);
+                if (!rs.next()) {
+                    return Optional.empty();
+                }
 
-                    if (rs.next()) {
-                        throw new SQLException("Database inconsistency: multiple rows found for key " + key);
-                    }
+                T result = mapper.mapRow(rs);
 
-                    return result;
-                } else {
-                    throw new NoSuchUserException();
+                if (rs.next()) {
+                    throw new SQLException("Database inconsistency: multiple rows found for key " + key);
                 }
+
+                return Optional.of(result);
             }
         }
     }
@@ -68,6 +159,7 @@ public class SQLOperator<T, K> implements DataOperator<T, K> {
     /**
      * Returns all data from the table in the database file.
      *
+     * @param columns   columns to select; the mapper must read only these
      * @param filePath  path to the database file
      * @param mapper    mapper to convert ResultSet to object
      * @param tableName name of the table to get data from
@@ -76,19 +168,45 @@ public class SQLOperator<T, K> implements DataOperator<T, K> {
     @Override
     @SQLPurposed
     public @NotNull List<T> getAll(
+            @NotNull List<String> columns,
             @NotNull String filePath,
             @NotNull RowMapper<T> mapper,
             @NotNull ConstantValues.DatabaseTableNames tableName
-    ) throws SQLException, IrregularAccessException {
+    ) throws SQLException {
 
         List<T> result = new ArrayList<>();
-        String url = "jdbc:sqlite:" + filePath;
 
-        try (Connection conn = DriverManager.getConnection(url)) {
-            String query = "SELECT * FROM " + tableName;
+        try (PooledConnection pooled = pools.poolFor(filePath).borrowRead()) {
+            PreparedStatement stmt = pooled.prepare(TableStatements.selectAll(tableName.toString(), columns));
 
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(mapper.mapRow(rs));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    @SQLPurposed
+    public @NotNull List<T> getAllByColumn(
+            @NotNull Object value,
+            @NotNull String columnName,
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull RowMapper<T> mapper,
+            @NotNull ConstantValues.DatabaseTableNames tableName
+    ) throws SQLException {
+        List<T> result = new ArrayList<>();
+
+        try (PooledConnection pooled = pools.poolFor(filePath).borrowRead()) {
+            // Same text as a key lookup on the column, so both share one cached statement
+            PreparedStatement stmt = pooled.prepare(TableStatements.selectByKey(tableName.toString(), columnName, columns));
+            stmt.setObject(1, value);
+
+            try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     result.add(mapper.mapRow(rs));
                 }
@@ -98,6 +216,90 @@ public class SQLOperator<T, K> implements DataOperator<T, K> {
         return result;
     }
 
+    /**
+     * Returns one page of the table ordered by the key column (keyset pagination).
+     * <p>The page is found through the key index, so the cost of a page does not grow with
+     * its position in the table, unlike {@code OFFSET}.</p>
+     *
+     * @param afterKey      key after which the page starts, or null for the first page
+     * @param keyColumnName name of the column that is used as a key
+     * @param limit         maximum number of objects on the page
+     * @param columns       columns to select; the mapper must read only these
+     * @param filePath      path to the database file
+     * @param mapper        mapper to convert ResultSet to object
+     * @param tableName     name of the table to get data from
+     * @return objects of the page, in key order
+     * @throws SQLException if an error occurs during the operation
+     */
+    @Override
+    @SQLPurposed
+    public @NotNull List<T> getPage(
+            @Nullable K afterKey,
+            @NotNull String keyColumnName,
+            int limit,
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull RowMapper<T> mapper,
+            @NotNull ConstantValues.DatabaseTableNames tableName
+    ) throws SQLException {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be positive.");
+        }
+
+        List<T> result = new ArrayList<>(limit);
+        boolean first = afterKey == null;
+
+        try (PooledConnection pooled = pools.poolFor(filePath).borrowRead()) {
+            PreparedStatement stmt = pooled.prepare(
+                    TableStatements.selectPage(tableName.toString(), keyColumnName, columns, first)
+            );
+
+            int parameter = 1;
+            if (!first) {
+                stmt.setObject(parameter++, afterKey);
+            }
+            stmt.setInt(parameter, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(mapper.mapRow(rs));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns every object of the table, ordered by the key column, as a lazily read stream.
+     * <p>A read connection is borrowed when the stream starts to be consumed and is held until
+     * the stream is exhausted or closed. Database errors are rethrown as {@link RuntimeException}.</p>
+     *
+     * @param keyColumnName name of the column that is used as a key
+     * @param columns       columns to select; the mapper must read only these
+     * @param filePath      path to the database file
+     * @param mapper        mapper to convert ResultSet to object
+     * @param tableName     name of the table to get data from
+     * @return stream of objects in key order, to be closed after use
+     */
+    @Override
+    @SQLPurposed
+    public @NotNull Stream<T> stream(
+            @NotNull String keyColumnName,
+            @NotNull List<String> columns,
+            @NotNull String filePath,
+            @NotNull RowMapper<T> mapper,
+            @NotNull ConstantValues.DatabaseTableNames tableName
+    ) {
+        CursorSpliterator<T> cursor = new CursorSpliterator<>(
+                pools.poolFor(filePath),
+                TableStatements.selectOrdered(tableName.toString(), keyColumnName, columns),
+                mapper
+        );
+
+        return StreamSupport.stream(cursor, false).onClose(cursor::close);
+    }
+
     /**
      * Validates and, if valid, inserts data into the database file.
      *
@@ -113,29 +315,96 @@ public class SQLOperator<T, K> implements DataOperator<T, K> {
             @NotNull String filePath,
             @NotNull ConstantValues.DatabaseTableNames tableName,
             @NotNull String keyColumnName
-    ) throws SQLException, IrregularAccessException, UserAlreadyExistsException {
-        String url = "jdbc:sqlite:" + filePath;
-
-        try (Connection conn = DriverManager.getConnection(url)) {
-            validateDataAgainstTableStructure(data, conn, tableName.toString());
-
-            Field nameField = data.getClass().getDeclaredField(keyColumnName);
-            nameField.setAccessible(true);
-            K nameValue = (K) nameField.get(data);
-
-            String checkQuery = "SELECT COUNT(*) FROM " + tableName + " WHERE " + keyColumnName + " = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(checkQuery)) {
-                stmt.setString(1, nameValue.toString());
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next() && rs.getInt(1) > 0) {
-                        throw new UserAlreadyExistsException();
-                    }
+    ) throws SQLException, DuplicateKeyException {
+        try (PooledConnection pooled = pools.poolFor(filePath).borrowWrite()) {
+            validateDataAgainstTableStructure(data, pooled.connection(), filePath, tableName.toString());
+
+            // A conflict on the key column leaves the table untouched and reports zero affected rows
+            if (insertQuery(data, keyColumnName, pooled, tableName.toString()) == 0) {
+                throw new DuplicateKeyException(tableName.toString(), EntityPlan.forEntity(data).value(data, keyColumnName));
+            }
+        }
+    }
+
+    /**
+     * Inserts data whose key is assigned by the database.
+     * <p>The key is read with {@link Statement#getGeneratedKeys()}, i.e. the last rowid inserted through
+     * the connection. The writer connection is held for the whole call, so no other insert comes between.</p>
+     *
+     * @param data      object to insert, with a null key
+     * @param filePath  path to the database file
+     * @param tableName name of the table to insert data into
+     * @return key assigned to the inserted row
+     * @throws SQLException if an error occurs during the operation
+     */
+    @Override
+    @SQLPurposed
+    public long postGeneratingKey(
+            @NotNull T data,
+            @NotNull String filePath,
+            @NotNull ConstantValues.DatabaseTableNames tableName
+    ) throws SQLException {
+        try (PooledConnection pooled = pools.poolFor(filePath).borrowWrite()) {
+            validateDataAgainstTableStructure(data, pooled.connection(), filePath, tableName.toString());
+
+            EntityPlan<T> plan = EntityPlan.forEntity(data);
+            PreparedStatement stmt = pooled.prepare(plan.insertSql(tableName.toString()));
+            plan.bindInsert(stmt, data);
+            stmt.executeUpdate();
+
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("No key was generated for the row inserted into " + tableName);
                 }
+                return keys.getLong(1);
             }
+        }
+    }
 
-            insertQuery(data, conn, tableName.toString());
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            throw new RuntimeException("Failed to access " + keyColumnName + " field in data object.", e);
+    /**
+     * Inserts many objects into the database file in a single transaction.
+     * <p>Rows are sent in batches of {@link BulkImportSettings#batchSize()} statements. Each row uses
+     * {@code ON CONFLICT DO NOTHING}, so a zero update count in a batch result marks a taken key.
+     * Unless {@link BulkImportSettings#validateEachRow()} is set, only the first row is validated
+     * against the table structure.</p>
+     *
+     * @param data          objects to insert
+     * @param filePath      path to the database file
+     * @param tableName     name of the table to insert data into
+     * @param keyColumnName name of the column that is used as a key
+     * @param settings      batch size and validation mode of the import
+     * @return number of inserted objects and keys of the skipped ones
+     * @throws SQLException if an error occurs during the operation, in which case nothing is inserted
+     */
+    @Override
+    @SQLPurposed
+    public @NotNull BulkImportReport<K> postAll(
+            @NotNull Iterable<? extends T> data,
+            @NotNull String filePath,
+            @NotNull ConstantValues.DatabaseTableNames tableName,
+            @NotNull String keyColumnName,
+            @NotNull BulkImportSettings settings
+    ) throws SQLException {
+        Iterator<? extends T> rows = data.iterator();
+        if (!rows.hasNext()) {
+            return new BulkImportReport<>(0, List.of());
+        }
+
+        try (PooledConnection pooled = pools.poolFor(filePath).borrowWrite()) {
+            Connection conn = pooled.connection();
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try {
+                BulkImportReport<K> report = insertBatches(rows, filePath, tableName.toString(), keyColumnName, settings, pooled);
+                conn.commit();
+                return report;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
         }
     }
 
@@ -146,8 +415,7 @@ public class SQLOperator<T, K> implements DataOperator<T, K> {
      * @param keyColumnName name of the column that is used as a key
      * @param filePath      path to the database file
      * @param tableName     name of the table to update data in
-     * @throws SQLException             if an error occurs during the operation
-     * @throws IrregularAccessException if an error occurs during the operation
+     * @throws SQLException if an error occurs during the operation
      */
     @Override
     @SQLPurposed
@@ -157,28 +425,16 @@ public class SQLOperator<T, K> implements DataOperator<T, K> {
             @NotNull T data,
             @NotNull String filePath,
             @NotNull ConstantValues.DatabaseTableNames tableName
-    ) throws SQLException, IrregularAccessException, NoSuchUserException {
-        String url = "jdbc:sqlite:" + filePath;
-
-        try (Connection conn = DriverManager.getConnection(url)) {
-            // Проверка на существование записи
-            String checkQuery = "SELECT COUNT(*) FROM " + tableName + " WHERE " + keyColumnName + " = ?";
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkQuery)) {
-                checkStmt.setObject(1, key);
-                try (ResultSet rs = checkStmt.executeQuery()) {
-                    if (!rs.next() || rs.getInt(1) == 0) {
-                        throw new NoSuchUserException();
-                    }
-                }
-            }
+    ) throws SQLException, NoSuchRowException {
+        try (PooledConnection pooled = pools.poolFor(filePath).borrowWrite()) {
+            validateDataAgainstTableStructure(data, pooled.connection(), filePath, tableName.toString());
 
-            validateDataAgainstTableStructure(data, conn, tableName.toString());
-            updateQuery(key, keyColumnName, data, conn, tableName.toString());
+            if (updateQuery(key, keyColumnName, data, pooled, tableName.toString()) == 0) {
+                throw new NoSuchRowException(tableName.toString(), key);
+            }
         }
     }
 
-
-
     /**
      * Deletes the data from the database file.
      *
@@ -195,25 +451,13 @@ public class SQLOperator<T, K> implements DataOperator<T, K> {
             @NotNull String keyColumnName,
             @NotNull String filePath,
             @NotNull ConstantValues.DatabaseTableNames tableName
-    ) throws SQLException, IrregularAccessException, NoSuchUserException {
-        String url = "jdbc:sqlite:" + filePath;
-
-        try (Connection conn = DriverManager.getConnection(url)) {
-            // Проверка на существование записи
-            String checkQuery = "SELECT COUNT(*) FROM " + tableName + " WHERE " + keyColumnName + " = ?";
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkQuery)) {
-                checkStmt.setObject(1, key);
-                try (ResultSet rs = checkStmt.executeQuery()) {
-                    if (!rs.next() || rs.getInt(1) == 0) {
-                        throw new NoSuchUserException();
-                    }
-                }
-            }
+    ) throws SQLException, NoSuchRowException {
+        try (PooledConnection pooled = pools.poolFor(filePath).borrowWrite()) {
+            PreparedStatement stmt = pooled.prepare(TableStatements.deleteByKey(tableName.toString(), keyColumnName));
+            stmt.setObject(1, key);
 
-            String query = "DELETE FROM " + tableName + " WHERE " + keyColumnName + " = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
-                stmt.setObject(1, key);
-                stmt.executeUpdate();
+            if (stmt.executeUpdate() == 0) {
+                throw new NoSuchRowException(tableName.toString(), key);
             }
         }
     }
@@ -224,163 +468,153 @@ public class SQLOperator<T, K> implements DataOperator<T, K> {
     // =================================================================== \\
 
     /**
-     * Validates the data against the table structure.
+     * Validates the data against the cached table structure.
      *
      * @param data      object to validate
-     * @param conn      database connection
+     * @param conn      database connection, used only if the structure is not cached yet
+     * @param filePath  path to the database file
      * @param tableName name of the table to validate against
      * @throws SQLException if an error occurs during the validation process
      */
-    private static <T> void validateDataAgainstTableStructure(
+    private void validateDataAgainstTableStructure(
             @NotNull T data,
             @NotNull Connection conn,
+            @NotNull String filePath,
             @NotNull String tableName
     ) throws SQLException {
-        // Retrieve database table structure
-        DatabaseMetaData metaData = conn.getMetaData();
-        Map<String, String> tableColumns = new HashMap<>();
-
-        try (ResultSet columns = metaData.getColumns(null, null, tableName, null)) {
-            while (columns.next()) {
-                String columnName = columns.getString("COLUMN_NAME");
-                String columnType = columns.getString("TYPE_NAME");
-                tableColumns.put(columnName, columnType);
-            }
-        }
-
-        // Retrieve object's field structure
-        Field[] fields = data.getClass().getDeclaredFields();
-
-        for (Field field : fields) {
-            String fieldName = field.getName();
-            field.setAccessible(true);
-
-            if (!tableColumns.containsKey(fieldName)) {
-                throw new IllegalArgumentException("Field '" + fieldName + "' is not present in table '" + tableName + "'.");
-            }
-        }
+        schemas.ensureCompatible(filePath, tableName, EntityPlan.forEntity(data), conn);
     }
 
     /**
-     * Inserts data into the database table
+     * Sends the rows to the open transaction in batches and collects the keys of the skipped rows.
      *
-     * @param data      object to insert
-     * @param conn      database connection
-     * @param tableName name of the table to insert data into
+     * @param rows          non-empty iterator over the objects to insert
+     * @param filePath      path to the database file
+     * @param tableName     name of the table to insert data into
+     * @param keyColumnName name of the column that is used as a key
+     * @param settings      batch size and validation mode of the import
+     * @param pooled        writer connection with auto-commit disabled
+     * @return number of inserted objects and keys of the skipped ones
      * @throws SQLException if an error occurs during the insert operation
      */
-    private static <T> void insertQuery(
-            @NotNull T data,
-            @NotNull Connection conn,
-            @NotNull String tableName
+    @SuppressWarnings("unchecked")
+    private BulkImportReport<K> insertBatches(
+            @NotNull Iterator<? extends T> rows,
+            @NotNull String filePath,
+            @NotNull String tableName,
+            @NotNull String keyColumnName,
+            @NotNull BulkImportSettings settings,
+            @NotNull PooledConnection pooled
     ) throws SQLException {
-        Field[] fields = data.getClass().getDeclaredFields();
-        StringBuilder columns = new StringBuilder();
-        StringBuilder placeholders = new StringBuilder();
-
-        for (Field field : fields) {
-            columns.append(field.getName()).append(",");
-            placeholders.append("?,");
-        }
-
-        columns.setLength(columns.length() - 1);
-        placeholders.setLength(placeholders.length() - 1);
-
-        String query = "INSERT INTO " + tableName + " (" + columns + ") VALUES (" + placeholders + ")";
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            int index = 1;
-
-            for (Field field : fields) {
-                field.setAccessible(true);
-                try {
-                    Object value = field.get(data);
-
-                    // Handle Enums (e.g., UserStatus) by mapping to their toString() value
-                    if (value instanceof Enum) {
-                        value = value.toString();
-                    }
-
-                    stmt.setObject(index++, value);
-                } catch (IllegalAccessException e) {
-                    throw new RuntimeException("Failed to access field value: " + field.getName(), e);
+        Connection conn = pooled.connection();
+        T first = rows.next();
+        EntityPlan<T> plan = EntityPlan.forEntity(first);
+        validateDataAgainstTableStructure(first, conn, filePath, tableName);
+
+        long imported = 0;
+        List<K> conflicts = new ArrayList<>();
+        List<K> batchKeys = new ArrayList<>(settings.batchSize());
+
+        PreparedStatement stmt = pooled.prepare(plan.insertIfAbsentSql(tableName, keyColumnName));
+        try {
+            T row = first;
+            while (row != null) {
+                if (settings.validateEachRow() && row != first) {
+                    validateDataAgainstTableStructure(row, conn, filePath, tableName);
                 }
-            }
-
-            stmt.executeUpdate();
-        }
-    }
-
-    private void updateQuery(
-            @NotNull K key,
-            @NotNull String keyColumnName,
-            @NotNull T data,
-            @NotNull Connection conn,
-            @NotNull String tableName
-    ) throws SQLException, RuntimeException {
 
+                plan.bindInsert(stmt, row);
+                stmt.addBatch();
+                batchKeys.add((K) plan.value(row, keyColumnName));
 
-        Field[] fields = data.getClass().getDeclaredFields();
-        StringBuilder setClause = new StringBuilder();
+                if (batchKeys.size() == settings.batchSize() || !rows.hasNext()) {
+                    imported += executeBatch(stmt, batchKeys, conflicts);
+                }
 
-        for (Field field : fields) {
-            if (!field.getName().equals(keyColumnName)) {
-                setClause.append(field.getName()).append(" = ?,");
+                row = rows.hasNext() ? rows.next() : null;
             }
+        } finally {
+            // The statement is cached, so a batch aborted by an error must not reach its next user
+            stmt.clearBatch();
         }
-        setClause.setLength(setClause.length() - 1);
-
-        String query = "UPDATE " + tableName + " SET " + setClause + " WHERE " + keyColumnName + " = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            int index = 1;
 
-            // Устанавливаем параметры для полей объекта
-            for (Field field : fields) {
-                if (!field.getName().equals(keyColumnName)) {
-                    field.setAccessible(true);
-                    Object value = field.get(data);
-
-                    // Обрабатываем Enum как строковые значения
-                    if (value instanceof Enum) {
-                        value = value.toString();
-                    }
+        return new BulkImportReport<>(imported, conflicts);
+    }
 
-                    stmt.setObject(index++, value);
-                }
+    /**
+     * Executes the pending batch and records the keys of the rows that inserted nothing.
+     *
+     * @param stmt      statement with the pending batch
+     * @param batchKeys keys of the batched rows, in batch order; cleared afterwards
+     * @param conflicts list to add the keys of the skipped rows to
+     * @return number of inserted rows
+     * @throws SQLException if an error occurs during the insert operation
+     */
+    private int executeBatch(
+            @NotNull PreparedStatement stmt,
+            @NotNull List<K> batchKeys,
+            @NotNull List<K> conflicts
+    ) throws SQLException {
+        int inserted = 0;
+        int[] counts = stmt.executeBatch();
+
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                conflicts.add(batchKeys.get(i));
+            } else {
+                inserted++;
             }
-
-            // Устанавливаем значение ключа
-            stmt.setObject(index, key);
-            stmt.executeUpdate();
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException(e);
         }
-    }
 
-    // =================================================================================== \\
-    // THE CODE BELLOW IS PURPOSED FOR JSON OPERATOR AND HERE ONLY TO AN INHERITANCE NEEDS \\
-    // =================================================================================== \\
+        batchKeys.clear();
+        return inserted;
+    }
 
     /**
-     * Returns the content of a file.
+     * Inserts data into the database table unless a row with the same key already exists.
      *
-     * @param filePath path to destination file
-     * @return returns the content of a file.
-     * @throws JSONException if an error occurs during the operation
+     * @param data          object to insert
+     * @param keyColumnName name of the column that is used as a key
+     * @param pooled        borrowed database connection
+     * @param tableName     name of the table to insert data into
+     * @return number of inserted rows, 0 if the key is already taken
+     * @throws SQLException if an error occurs during the insert operation
      */
-    @Override
-    public List<T> readFile(@NotNull String filePath) throws JSONException, IrregularAccessException {
-        throw new IrregularAccessException(this.getClass().getName());
+    private static <T> int insertQuery(
+            @NotNull T data,
+            @NotNull String keyColumnName,
+            @NotNull PooledConnection pooled,
+            @NotNull String tableName
+    ) throws SQLException {
+        EntityPlan<T> plan = EntityPlan.forEntity(data);
+
+        PreparedStatement stmt = pooled.prepare(plan.insertIfAbsentSql(tableName, keyColumnName));
+        plan.bindInsert(stmt, data);
+        return stmt.executeUpdate();
     }
 
     /**
-     * Overwrites content of the provided file with new content
+     * Updates the row with the provided key using the values of the data object.
      *
-     * @param filePath path to destination file
-     * @param data     what to write in destination file
-     * @throws JSONException if an error occurs during the operation
+     * @param key           key of the row to update
+     * @param keyColumnName name of the column that is used as a key
+     * @param data          object with the new values
+     * @param pooled        borrowed database connection
+     * @param tableName     name of the table to update data in
+     * @return number of updated rows, 0 if there is no row with the key
+     * @throws SQLException if an error occurs during the update operation
      */
-    @Override
-    public void writeToFile(@NotNull String filePath, @NotNull List<T> data) throws JSONException, IrregularAccessException {
-        throw new IrregularAccessException(this.getClass().getName());
+    private int updateQuery(
+            @NotNull K key,
+            @NotNull String keyColumnName,
+            @NotNull T data,
+            @NotNull PooledConnection pooled,
+            @NotNull String tableName
+    ) throws SQLException {
+        EntityPlan<T> plan = EntityPlan.forEntity(data);
+
+        PreparedStatement stmt = pooled.prepare(plan.updateSql(tableName, keyColumnName));
+        plan.bindUpdate(stmt, data, keyColumnName, key);
+        return stmt.executeUpdate();
     }
 }
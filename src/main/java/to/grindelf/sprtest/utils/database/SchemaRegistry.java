@@ -0,0 +1,173 @@
+package to.grindelf.sprtest.utils.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of table structures per database file.
+ * <p>The structure of a table is read from {@link DatabaseMetaData} once and reused by every
+ * subsequent write. It is reloaded only after {@link #invalidate(String)} or when
+ * {@link #refreshIfChanged(String, Connection)} notices a new {@code PRAGMA schema_version}.</p>
+ */
+public class SchemaRegistry {
+
+    private static final SchemaRegistry SHARED = new SchemaRegistry();
+
+    private record ValidationKey(String filePath, String tableName, Class<?> type) {
+    }
+
+    private final Map<String, Map<String, TableSchema>> schemas = new ConcurrentHashMap<>();
+    private final Set<ValidationKey> validated = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Returns the process-wide registry used by operators that are not given one explicitly.
+     *
+     * @return shared registry
+     */
+    public static @NotNull SchemaRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the cached structure of the table, reading it through the connection on first use.
+     *
+     * @param filePath  path to the database file
+     * @param tableName name of the table
+     * @param conn      connection to the database file, used only if the structure is not cached yet
+     * @return structure of the table
+     * @throws SQLException if the structure cannot be read
+     */
+    public @NotNull TableSchema schema(
+            @NotNull String filePath,
+            @NotNull String tableName,
+            @NotNull Connection conn
+    ) throws SQLException {
+        Map<String, TableSchema> tables = schemas.computeIfAbsent(normalize(filePath), path -> new ConcurrentHashMap<>());
+
+        TableSchema schema = tables.get(tableName);
+        if (schema == null) {
+            schema = load(tableName, conn);
+            TableSchema existing = tables.putIfAbsent(tableName, schema);
+            if (existing != null) {
+                schema = existing;
+            }
+        }
+
+        return schema;
+    }
+
+    /**
+     * Checks once per entity class and table that every field of the entity has a column.
+     *
+     * @param filePath  path to the database file
+     * @param tableName name of the table
+     * @param plan      plan of the entity class
+     * @param conn      connection to the database file, used only if the structure is not cached yet
+     * @throws SQLException             if the structure cannot be read
+     * @throws IllegalArgumentException if a field of the entity has no matching column
+     */
+    public void ensureCompatible(
+            @NotNull String filePath,
+            @NotNull String tableName,
+            @NotNull EntityPlan<?> plan,
+            @NotNull Connection conn
+    ) throws SQLException {
+        ValidationKey key = new ValidationKey(normalize(filePath), tableName, plan.getType());
+        if (validated.contains(key)) {
+            return;
+        }
+
+        validate(plan, schema(filePath, tableName, conn));
+        validated.add(key);
+    }
+
+    /**
+     * Validates the entity class against the table structure.
+     *
+     * @param plan   plan of the entity class
+     * @param schema structure of the table
+     * @throws IllegalArgumentException if a field of the entity has no matching column
+     */
+    public static void validate(@NotNull EntityPlan<?> plan, @NotNull TableSchema schema) {
+        if (schema.columns().isEmpty()) {
+            throw new IllegalArgumentException("Table '" + schema.tableName() + "' does not exist.");
+        }
+
+        for (String fieldName : plan.columns()) {
+            if (!schema.hasColumn(fieldName)) {
+                throw new IllegalArgumentException(
+                        "Field '" + fieldName + "' is not present in table '" + schema.tableName() + "'."
+                );
+            }
+        }
+    }
+
+    /**
+     * Drops every cached structure of the database file, e.g. after a migration.
+     *
+     * @param filePath path to the database file
+     */
+    public void invalidate(@NotNull String filePath) {
+        String path = normalize(filePath);
+        schemas.remove(path);
+        validated.removeIf(key -> key.filePath().equals(path));
+    }
+
+    /**
+     * Compares the cached schema version of the database file with the current one
+     * and drops the cached structures if the schema has changed.
+     *
+     * @param filePath path to the database file
+     * @param conn     connection to the database file
+     * @return true if the cache was dropped
+     * @throws SQLException if the schema version cannot be read
+     */
+    public boolean refreshIfChanged(@NotNull String filePath, @NotNull Connection conn) throws SQLException {
+        Map<String, TableSchema> tables = schemas.get(normalize(filePath));
+        if (tables == null || tables.isEmpty()) {
+            return false;
+        }
+
+        int currentVersion = schemaVersion(conn);
+        boolean changed = tables.values().stream().anyMatch(schema -> schema.schemaVersion() != currentVersion);
+        if (changed) {
+            invalidate(filePath);
+        }
+
+        return changed;
+    }
+
+    private static @NotNull TableSchema load(@NotNull String tableName, @NotNull Connection conn) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        Map<String, String> columns = new HashMap<>();
+
+        try (ResultSet rs = metaData.getColumns(null, null, tableName, null)) {
+            while (rs.next()) {
+                columns.put(rs.getString("COLUMN_NAME"), rs.getString("TYPE_NAME"));
+            }
+        }
+
+        return new TableSchema(tableName, columns, schemaVersion(conn));
+    }
+
+    private static int schemaVersion(@NotNull Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static @NotNull String normalize(@NotNull String filePath) {
+        return Path.of(filePath).toAbsolutePath().normalize().toString();
+    }
+}
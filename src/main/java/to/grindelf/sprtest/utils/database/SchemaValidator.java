@@ -0,0 +1,29 @@
+package to.grindelf.sprtest.utils.database;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import to.grindelf.sprtest.domain.User;
+
+import java.sql.SQLException;
+
+import static to.grindelf.sprtest.utils.ConstantValues.DatabaseTableNames;
+import static to.grindelf.sprtest.utils.ConstantValues.USER_DB_FILE_PATH;
+
+/**
+ * Validates entity classes against the database tables once at startup.
+ * <p>The table structures end up cached in the {@link SchemaRegistry}, so the first writes
+ * after startup do not have to read the database metadata.</p>
+ */
+public class SchemaValidator implements ApplicationRunner {
+
+    private final SQLOperator<User, String> operator;
+
+    public SchemaValidator(SQLOperator<User, String> operator) {
+        this.operator = operator;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        operator.validateEntity(User.class, USER_DB_FILE_PATH, DatabaseTableNames.USERS_TABLE);
+    }
+}
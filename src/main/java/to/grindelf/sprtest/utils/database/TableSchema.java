@@ -0,0 +1,27 @@
+package to.grindelf.sprtest.utils.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Cached structure of a database table.
+ *
+ * @param tableName     name of the table
+ * @param columns       column names mapped to their declared SQL types
+ * @param schemaVersion value of {@code PRAGMA schema_version} the structure was read at
+ */
+public record TableSchema(
+        @NotNull String tableName,
+        @NotNull Map<String, String> columns,
+        int schemaVersion
+) {
+
+    public TableSchema {
+        columns = Map.copyOf(columns);
+    }
+
+    public boolean hasColumn(@NotNull String columnName) {
+        return columns.containsKey(columnName);
+    }
+}
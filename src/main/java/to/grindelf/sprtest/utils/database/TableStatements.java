@@ -0,0 +1,72 @@
+package to.grindelf.sprtest.utils.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL text of the statements that do not depend on an entity class, generated once per
+ * table and key column. Reusing the same string instances keeps the per-connection
+ * statement caches keyed by identical text.
+ */
+final class TableStatements {
+
+    private record StatementKey(String kind, String tableName, String keyColumnName, List<String> columns) {
+    }
+
+    private static final Map<StatementKey, String> STATEMENTS = new ConcurrentHashMap<>();
+
+    private TableStatements() {
+    }
+
+    static @NotNull String selectByKey(
+            @NotNull String tableName,
+            @NotNull String keyColumnName,
+            @NotNull List<String> columns
+    ) {
+        return STATEMENTS.computeIfAbsent(new StatementKey("select", tableName, keyColumnName, List.copyOf(columns)), key ->
+                "SELECT " + String.join(",", columns) + " FROM " + tableName + " WHERE " + keyColumnName + " = ?"
+        );
+    }
+
+    static @NotNull String selectAll(@NotNull String tableName, @NotNull List<String> columns) {
+        return STATEMENTS.computeIfAbsent(new StatementKey("selectAll", tableName, "", List.copyOf(columns)), key ->
+                "SELECT " + String.join(",", columns) + " FROM " + tableName
+        );
+    }
+
+    /**
+     * Returns the query of a keyset page: the first page if {@code first} is set,
+     * otherwise the page after the key bound to the first parameter. The limit is the last parameter.
+     */
+    static @NotNull String selectPage(
+            @NotNull String tableName,
+            @NotNull String keyColumnName,
+            @NotNull List<String> columns,
+            boolean first
+    ) {
+        return STATEMENTS.computeIfAbsent(new StatementKey(first ? "firstPage" : "page", tableName, keyColumnName, List.copyOf(columns)), key ->
+                "SELECT " + String.join(",", columns) + " FROM " + tableName
+                        + (first ? "" : " WHERE " + keyColumnName + " > ?")
+                        + " ORDER BY " + keyColumnName + " LIMIT ?"
+        );
+    }
+
+    static @NotNull String selectOrdered(
+            @NotNull String tableName,
+            @NotNull String keyColumnName,
+            @NotNull List<String> columns
+    ) {
+        return STATEMENTS.computeIfAbsent(new StatementKey("selectOrdered", tableName, keyColumnName, List.copyOf(columns)), key ->
+                "SELECT " + String.join(",", columns) + " FROM " + tableName + " ORDER BY " + keyColumnName
+        );
+    }
+
+    static @NotNull String deleteByKey(@NotNull String tableName, @NotNull String keyColumnName) {
+        return STATEMENTS.computeIfAbsent(new StatementKey("delete", tableName, keyColumnName, List.of()), key ->
+                "DELETE FROM " + tableName + " WHERE " + keyColumnName + " = ?"
+        );
+    }
+}
@@ -0,0 +1,78 @@
+package to.grindelf.sprtest.utils.database.pool;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of {@link SQLiteConnectionPool}s keyed by database file path.
+ * <p>Every path gets exactly one pool, so all operators working on the same file share
+ * its connections and its single writer. Idle connections are evicted in the background.</p>
+ */
+public class ConnectionPoolRegistry implements AutoCloseable {
+
+    private static final ConnectionPoolRegistry SHARED = new ConnectionPoolRegistry(PoolSettings.DEFAULT);
+
+    private final PoolSettings settings;
+    private final Map<String, SQLiteConnectionPool> pools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor;
+
+    public ConnectionPoolRegistry(@NotNull PoolSettings settings) {
+        this.settings = settings;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sqlite-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long period = Math.max(1, settings.maxIdle().toMillis() / 2);
+        this.evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the process-wide registry used by operators that are not given one explicitly.
+     *
+     * @return shared registry
+     */
+    public static @NotNull ConnectionPoolRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the pool for the database file, creating it on first use.
+     *
+     * @param filePath path to the database file
+     * @return pool for that file
+     */
+    public @NotNull SQLiteConnectionPool poolFor(@NotNull String filePath) {
+        String key = Path.of(filePath).toAbsolutePath().normalize().toString();
+        return pools.computeIfAbsent(key, path -> new SQLiteConnectionPool(filePath, settings));
+    }
+
+    /**
+     * Returns the metrics of every pool, keyed by normalized database file path.
+     *
+     * @return metrics per database file
+     */
+    public @NotNull Map<String, PoolMetrics> metrics() {
+        Map<String, PoolMetrics> result = new ConcurrentHashMap<>();
+        pools.forEach((path, pool) -> result.put(path, pool.metrics()));
+        return result;
+    }
+
+    private void evictIdle() {
+        pools.values().forEach(SQLiteConnectionPool::evictIdle);
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        pools.values().forEach(SQLiteConnectionPool::close);
+        pools.clear();
+    }
+}
@@ -0,0 +1,49 @@
+package to.grindelf.sprtest.utils.database.pool;
+
+/**
+ * Point-in-time snapshot of the {@link SQLiteConnectionPool} counters.
+ *
+ * @param idleReaders         read-only connections currently waiting in the pool
+ * @param activeReaders       read-only connections currently borrowed
+ * @param writerActive        whether the writer connection is currently borrowed
+ * @param readerBorrows       total number of read borrows
+ * @param writerBorrows       total number of write borrows
+ * @param readerAcquireNanos  total time spent waiting for and opening read-only connections, in nanoseconds
+ * @param writerAcquireNanos  total time spent waiting for and opening the writer connection, in nanoseconds
+ * @param connectionsOpened   total number of physical connections opened
+ * @param connectionsClosed   total number of physical connections closed
+ * @param evictions           connections closed because they stayed idle for too long
+ * @param healthCheckFailures connections discarded because they failed validation
+ * @param acquireTimeouts     borrows that gave up waiting for a free connection
+ * @param statementCacheHits      statements served from the per-connection statement caches
+ * @param statementCacheMisses    statements that had to be prepared
+ * @param statementCacheEvictions statements closed to make room in a full statement cache
+ */
+public record PoolMetrics(
+        int idleReaders,
+        int activeReaders,
+        boolean writerActive,
+        long readerBorrows,
+        long writerBorrows,
+        long readerAcquireNanos,
+        long writerAcquireNanos,
+        long connectionsOpened,
+        long connectionsClosed,
+        long evictions,
+        long healthCheckFailures,
+        long acquireTimeouts,
+        long statementCacheHits,
+        long statementCacheMisses,
+        long statementCacheEvictions
+) {
+
+    /**
+     * Returns the share of statements served from the statement caches.
+     *
+     * @return hit ratio between 0 and 1, or 0 if no statement was requested yet
+     */
+    public double statementCacheHitRatio() {
+        long requests = statementCacheHits + statementCacheMisses;
+        return requests == 0 ? 0 : (double) statementCacheHits / requests;
+    }
+}
@@ -0,0 +1,71 @@
+package to.grindelf.sprtest.utils.database.pool;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * Settings of a {@link SQLiteConnectionPool}.
+ *
+ * @param maxReaders         maximum number of read-only connections kept by the pool
+ * @param acquireTimeout     how long a caller waits for a free connection before giving up
+ * @param maxIdle            idle time after which a connection is closed and evicted from the pool
+ * @param validationInterval idle time after which a connection is health-checked before being handed out
+ * @param maxPendingWrites   maximum number of threads holding or waiting for the writer connection;
+ *                           further writers are rejected instead of queueing on the database lock
+ * @param profile            pragmas applied to every connection of the pool
+ * @param statementCacheSize maximum number of prepared statements cached per connection
+ */
+public record PoolSettings(
+        int maxReaders,
+        @NotNull Duration acquireTimeout,
+        @NotNull Duration maxIdle,
+        @NotNull Duration validationInterval,
+        int maxPendingWrites,
+        @NotNull SQLiteProfile profile,
+        int statementCacheSize
+) {
+
+    /**
+     * Default settings: four readers, one writer, five minutes of idle time, driver default pragmas.
+     */
+    public static final PoolSettings DEFAULT = new PoolSettings(
+            4,
+            Duration.ofSeconds(5),
+            Duration.ofMinutes(5),
+            Duration.ofSeconds(30),
+            64,
+            SQLiteProfile.DEFAULT,
+            32
+    );
+
+    public PoolSettings {
+        if (maxReaders < 1) {
+            throw new IllegalArgumentException("Pool must allow at least one reader connection.");
+        }
+        if (maxPendingWrites < 1) {
+            throw new IllegalArgumentException("Pool must allow at least one pending write.");
+        }
+        if (statementCacheSize < 1) {
+            throw new IllegalArgumentException("Statement cache must hold at least one statement.");
+        }
+    }
+
+    /**
+     * Returns a copy of these settings with another profile.
+     *
+     * @param profile pragmas applied to every connection of the pool
+     * @return settings with the profile
+     */
+    public @NotNull PoolSettings withProfile(@NotNull SQLiteProfile profile) {
+        return new PoolSettings(
+                maxReaders,
+                acquireTimeout,
+                maxIdle,
+                validationInterval,
+                maxPendingWrites,
+                profile,
+                statementCacheSize
+        );
+    }
+}
@@ -0,0 +1,141 @@
+package to.grindelf.sprtest.utils.database.pool;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Connection borrowed from a {@link SQLiteConnectionPool}.
+ * <p>Closing it returns the underlying connection to the pool instead of closing it.</p>
+ * <p>Each connection keeps its prepared statements in an LRU cache keyed by SQL text, so that
+ * repeated statements are parsed and planned by SQLite only once per connection. The cache is not
+ * synchronized: a connection is only ever used by the thread that borrowed it.</p>
+ */
+public final class PooledConnection implements AutoCloseable {
+
+    /**
+     * Kind of access the connection was opened for.
+     */
+    public enum Mode {
+        READ,
+        WRITE
+    }
+
+    private final Connection connection;
+    private final Mode mode;
+    private final SQLiteConnectionPool pool;
+    private final Map<String, PreparedStatement> statements;
+    private long lastUsedNanos;
+    private int holds;
+
+    PooledConnection(
+            @NotNull Connection connection,
+            @NotNull Mode mode,
+            @NotNull SQLiteConnectionPool pool,
+            int statementCacheSize
+    ) {
+        this.connection = connection;
+        this.mode = mode;
+        this.pool = pool;
+        this.lastUsedNanos = System.nanoTime();
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= statementCacheSize) {
+                    return false;
+                }
+                closeQuietly(eldest.getValue());
+                pool.recordStatementEviction();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the physical connection. It must not be closed by the caller.
+     *
+     * @return the underlying JDBC connection
+     */
+    public @NotNull Connection connection() {
+        return connection;
+    }
+
+    /**
+     * Returns the cached prepared statement for the SQL text, preparing it on first use.
+     * <p>The statement stays owned by the connection: callers close the result sets they open,
+     * but never the statement itself. Parameters and batches left over from a previous use
+     * are overwritten by the next binding.</p>
+     *
+     * @param sql SQL text of the statement
+     * @return prepared statement bound to this connection
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public @NotNull PreparedStatement prepare(@NotNull String sql) throws SQLException {
+        PreparedStatement stmt = statements.get(sql);
+
+        if (stmt != null && !stmt.isClosed()) {
+            pool.recordStatementHit();
+            return stmt;
+        }
+
+        pool.recordStatementMiss();
+        stmt = connection.prepareStatement(sql);
+        statements.put(sql, stmt);
+        return stmt;
+    }
+
+    public @NotNull Mode mode() {
+        return mode;
+    }
+
+    long lastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    /**
+     * @return whether the connection is borrowed, possibly several times by the same thread
+     */
+    boolean isBorrowed() {
+        return holds > 0;
+    }
+
+    void markBorrowed() {
+        this.holds++;
+        this.lastUsedNanos = System.nanoTime();
+    }
+
+    /**
+     * Closes every cached statement. Called before the physical connection is closed.
+     */
+    void discardStatements() {
+        for (PreparedStatement stmt : statements.values()) {
+            closeQuietly(stmt);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(@NotNull PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException ignored) {
+            // The statement is being discarded anyway.
+        }
+    }
+
+    /**
+     * Gives the connection back to its pool.
+     */
+    @Override
+    public void close() {
+        if (holds == 0) {
+            return;
+        }
+        holds--;
+        lastUsedNanos = System.nanoTime();
+        pool.release(this);
+    }
+}
@@ -0,0 +1,358 @@
+package to.grindelf.sprtest.utils.database.pool;
+
+import org.jetbrains.annotations.NotNull;
+import org.sqlite.SQLiteConfig;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool of long-lived connections to a single SQLite database file.
+ * <p>SQLite allows many concurrent readers but only one writer per file, so the pool keeps
+ * up to {@link PoolSettings#maxReaders()} read-only connections and exactly one writer connection
+ * guarded by a lock. Borrowed connections are returned by closing the {@link PooledConnection}.</p>
+ * <p>Writers are admitted through a bounded semaphore before they queue on the writer lock, so
+ * a burst of (possibly virtual) threads cannot pile up behind the database lock without limit.
+ * Only {@link java.util.concurrent.locks.Lock}s are used, which do not pin virtual threads.</p>
+ * <p>Every connection is opened with the pragmas of the {@link SQLiteProfile} in the settings.</p>
+ */
+public class SQLiteConnectionPool implements AutoCloseable {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final String filePath;
+    private final String url;
+    private final PoolSettings settings;
+
+    private final Semaphore readPermits;
+    private final Semaphore writePermits;
+    private final Deque<PooledConnection> idleReaders = new ConcurrentLinkedDeque<>();
+    private final ReentrantLock writeLock = new ReentrantLock(true);
+    private PooledConnection writer;
+
+    private final LongAdder readerBorrows = new LongAdder();
+    private final LongAdder writerBorrows = new LongAdder();
+    private final LongAdder readerAcquireNanos = new LongAdder();
+    private final LongAdder writerAcquireNanos = new LongAdder();
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder connectionsClosed = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder healthCheckFailures = new LongAdder();
+    private final LongAdder acquireTimeouts = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+
+    private volatile boolean journalModeApplied;
+    private volatile boolean closed;
+
+    public SQLiteConnectionPool(@NotNull String filePath, @NotNull PoolSettings settings) {
+        this.filePath = filePath;
+        this.url = "jdbc:sqlite:" + filePath;
+        this.settings = settings;
+        this.readPermits = new Semaphore(settings.maxReaders(), true);
+        this.writePermits = new Semaphore(settings.maxPendingWrites(), true);
+    }
+
+    public @NotNull String getFilePath() {
+        return filePath;
+    }
+
+    // ======================================================== \\
+    //                   BORROWING CONNECTIONS                  \\
+    // ======================================================== \\
+
+    /**
+     * Borrows a read-only connection. Several readers may be borrowed at once.
+     *
+     * @return pooled read-only connection
+     * @throws SQLException if the pool is closed, exhausted for too long, or the connection cannot be opened
+     */
+    public @NotNull PooledConnection borrowRead() throws SQLException {
+        ensureOpen();
+        ensureJournalMode();
+        long started = System.nanoTime();
+        acquire(readPermits, "a reader connection");
+
+        try {
+            PooledConnection connection;
+            while ((connection = idleReaders.pollFirst()) != null) {
+                if (isReusable(connection)) {
+                    break;
+                }
+            }
+
+            if (connection == null) {
+                connection = open(PooledConnection.Mode.READ);
+            }
+
+            connection.markBorrowed();
+            readerBorrows.increment();
+            readerAcquireNanos.add(System.nanoTime() - started);
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            readPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Borrows the single writer connection, blocking other writers until it is returned.
+     * <p>The lock is reentrant, so a thread already holding the writer may borrow it again.</p>
+     *
+     * @return pooled writer connection
+     * @throws SQLException if the pool is closed, the writer is busy for too long, or the connection cannot be opened
+     */
+    public @NotNull PooledConnection borrowWrite() throws SQLException {
+        ensureOpen();
+
+        long started = System.nanoTime();
+        boolean reentrant = writeLock.isHeldByCurrentThread();
+        if (!reentrant) {
+            acquire(writePermits, "a pending write slot");
+        }
+
+        try {
+            if (!writeLock.tryLock(settings.acquireTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                acquireTimeouts.increment();
+                if (!reentrant) {
+                    writePermits.release();
+                }
+                throw new SQLException("Timed out waiting for the writer connection of " + filePath);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!reentrant) {
+                writePermits.release();
+            }
+            throw new SQLException("Interrupted while waiting for the writer connection of " + filePath, e);
+        }
+
+        try {
+            // A writer borrowed by this thread already is in use, whatever its age: never replace it
+            if (writer == null || !writer.isBorrowed() && !isReusable(writer)) {
+                writer = open(PooledConnection.Mode.WRITE);
+            }
+
+            writer.markBorrowed();
+            writerBorrows.increment();
+            writerAcquireNanos.add(System.nanoTime() - started);
+            return writer;
+        } catch (SQLException | RuntimeException e) {
+            releaseWriter();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool. Called by {@link PooledConnection#close()}.
+     */
+    void release(@NotNull PooledConnection connection) {
+        if (connection.mode() == PooledConnection.Mode.WRITE) {
+            releaseWriter();
+            return;
+        }
+
+        if (closed) {
+            closeQuietly(connection);
+        } else {
+            idleReaders.offerFirst(connection);
+        }
+        readPermits.release();
+    }
+
+    // ======================================================== \\
+    //                       MAINTENANCE                        \\
+    // ======================================================== \\
+
+    /**
+     * Closes reader connections that stayed idle longer than {@link PoolSettings#maxIdle()}.
+     * The writer connection is evicted as well if it is idle and not borrowed, also not by the calling thread.
+     */
+    public void evictIdle() {
+        long maxIdleNanos = settings.maxIdle().toNanos();
+        long now = System.nanoTime();
+
+        for (PooledConnection connection : idleReaders) {
+            if (now - connection.lastUsedNanos() > maxIdleNanos && idleReaders.remove(connection)) {
+                evictions.increment();
+                closeQuietly(connection);
+            }
+        }
+
+        if (writeLock.tryLock()) {
+            try {
+                if (writer != null && !writer.isBorrowed() && now - writer.lastUsedNanos() > maxIdleNanos) {
+                    evictions.increment();
+                    closeQuietly(writer);
+                    writer = null;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the pool counters.
+     *
+     * @return pool metrics
+     */
+    public @NotNull PoolMetrics metrics() {
+        return new PoolMetrics(
+                idleReaders.size(),
+                settings.maxReaders() - readPermits.availablePermits(),
+                writeLock.isLocked(),
+                readerBorrows.sum(),
+                writerBorrows.sum(),
+                readerAcquireNanos.sum(),
+                writerAcquireNanos.sum(),
+                connectionsOpened.sum(),
+                connectionsClosed.sum(),
+                evictions.sum(),
+                healthCheckFailures.sum(),
+                acquireTimeouts.sum(),
+                statementHits.sum(),
+                statementMisses.sum(),
+                statementEvictions.sum()
+        );
+    }
+
+    /**
+     * Closes every idle connection and refuses further borrows.
+     * Connections still borrowed are closed as soon as they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+
+        PooledConnection connection;
+        while ((connection = idleReaders.pollFirst()) != null) {
+            closeQuietly(connection);
+        }
+
+        writeLock.lock();
+        try {
+            if (writer != null) {
+                closeQuietly(writer);
+                writer = null;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void recordStatementHit() {
+        statementHits.increment();
+    }
+
+    void recordStatementMiss() {
+        statementMisses.increment();
+    }
+
+    void recordStatementEviction() {
+        statementEvictions.increment();
+    }
+
+    // ======================================================== \\
+    //                         HELPERS                          \\
+    // ======================================================== \\
+
+    private void acquire(@NotNull Semaphore permits, @NotNull String what) throws SQLException {
+        try {
+            if (!permits.tryAcquire(settings.acquireTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                acquireTimeouts.increment();
+                throw new SQLException("Timed out waiting for " + what + " of " + filePath);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for " + what + " of " + filePath, e);
+        }
+    }
+
+    private void releaseWriter() {
+        boolean outermost = writeLock.getHoldCount() == 1;
+        writeLock.unlock();
+        if (outermost) {
+            writePermits.release();
+        }
+    }
+
+    /**
+     * Checks whether an idle connection may be handed out again, closing it if not.
+     */
+    private boolean isReusable(@NotNull PooledConnection connection) {
+        long idleNanos = System.nanoTime() - connection.lastUsedNanos();
+
+        if (idleNanos > settings.maxIdle().toNanos()) {
+            evictions.increment();
+            closeQuietly(connection);
+            return false;
+        }
+
+        if (idleNanos > settings.validationInterval().toNanos()) {
+            try {
+                if (!connection.connection().isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    healthCheckFailures.increment();
+                    closeQuietly(connection);
+                    return false;
+                }
+            } catch (SQLException e) {
+                healthCheckFailures.increment();
+                closeQuietly(connection);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private @NotNull PooledConnection open(@NotNull PooledConnection.Mode mode) throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(mode == PooledConnection.Mode.READ);
+        settings.profile().applyTo(config, mode == PooledConnection.Mode.WRITE);
+
+        Connection connection = DriverManager.getConnection(url, config.toProperties());
+        connectionsOpened.increment();
+
+        return new PooledConnection(connection, mode, this, settings.statementCacheSize());
+    }
+
+    /**
+     * Opens the writer once before the first reader, so that the journal mode of the profile
+     * is in place before read-only connections, which cannot switch it, attach to the file.
+     */
+    private void ensureJournalMode() throws SQLException {
+        if (journalModeApplied || !settings.profile().setsJournalMode()) {
+            return;
+        }
+
+        try (PooledConnection ignored = borrowWrite()) {
+            journalModeApplied = true;
+        }
+    }
+
+    private void closeQuietly(@NotNull PooledConnection connection) {
+        try {
+            connection.discardStatements();
+            connection.connection().close();
+        } catch (SQLException ignored) {
+            // The connection is being discarded anyway.
+        } finally {
+            connectionsClosed.increment();
+        }
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool for " + filePath + " is closed.");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package to.grindelf.sprtest.utils.database.pool;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.Pragma;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+import org.sqlite.SQLiteConfig.TempStore;
+
+/**
+ * Pragmas applied to every connection of a {@link SQLiteConnectionPool}.
+ * <p>The WAL profiles let readers proceed while the writer commits and cost a single fsync per
+ * checkpoint instead of one per transaction with {@code synchronous=NORMAL}. WAL is a persistent
+ * property of the database file and creates {@code -wal}/{@code -shm} files next to it, so the
+ * driver defaults stay the default profile.</p>
+ */
+public enum SQLiteProfile {
+
+    /**
+     * Driver defaults: rollback journal and {@code synchronous=FULL}. Nothing is changed in the file.
+     */
+    DEFAULT(null, null, -1, 0, -1, null),
+
+    /**
+     * WAL journal with a fsync on every commit. No committed transaction is lost on power failure.
+     */
+    DURABLE(JournalMode.WAL, SynchronousMode.FULL, 64L << 20, 8 << 10, 5_000, TempStore.MEMORY),
+
+    /**
+     * WAL journal synced at checkpoints only. A power failure may roll back the last commits,
+     * but never corrupts the database.
+     */
+    BALANCED(JournalMode.WAL, SynchronousMode.NORMAL, 256L << 20, 16 << 10, 5_000, TempStore.MEMORY),
+
+    /**
+     * WAL journal without any fsync. Only for data that can be rebuilt, such as benchmarks.
+     */
+    UNSAFE(JournalMode.WAL, SynchronousMode.OFF, 256L << 20, 16 << 10, 5_000, TempStore.MEMORY);
+
+    private final JournalMode journalMode;
+    private final SynchronousMode synchronous;
+    private final long mmapSizeBytes;
+    private final int cacheSizeKib;
+    private final int busyTimeoutMillis;
+    private final TempStore tempStore;
+
+    SQLiteProfile(
+            @Nullable JournalMode journalMode,
+            @Nullable SynchronousMode synchronous,
+            long mmapSizeBytes,
+            int cacheSizeKib,
+            int busyTimeoutMillis,
+            @Nullable TempStore tempStore
+    ) {
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.cacheSizeKib = cacheSizeKib;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+        this.tempStore = tempStore;
+    }
+
+    /**
+     * Whether the profile switches the journal mode of the database file.
+     * The switch needs a writable connection, so it is done by the writer connection.
+     *
+     * @return true if the profile sets a journal mode
+     */
+    public boolean setsJournalMode() {
+        return journalMode != null;
+    }
+
+    /**
+     * Adds the pragmas of the profile to the configuration of a new connection.
+     *
+     * @param config configuration of the connection to open
+     * @param writer whether the connection is the writer connection
+     */
+    void applyTo(@NotNull SQLiteConfig config, boolean writer) {
+        if (journalMode != null && writer) {
+            config.setJournalMode(journalMode);
+        }
+        if (synchronous != null) {
+            config.setSynchronous(synchronous);
+        }
+        if (mmapSizeBytes >= 0) {
+            config.setPragma(Pragma.MMAP_SIZE, Long.toString(mmapSizeBytes));
+        }
+        if (cacheSizeKib > 0) {
+            // A negative cache_size is a size in KiB rather than a number of pages
+            config.setCacheSize(-cacheSizeKib);
+        }
+        if (busyTimeoutMillis >= 0) {
+            config.setBusyTimeout(busyTimeoutMillis);
+        }
+        if (tempStore != null) {
+            config.setTempStore(tempStore);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package to.grindelf.sprtest.utils.json;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive right to replace a JSON file, held from opening a writer until it is closed.
+ * <p>Threads of this process queue on an in-process lock per file, so only one of them at a time
+ * touches the file system lock. That one then takes an exclusive lock on a {@code <file>.lock}
+ * sidecar, which keeps writers in other processes out. The sidecar is locked rather than the file
+ * itself because the file is replaced, not rewritten, and a lock on it would stay with the old copy.</p>
+ * <p>Readers take no lock: they keep reading the copy they opened while a writer replaces it.</p>
+ */
+final class JsonFileLock implements AutoCloseable {
+
+    private static final Map<Path, ReentrantLock> IN_PROCESS = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock;
+    private final FileChannel channel;
+    private final FileLock fileLock;
+
+    private JsonFileLock(@NotNull ReentrantLock lock, @NotNull FileChannel channel, @NotNull FileLock fileLock) {
+        this.lock = lock;
+        this.channel = channel;
+        this.fileLock = fileLock;
+    }
+
+    /**
+     * Blocks until no other thread or process writes the file and locks it.
+     *
+     * @param file file to be replaced, as an absolute normalized path
+     * @return lock to close once the file is replaced
+     * @throws IOException           if the sidecar cannot be opened or locked
+     * @throws IllegalStateException if the current thread is writing the file already
+     */
+    static @NotNull JsonFileLock acquire(@NotNull Path file) throws IOException {
+        ReentrantLock lock = IN_PROCESS.computeIfAbsent(file, path -> new ReentrantLock());
+        if (lock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("File " + file + " is being written by this thread already.");
+        }
+
+        lock.lock();
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(
+                    file.resolveSibling(file.getFileName() + ".lock"),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE
+            );
+            return new JsonFileLock(lock, channel, channel.lock());
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            lock.unlock();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            fileLock.release();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
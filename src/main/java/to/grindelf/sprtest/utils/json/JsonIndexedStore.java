@@ -0,0 +1,472 @@
+package to.grindelf.sprtest.utils.json;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import to.grindelf.sprtest.annonations.JSONPurposed;
+import to.grindelf.sprtest.exceptions.JSONException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * JSON-backed store that keeps every object in memory, indexed by key.
+ * <p>The JSON file is read once, on first access. Reads are then served from a hash index.
+ * Mutations are appended to a change log next to the snapshot ({@code <file>.log}, one JSON
+ * object per line) instead of rewriting the whole file, and the log is folded back into the
+ * snapshot once it reaches the compaction threshold.</p>
+ * <p>Next to the hash index, the objects are kept in a skip list ordered by key, which serves
+ * pages and ordered streams without sorting or copying the whole content. Keys must therefore
+ * be {@link Comparable}.</p>
+ *
+ * @param <T> type of the stored objects
+ * @param <K> type of the key
+ */
+@JSONPurposed
+public class JsonIndexedStore<T, K> implements AutoCloseable {
+
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+
+    private static final String OPERATION_FIELD = "op";
+    private static final String VALUE_FIELD = "value";
+    private static final String PUT_OPERATION = "put";
+    private static final String DELETE_OPERATION = "delete";
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    private final JsonOperator<T, K> operator;
+    private final ObjectMapper objectMapper;
+    private final JavaType elementType;
+    private final Path snapshotPath;
+    private final Path logPath;
+    private final Function<T, K> keyExtractor;
+    private final int compactionThreshold;
+
+    private final Map<K, T> index = new ConcurrentHashMap<>();
+    private final NavigableMap<K, T> sorted = new ConcurrentSkipListMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean loaded;
+    private BufferedWriter logWriter;
+    private int logEntries;
+
+    public JsonIndexedStore(
+            @NotNull JsonOperator<T, K> operator,
+            @NotNull String filePath,
+            @NotNull Function<T, K> keyExtractor
+    ) {
+        this(operator, filePath, keyExtractor, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public JsonIndexedStore(
+            @NotNull JsonOperator<T, K> operator,
+            @NotNull String filePath,
+            @NotNull Function<T, K> keyExtractor,
+            int compactionThreshold
+    ) {
+        this.operator = operator;
+        this.objectMapper = operator.getObjectMapper();
+        this.elementType = operator.getElementType();
+        this.snapshotPath = Path.of(filePath);
+        this.logPath = Path.of(filePath + ".log");
+        this.keyExtractor = keyExtractor;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    // ======================================================== \\
+    //                          READS                           \\
+    // ======================================================== \\
+
+    /**
+     * Returns the object with the key.
+     *
+     * @param key key to look up
+     * @return the object, or null if there is none
+     */
+    public @Nullable T get(@NotNull K key) throws JSONException {
+        ensureLoaded();
+        return index.get(key);
+    }
+
+    public boolean contains(@NotNull K key) throws JSONException {
+        ensureLoaded();
+        return index.containsKey(key);
+    }
+
+    /**
+     * Returns a copy of every stored object.
+     *
+     * @return list of all objects
+     */
+    public @NotNull List<T> values() throws JSONException {
+        ensureLoaded();
+        return new ArrayList<>(index.values());
+    }
+
+    /**
+     * Returns one page of objects ordered by key.
+     *
+     * @param afterKey key after which the page starts, or null for the first page
+     * @param limit    maximum number of objects on the page
+     * @return objects of the page, in key order
+     */
+    public @NotNull List<T> page(@Nullable K afterKey, int limit) throws JSONException {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be positive.");
+        }
+
+        ensureLoaded();
+        NavigableMap<K, T> tail = afterKey == null ? sorted : sorted.tailMap(afterKey, false);
+
+        List<T> result = new ArrayList<>(Math.min(limit, tail.size()));
+        for (T value : tail.values()) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(value);
+        }
+        return result;
+    }
+
+    /**
+     * Returns every stored object ordered by key, without copying them.
+     * The stream is weakly consistent: it may or may not reflect concurrent mutations.
+     *
+     * @return stream of all objects in key order
+     */
+    public @NotNull Stream<T> stream() throws JSONException {
+        ensureLoaded();
+        return sorted.values().stream();
+    }
+
+    // ======================================================== \\
+    //                        MUTATIONS                         \\
+    // ======================================================== \\
+
+    /**
+     * Adds the object unless its key is already taken.
+     *
+     * @param value object to add
+     * @return true if the object was added
+     */
+    public boolean insert(@NotNull T value) throws JSONException {
+        ensureLoaded();
+        writeLock.lock();
+        try {
+            K key = keyExtractor.apply(value);
+            if (index.containsKey(key)) {
+                return false;
+            }
+
+            appendToLog(PUT_OPERATION, value, true);
+            putIndexed(key, value);
+            compactIfNeeded();
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds every object whose key is not taken yet, flushing the change log once at the end.
+     *
+     * @param values objects to add
+     * @return number of added objects and keys of the skipped ones
+     */
+    public @NotNull BulkImportReport<K> insertAll(@NotNull Iterable<? extends T> values) throws JSONException {
+        ensureLoaded();
+        writeLock.lock();
+        try {
+            long inserted = 0;
+            List<K> conflicts = new ArrayList<>();
+
+            try {
+                for (T value : values) {
+                    K key = keyExtractor.apply(value);
+                    if (index.containsKey(key)) {
+                        conflicts.add(key);
+                        continue;
+                    }
+
+                    appendToLog(PUT_OPERATION, value, false);
+                    putIndexed(key, value);
+                    inserted++;
+                }
+            } finally {
+                flushLog();
+            }
+
+            compactIfNeeded();
+            return new BulkImportReport<>(inserted, conflicts);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the object with the same key.
+     *
+     * @param value new version of the object
+     * @return true if an object with the key existed and was replaced
+     */
+    public boolean replace(@NotNull T value) throws JSONException {
+        ensureLoaded();
+        writeLock.lock();
+        try {
+            K key = keyExtractor.apply(value);
+            if (!index.containsKey(key)) {
+                return false;
+            }
+
+            appendToLog(PUT_OPERATION, value, true);
+            putIndexed(key, value);
+            compactIfNeeded();
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the object with the key.
+     *
+     * @param key key of the object to remove
+     * @return true if an object with the key existed and was removed
+     */
+    public boolean remove(@NotNull K key) throws JSONException {
+        ensureLoaded();
+        writeLock.lock();
+        try {
+            T existing = index.get(key);
+            if (existing == null) {
+                return false;
+            }
+
+            appendToLog(DELETE_OPERATION, existing, true);
+            removeIndexed(key);
+            compactIfNeeded();
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the current content to the JSON snapshot and truncates the change log.
+     */
+    public void compact() throws JSONException {
+        ensureLoaded();
+        writeLock.lock();
+        try {
+            compactLocked();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Compacts pending changes into the snapshot and releases the change log.
+     */
+    @Override
+    public void close() throws JSONException {
+        writeLock.lock();
+        try {
+            if (loaded && logEntries > 0) {
+                compactLocked();
+            }
+            closeLogWriter();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ======================================================== \\
+    //                         HELPERS                          \\
+    // ======================================================== \\
+
+    private void ensureLoaded() throws JSONException {
+        if (loaded) {
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+
+            if (Files.exists(snapshotPath)) {
+                try (Stream<T> values = operator.stream(snapshotPath.toString())) {
+                    values.forEach(value -> putIndexed(keyExtractor.apply(value), value));
+                }
+            }
+            replayLog();
+            loaded = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the change log left by a previous run and cuts off a torn last line,
+     * so that new appends are not hidden behind it on the next replay.
+     */
+    private void replayLog() throws JSONException {
+        if (!Files.exists(logPath)) {
+            return;
+        }
+
+        long validBytes = 0;
+        // Unlike Files.newBufferedReader, the reader replaces a torn multibyte character instead of failing
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(logPath), StandardCharsets.UTF_8)
+        )) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    JsonNode entry;
+                    try {
+                        entry = objectMapper.readTree(line);
+                    } catch (IOException e) {
+                        // A torn last line is what a crash in the middle of an append leaves behind
+                        break;
+                    }
+
+                    T value = objectMapper.treeToValue(entry.get(VALUE_FIELD), elementType);
+                    K key = keyExtractor.apply(value);
+                    if (DELETE_OPERATION.equals(entry.get(OPERATION_FIELD).asText())) {
+                        removeIndexed(key);
+                    } else {
+                        putIndexed(key, value);
+                    }
+                    logEntries++;
+                }
+                validBytes += line.getBytes(StandardCharsets.UTF_8).length + LINE_SEPARATOR.length;
+            }
+        } catch (IOException e) {
+            throw new JSONException("Error occurred while reading change log " + logPath, e);
+        }
+
+        repairLog(validBytes);
+    }
+
+    /**
+     * Makes the change log end right after its last complete entry.
+     *
+     * @param validBytes length of the complete entries, each followed by a line separator
+     */
+    private void repairLog(long validBytes) throws JSONException {
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size > validBytes) {
+                channel.truncate(validBytes);
+            } else if (size < validBytes) {
+                // The last entry is complete but its line separator never made it to the file
+                channel.write(ByteBuffer.wrap(LINE_SEPARATOR), size);
+            }
+        } catch (IOException e) {
+            throw new JSONException("Error occurred while repairing change log " + logPath, e);
+        }
+    }
+
+    private void appendToLog(@NotNull String operation, @NotNull T value, boolean flush) throws JSONException {
+        try {
+            if (logWriter == null) {
+                logWriter = Files.newBufferedWriter(
+                        logPath,
+                        StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND
+                );
+            }
+
+            ObjectNode entry = objectMapper.createObjectNode();
+            entry.put(OPERATION_FIELD, operation);
+            entry.set(VALUE_FIELD, objectMapper.valueToTree(value));
+
+            logWriter.write(objectMapper.writeValueAsString(entry));
+            logWriter.newLine();
+            if (flush) {
+                logWriter.flush();
+            }
+        } catch (IOException e) {
+            throw new JSONException("Error occurred while writing to change log " + logPath, e);
+        }
+        logEntries++;
+    }
+
+    private void flushLog() throws JSONException {
+        if (logWriter == null) {
+            return;
+        }
+
+        try {
+            logWriter.flush();
+        } catch (IOException e) {
+            throw new JSONException("Error occurred while writing to change log " + logPath, e);
+        }
+    }
+
+    private void putIndexed(@NotNull K key, @NotNull T value) {
+        index.put(key, value);
+        sorted.put(key, value);
+    }
+
+    private void removeIndexed(@NotNull K key) {
+        index.remove(key);
+        sorted.remove(key);
+    }
+
+    private void compactIfNeeded() throws JSONException {
+        if (logEntries >= compactionThreshold) {
+            compactLocked();
+        }
+    }
+
+    private void compactLocked() throws JSONException {
+        try (JsonStreamWriter<T> writer = operator.openWriter(snapshotPath.toString())) {
+            writer.writeAll(index.values());
+        }
+
+        closeLogWriter();
+        try {
+            Files.deleteIfExists(logPath);
+        } catch (IOException e) {
+            throw new JSONException("Error occurred while truncating change log " + logPath, e);
+        }
+        logEntries = 0;
+    }
+
+    private void closeLogWriter() throws JSONException {
+        if (logWriter == null) {
+            return;
+        }
+
+        try {
+            logWriter.close();
+        } catch (IOException e) {
+            throw new JSONException("Error occurred while closing change log " + logPath, e);
+        } finally {
+            logWriter = null;
+        }
+    }
+}
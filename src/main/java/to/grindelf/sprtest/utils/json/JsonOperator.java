@@ -1,23 +1,27 @@
 package to.grindelf.sprtest.utils.json;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.jetbrains.annotations.NotNull;
 import to.grindelf.sprtest.annonations.JSONPurposed;
-import to.grindelf.sprtest.exceptions.IrregularAccessException;
 import to.grindelf.sprtest.exceptions.JSONException;
-import to.grindelf.sprtest.exceptions.NoSuchUserException;
-import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
-import to.grindelf.sprtest.utils.ConstantValues.DatabaseTableNames;
-import to.grindelf.sprtest.utils.DataOperator;
-import to.grindelf.sprtest.utils.database.RowMapper;
+import to.grindelf.sprtest.utils.JsonDataOperator;
 
 import java.io.File;
 import java.io.IOException;
-import java.sql.SQLException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class JsonOperator<T, K> implements DataOperator<T, K> {
+public class JsonOperator<T, K> implements JsonDataOperator<T, K> {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final TypeReference<List<T>> typeReference;
@@ -29,6 +33,21 @@ public class JsonOperator<T, K> implements DataOperator<T, K> {
      */
     public JsonOperator(TypeReference<List<T>> typeReference) {
         this.typeReference = typeReference;
+        // Derived getters such as User.isAdmin() are serialized but have no setter to read them back
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Returns the type of a single element of the JSON array handled by this operator.
+     *
+     * @return element type
+     */
+    JavaType getElementType() {
+        return objectMapper.getTypeFactory().constructType(typeReference).getContentType();
     }
 
     /**
@@ -39,7 +58,7 @@ public class JsonOperator<T, K> implements DataOperator<T, K> {
      * @throws JSONException if an error occurs during the operation
      */
     @Override
-    public List<T> readFile(@NotNull String filePath) throws JSONException, IrregularAccessException {
+    public List<T> readFile(@NotNull String filePath) throws JSONException {
         try {
             return objectMapper.readValue(new File(filePath), typeReference);
         } catch (IOException e) {
@@ -49,115 +68,109 @@ public class JsonOperator<T, K> implements DataOperator<T, K> {
     }
 
     /**
-     * Overwrites content of the provided JSON file with new content
+     * Overwrites content of the provided JSON file with new content.
+     * <p>The content is written through a {@link JsonStreamWriter}, so the file is replaced
+     * atomically and concurrent writers of the same file wait for each other.</p>
      *
      * @param filePath path to destination JSON file
      * @param data     what to write in destination JSON file
      */
     @Override
     @JSONPurposed
-    public void writeToFile(@NotNull String filePath, @NotNull List<T> data) throws JSONException, IrregularAccessException {
-        try {
-            objectMapper.writeValue(new File(filePath), data);
-        } catch (IOException e) {
-            e.printStackTrace();
-            throw new JSONException("Error occurred while writing to file");
+    public void writeToFile(@NotNull String filePath, @NotNull List<T> data) throws JSONException {
+        try (JsonStreamWriter<T> writer = openWriter(filePath)) {
+            writer.writeAll(data);
         }
     }
 
-    // ================================================================================== \\
-    // THE CODE BELLOW IS PURPOSED FOR SQL OPERATOR AND HERE ONLY TO AN INHERITANCE NEEDS \\
-    // ================================================================================== \\
+    // ======================================================== \\
+    //                    STREAMING OPERATIONS                  \\
+    // These keep memory constant regardless of the file size.  \\
+    // ======================================================== \\
 
     /**
-     * Returns the object by the provided key from the database file.
+     * Returns the content of a JSON array file as a lazily parsed stream.
+     * <p>Objects are parsed one at a time while the stream is consumed. The stream holds the
+     * file open and must be closed, e.g. with try-with-resources. A malformed or {@code null}
+     * element fails the stream with a {@link JSONException} when it is reached; the cause tells a
+     * parse error from an I/O error.</p>
      *
-     * @param key           key to get the object by
-     * @param keyColumnName
-     * @param filePath      path to the database file
-     * @param tableName     name of the table to get data from
-     * @return returns the object by the provided key from the database file
-     * @throws SQLException if an error occurs during the operation
+     * @param filePath path to source JSON file
+     * @return stream of the objects in the file
+     * @throws JSONException if the file cannot be opened or is not a JSON array
      */
-    @Override
-    public T getByKey(
-            @NotNull K key,
-            @NotNull String keyColumnName,
-            @NotNull String filePath,
-            @NotNull DatabaseTableNames tableName,
-            @NotNull RowMapper<T> mapper
-    ) throws SQLException, IrregularAccessException, NoSuchUserException {
-        throw new IrregularAccessException(this.getClass().getName());
-    }
+    @JSONPurposed
+    public @NotNull Stream<T> stream(@NotNull String filePath) throws JSONException {
+        JsonParser parser;
+        try {
+            parser = objectMapper.getFactory().createParser(new File(filePath));
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                parser.close();
+                throw new JSONException("File " + filePath + " does not contain a JSON array");
+            }
+        } catch (IOException e) {
+            throw new JSONException("Error occurred while reading from " + filePath, e);
+        }
 
-    /**
-     * Returns all data from the table in the database file.
-     *
-     * @param filePath  path to the database file
-     * @param mapper    mapper to convert ResultSet to object
-     * @param tableName name of the table to get data from
-     * @return list of objects of type T
-     */
-    @Override
-    public @NotNull List<T> getAll(
-            @NotNull String filePath,
-            @NotNull RowMapper<T> mapper,
-            @NotNull DatabaseTableNames tableName
-    ) throws SQLException, IrregularAccessException {
-        throw new IrregularAccessException(this.getClass().getName());
-    }
+        JavaType elementType = getElementType();
+        Iterator<T> iterator = new Iterator<>() {
+            private T next;
+            private boolean finished;
 
-    /**
-     * Validates and, if valid, inserts data into the database file.
-     *
-     * @param data          object to insert
-     * @param filePath      path to the database file
-     * @param tableName     name of the table to insert data into
-     * @param keyColumnName
-     */
-    @Override
-    public void post(
-            @NotNull T data,
-            @NotNull String filePath,
-            @NotNull DatabaseTableNames tableName,
-            @NotNull String keyColumnName) throws SQLException, IrregularAccessException, UserAlreadyExistsException {
-        throw new IrregularAccessException(this.getClass().getName());
-    }
+            @Override
+            public boolean hasNext() {
+                if (next == null && !finished) {
+                    JsonToken token;
+                    try {
+                        token = parser.nextToken();
+                        if (token == JsonToken.END_ARRAY) {
+                            finished = true;
+                        } else if (token != JsonToken.VALUE_NULL) {
+                            next = objectMapper.readValue(parser, elementType);
+                        }
+                    } catch (IOException e) {
+                        throw new JSONException("Error occurred while reading from " + filePath, e);
+                    }
+                    // A null element would otherwise end the stream early, as if the array ended
+                    if (token == JsonToken.VALUE_NULL) {
+                        throw new JSONException("File " + filePath + " contains a null element");
+                    }
+                }
+                return next != null;
+            }
 
-    /**
-     * Updates the data in the database file.
-     *
-     * @param key       key to update the object by
-     * @param filePath  path to the database file
-     * @param tableName name of the table to update data in
-     * @throws SQLException if an error occurs during the operation
-     */
-    @Override
-    public void update(
-            @NotNull K key,
-            @NotNull String keyColumnName,
-            @NotNull T data,
-            @NotNull String filePath,
-            @NotNull DatabaseTableNames tableName
-    ) throws SQLException, IrregularAccessException, NoSuchUserException {
-        throw new IrregularAccessException(this.getClass().getName());
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T result = next;
+                next = null;
+                return result;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        parser.close();
+                    } catch (IOException e) {
+                        throw new JSONException("Error occurred while closing " + filePath, e);
+                    }
+                });
     }
 
     /**
-     * Deletes the data from the database file.
+     * Opens an incremental writer that replaces the provided JSON file with a new array.
+     * <p>Other writers of the file block until this one is closed. Readers are not blocked
+     * and see the previous content until then.</p>
      *
-     * @param key           key to delete the object by
-     * @param keyColumnName
-     * @param filePath      path to the database file
-     * @param tableName     name of the table to delete data from
-     * @throws SQLException if an error occurs during the operation
+     * @param filePath path to destination JSON file
+     * @return writer that must be closed to finish the array
+     * @throws JSONException if the file cannot be opened
      */
-    @Override
-    public void delete(
-            @NotNull K key,
-            @NotNull String keyColumnName, @NotNull String filePath,
-            @NotNull DatabaseTableNames tableName
-    ) throws SQLException, IrregularAccessException, NoSuchUserException {
-        throw new IrregularAccessException(this.getClass().getName());
+    @JSONPurposed
+    public @NotNull JsonStreamWriter<T> openWriter(@NotNull String filePath) throws JSONException {
+        return new JsonStreamWriter<>(objectMapper, filePath);
     }
 }
@@ -0,0 +1,163 @@
+package to.grindelf.sprtest.utils.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.annonations.JSONPurposed;
+import to.grindelf.sprtest.exceptions.JSONException;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Incremental writer of a JSON array file.
+ * <p>Objects are serialized one by one as they are written, so the whole array never has to be
+ * held in memory. The array is closed when the writer is closed.</p>
+ * <p>The array is written to a temporary file next to the destination, which replaces the
+ * destination in a single atomic rename on close. Readers therefore see either the previous or
+ * the new content, never a partial array, and a crash leaves the previous file intact. If a write
+ * failed, closing discards the temporary file and the destination is not touched. Writers of the
+ * same file are serialized by a {@link JsonFileLock} held from opening until closing.</p>
+ *
+ * @param <T> type of the written objects
+ */
+@JSONPurposed
+public class JsonStreamWriter<T> implements AutoCloseable {
+
+    private final Path target;
+    private final Path temporary;
+    private final JsonFileLock lock;
+    private final FileOutputStream output;
+    private final JsonGenerator generator;
+    private long written;
+    private boolean failed;
+    private boolean released;
+
+    JsonStreamWriter(@NotNull ObjectMapper objectMapper, @NotNull String filePath) throws JSONException {
+        this.target = Path.of(filePath).toAbsolutePath().normalize();
+
+        try {
+            this.lock = JsonFileLock.acquire(target);
+        } catch (IOException e) {
+            throw new JSONException("Error occurred while locking " + filePath + " for writing", e);
+        }
+
+        Path created = null;
+        try {
+            created = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+            this.temporary = created;
+            this.output = new FileOutputStream(created.toFile());
+            this.generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8);
+            this.generator.writeStartArray();
+        } catch (IOException e) {
+            discard(created);
+            throw new JSONException("Error occurred while opening " + filePath + " for writing", e);
+        }
+    }
+
+    /**
+     * Appends one object to the array.
+     *
+     * @param value object to write
+     */
+    public void write(@NotNull T value) throws JSONException {
+        try {
+            generator.writeObject(value);
+            written++;
+        } catch (IOException e) {
+            failed = true;
+            throw new JSONException("Error occurred while writing to " + target, e);
+        }
+    }
+
+    /**
+     * Appends every object to the array.
+     *
+     * @param values objects to write
+     */
+    public void writeAll(@NotNull Iterable<? extends T> values) throws JSONException {
+        for (T value : values) {
+            write(value);
+        }
+    }
+
+    public long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * Closes the array, forces it to the disk and moves it over the destination file.
+     * If a write failed, the temporary file is deleted instead.
+     */
+    @Override
+    public void close() throws JSONException {
+        if (failed) {
+            discard(temporary);
+            return;
+        }
+
+        try {
+            generator.writeEndArray();
+            generator.flush();
+            output.getChannel().force(true);
+            generator.close();
+            replaceTarget();
+        } catch (IOException e) {
+            discard(temporary);
+            throw new JSONException("Error occurred while closing " + target, e);
+        } finally {
+            releaseLock();
+        }
+    }
+
+    private void replaceTarget() throws IOException {
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Only file systems without atomic renames get here; the file is still never half-written
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Closes and deletes the temporary file and gives up the lock, ignoring secondary failures.
+     */
+    private void discard(Path file) {
+        try {
+            if (generator != null) {
+                generator.close();
+            } else if (output != null) {
+                output.close();
+            }
+        } catch (IOException ignored) {
+            // The file is deleted anyway.
+        }
+
+        try {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException ignored) {
+            // A leftover temporary file does not affect the destination.
+        }
+        releaseLock();
+    }
+
+    private void releaseLock() {
+        if (released) {
+            return;
+        }
+
+        released = true;
+        try {
+            lock.close();
+        } catch (IOException e) {
+            throw new JSONException("Error occurred while unlocking " + target, e);
+        }
+    }
+}
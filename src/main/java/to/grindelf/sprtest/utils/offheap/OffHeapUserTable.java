@@ -0,0 +1,365 @@
+package to.grindelf.sprtest.utils.offheap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.domain.UserStatus;
+import to.grindelf.sprtest.utils.KeyHash;
+import to.grindelf.sprtest.utils.Utf8;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Hash table of users kept outside the Java heap.
+ * <p>Users are stored as records appended to one native segment, with the name and the password
+ * inline as UTF-8 and the status packed into a flag byte:</p>
+ * <pre>
+ * record  name hash | name length | password length | flags | name | password
+ *         (3 ints, 1 byte, then the bytes)
+ * </pre>
+ * <p>A second segment holds an open-addressing table with linear probing. Each slot is one
+ * {@code long}: the record offset in the low 40 bits and the high 24 bits of the name hash in the
+ * rest, so most probes of other names are rejected without touching the records. A lookup compares
+ * the searched name with the record bytes directly, encoding it on the fly, so finding a user
+ * allocates nothing; only the returned {@link User} is created on the heap.</p>
+ * <p>An update with a password of the same length (every hash of one algorithm) is written in
+ * place; otherwise the new record is appended and the old one becomes garbage. The table is
+ * rebuilt into new segments when it is half full or the records do not fit, which also drops the
+ * garbage. Segments are allocated in automatic arenas, so replaced ones are freed by the garbage
+ * collector like any unreachable object, and the table needs no closing.</p>
+ * <p>Names are hashed with a {@link KeyHash} seeded per table, so names that collide cannot be
+ * chosen in advance to pile up on one probe sequence.</p>
+ * <p>Lookups share a read lock and writes take the write lock.</p>
+ */
+public final class OffHeapUserTable {
+
+    /**
+     * Size of the table.
+     *
+     * @param users        number of users
+     * @param capacity     number of slots
+     * @param recordBytes  bytes taken by records, including garbage
+     * @param garbageBytes bytes taken by replaced and removed records
+     * @param offHeapBytes native memory allocated by the table
+     */
+    public record Statistics(int users, int capacity, long recordBytes, long garbageBytes, long offHeapBytes) {
+    }
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final long MIN_RECORD_BYTES = 1 << 12;
+
+    private static final long EMPTY = 0;
+    private static final long DELETED = -1;
+    private static final int REFERENCE_BITS = 40;
+    private static final long REFERENCE_MASK = (1L << REFERENCE_BITS) - 1;
+
+    private static final long HASH = 0;
+    private static final long NAME_LENGTH = 4;
+    private static final long PASSWORD_LENGTH = 8;
+    private static final long FLAGS = 12;
+    private static final long HEADER_BYTES = 13;
+
+    private static final byte ADMIN_FLAG = 1;
+
+    private final StampedLock lock = new StampedLock();
+    private final long seed = new SecureRandom().nextLong();
+
+    private MemorySegment slots;
+    private int capacity;
+    private int used;
+    private int size;
+
+    private MemorySegment records;
+    private long recordEnd;
+    private long garbage;
+
+    public OffHeapUserTable() {
+        this.capacity = MIN_CAPACITY;
+        this.slots = allocate(capacity * (long) Long.BYTES);
+        this.records = allocate(MIN_RECORD_BYTES);
+    }
+
+    // ======================================================== \\
+    //                         LOOKUPS                          \\
+    // ======================================================== \\
+
+    /**
+     * Returns the user with the name.
+     *
+     * @param userName name of the user
+     * @return the user, or null if there is none
+     */
+    public @Nullable User get(@NotNull String userName) {
+        int hash = hash(userName);
+        long stamp = lock.readLock();
+        try {
+            int index = find(userName, hash);
+            return index < 0 ? null : userAt(offsetOf(slots.getAtIndex(ValueLayout.JAVA_LONG, index)));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean contains(@NotNull String userName) {
+        int hash = hash(userName);
+        long stamp = lock.readLock();
+        try {
+            return find(userName, hash) >= 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public @NotNull Statistics getStatistics() {
+        long stamp = lock.readLock();
+        try {
+            return new Statistics(size, capacity, recordEnd, garbage, slots.byteSize() + records.byteSize());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // ======================================================== \\
+    //                          WRITES                          \\
+    // ======================================================== \\
+
+    /**
+     * Adds the user or replaces the user with the same name.
+     *
+     * @param user user to store
+     * @return true if the name was not in the table
+     */
+    public boolean put(@NotNull User user) {
+        String userName = user.getName();
+        byte[] name = userName.getBytes(StandardCharsets.UTF_8);
+        byte[] password = user.getPassword().getBytes(StandardCharsets.UTF_8);
+        byte flags = user.getStatus() == UserStatus.ADMIN ? ADMIN_FLAG : 0;
+        int hash = hash(userName);
+
+        long stamp = lock.writeLock();
+        try {
+            int index = find(userName, hash);
+            if (index >= 0) {
+                long offset = offsetOf(slots.getAtIndex(ValueLayout.JAVA_LONG, index));
+                if (records.get(ValueLayout.JAVA_INT_UNALIGNED, offset + PASSWORD_LENGTH) == password.length) {
+                    records.set(ValueLayout.JAVA_BYTE, offset + FLAGS, flags);
+                    MemorySegment.copy(password, 0, records, ValueLayout.JAVA_BYTE, offset + HEADER_BYTES + name.length, password.length);
+                    return false;
+                }
+            }
+
+            boolean added = index < 0;
+            long bytes = HEADER_BYTES + name.length + password.length;
+            if (recordEnd + bytes > records.byteSize() || added && used + 1 > capacity / 2) {
+                rebuild(added ? size + 1 : size, bytes);
+                index = added ? -1 : find(userName, hash);
+            }
+
+            long offset = append(hash, name, password, flags);
+            if (added) {
+                index = freeSlot(slots, capacity, hash);
+                if (slots.getAtIndex(ValueLayout.JAVA_LONG, index) == EMPTY) {
+                    used++;
+                }
+                size++;
+            } else {
+                garbage += recordBytes(offsetOf(slots.getAtIndex(ValueLayout.JAVA_LONG, index)));
+            }
+            slots.setAtIndex(ValueLayout.JAVA_LONG, index, reference(hash, offset));
+            return added;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the user with the name.
+     *
+     * @param userName name of the user
+     * @return true if the user was in the table
+     */
+    public boolean remove(@NotNull String userName) {
+        int hash = hash(userName);
+        long stamp = lock.writeLock();
+        try {
+            int index = find(userName, hash);
+            if (index < 0) {
+                return false;
+            }
+
+            garbage += recordBytes(offsetOf(slots.getAtIndex(ValueLayout.JAVA_LONG, index)));
+            slots.setAtIndex(ValueLayout.JAVA_LONG, index, DELETED);
+            size--;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // ======================================================== \\
+    //                         HELPERS                          \\
+    // ======================================================== \\
+
+    /**
+     * Finds the slot of the name. The table is at most half full, so the probe always reaches an empty slot.
+     */
+    private int find(@NotNull String userName, int hash) {
+        int mask = capacity - 1;
+        long tag = tagOf(hash);
+        for (int index = hash & mask; ; index = (index + 1) & mask) {
+            long slot = slots.getAtIndex(ValueLayout.JAVA_LONG, index);
+            if (slot == EMPTY) {
+                return -1;
+            }
+            if (slot != DELETED && (slot & ~REFERENCE_MASK) == tag && nameEquals(offsetOf(slot), userName)) {
+                return index;
+            }
+        }
+    }
+
+    private static int freeSlot(@NotNull MemorySegment slots, int capacity, int hash) {
+        int mask = capacity - 1;
+        int index = hash & mask;
+        while (true) {
+            long slot = slots.getAtIndex(ValueLayout.JAVA_LONG, index);
+            if (slot == EMPTY || slot == DELETED) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private long append(int hash, byte[] name, byte[] password, byte flags) {
+        long offset = recordEnd;
+        if (offset + 1 >= REFERENCE_MASK) {
+            throw new IllegalStateException("Off-heap user table would exceed 1 TB.");
+        }
+
+        records.set(ValueLayout.JAVA_INT_UNALIGNED, offset + HASH, hash);
+        records.set(ValueLayout.JAVA_INT_UNALIGNED, offset + NAME_LENGTH, name.length);
+        records.set(ValueLayout.JAVA_INT_UNALIGNED, offset + PASSWORD_LENGTH, password.length);
+        records.set(ValueLayout.JAVA_BYTE, offset + FLAGS, flags);
+        MemorySegment.copy(name, 0, records, ValueLayout.JAVA_BYTE, offset + HEADER_BYTES, name.length);
+        MemorySegment.copy(password, 0, records, ValueLayout.JAVA_BYTE, offset + HEADER_BYTES + name.length, password.length);
+
+        recordEnd += HEADER_BYTES + name.length + password.length;
+        return offset;
+    }
+
+    /**
+     * Copies the live records into new segments sized for the expected number of users and
+     * room for a record of the given size.
+     */
+    private void rebuild(int expectedSize, long extraBytes) {
+        long minimum = Math.max(MIN_CAPACITY, 4L * expectedSize);
+        if (minimum > MAX_CAPACITY) {
+            throw new IllegalStateException("Off-heap user table cannot hold " + expectedSize + " users.");
+        }
+        int newCapacity = Integer.highestOneBit((int) minimum - 1) << 1;
+
+        MemorySegment newSlots = allocate(newCapacity * (long) Long.BYTES);
+        MemorySegment newRecords = allocate(Math.max(MIN_RECORD_BYTES, 2 * (recordEnd - garbage + extraBytes)));
+        long end = 0;
+        for (int index = 0; index < capacity; index++) {
+            long slot = slots.getAtIndex(ValueLayout.JAVA_LONG, index);
+            if (slot == EMPTY || slot == DELETED) {
+                continue;
+            }
+
+            long offset = offsetOf(slot);
+            long bytes = recordBytes(offset);
+            int hash = records.get(ValueLayout.JAVA_INT_UNALIGNED, offset + HASH);
+            MemorySegment.copy(records, offset, newRecords, end, bytes);
+            newSlots.setAtIndex(ValueLayout.JAVA_LONG, freeSlot(newSlots, newCapacity, hash), reference(hash, end));
+            end += bytes;
+        }
+
+        slots = newSlots;
+        capacity = newCapacity;
+        used = size;
+        records = newRecords;
+        recordEnd = end;
+        garbage = 0;
+    }
+
+    private @NotNull User userAt(long offset) {
+        int nameLength = records.get(ValueLayout.JAVA_INT_UNALIGNED, offset + NAME_LENGTH);
+        int passwordLength = records.get(ValueLayout.JAVA_INT_UNALIGNED, offset + PASSWORD_LENGTH);
+        byte flags = records.get(ValueLayout.JAVA_BYTE, offset + FLAGS);
+        return new User(
+                string(offset + HEADER_BYTES, nameLength),
+                string(offset + HEADER_BYTES + nameLength, passwordLength),
+                (flags & ADMIN_FLAG) != 0 ? UserStatus.ADMIN : UserStatus.JUST_USER
+        );
+    }
+
+    private @NotNull String string(long offset, int length) {
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(records, ValueLayout.JAVA_BYTE, offset, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares the UTF-8 encoding of the name with the name of a record, encoding it one code point at a time.
+     */
+    private boolean nameEquals(long offset, @NotNull String userName) {
+        long position = offset + HEADER_BYTES;
+        long end = position + records.get(ValueLayout.JAVA_INT_UNALIGNED, offset + NAME_LENGTH);
+
+        for (int i = 0; i < userName.length(); ) {
+            int codePoint = userName.codePointAt(i);
+            i += Character.charCount(codePoint);
+            codePoint = Utf8.encodable(codePoint);
+
+            int units = Utf8.length(codePoint);
+            for (int index = 0; index < units; index++) {
+                if (position == end
+                        || Utf8.encodedByte(codePoint, units, index) != (records.get(ValueLayout.JAVA_BYTE, position++) & 0xFF)) {
+                    return false;
+                }
+            }
+        }
+        return position == end;
+    }
+
+    private long recordBytes(long offset) {
+        return HEADER_BYTES
+                + records.get(ValueLayout.JAVA_INT_UNALIGNED, offset + NAME_LENGTH)
+                + records.get(ValueLayout.JAVA_INT_UNALIGNED, offset + PASSWORD_LENGTH);
+    }
+
+    private static @NotNull MemorySegment allocate(long bytes) {
+        return Arena.ofAuto().allocate(bytes, Long.BYTES);
+    }
+
+    private int hash(@NotNull String userName) {
+        return (int) KeyHash.hash(userName, seed);
+    }
+
+    private static long tagOf(int hash) {
+        return (long) (hash >>> (Integer.SIZE - (Long.SIZE - REFERENCE_BITS))) << REFERENCE_BITS;
+    }
+
+    private static long reference(int hash, long offset) {
+        return tagOf(hash) | (offset + 1);
+    }
+
+    private static long offsetOf(long slot) {
+        return (slot & REFERENCE_MASK) - 1;
+    }
+}
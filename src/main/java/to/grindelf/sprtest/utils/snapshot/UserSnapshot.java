@@ -0,0 +1,260 @@
+package to.grindelf.sprtest.utils.snapshot;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.domain.UserStatus;
+import to.grindelf.sprtest.utils.Utf8;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Read-only binary snapshot of the users, memory-mapped from a file written by {@link UserSnapshotWriter}.
+ * <p>The file consists of a fixed header, an index of fixed-size entries sorted by the UTF-8 bytes
+ * of the user name (the order SQLite uses), and a pool of UTF-8 strings:</p>
+ * <pre>
+ * header  magic "SPRU" | version | user count | pool offset          (4 ints)
+ * index   name offset | name length | password offset | password length | status | padding
+ *                                                                     (4 ints, 1 byte, 3 bytes)
+ * pool    all names in index order, then all passwords
+ * </pre>
+ * <p>Opening maps the file without reading it, so a snapshot of any size is ready at once and
+ * its pages are loaded by the operating system as they are touched. A lookup binary-searches the
+ * mapped index and compares the searched name with the mapped bytes directly, encoding it on the
+ * fly, so finding a user allocates nothing; only the returned {@link User} is created on the heap.</p>
+ * <p>All reads use absolute positions, so one snapshot may be shared by any number of threads.
+ * Offsets are 32-bit, which limits a snapshot to 2 GB.</p>
+ */
+public final class UserSnapshot implements AutoCloseable {
+
+    static final int MAGIC = 0x53505255;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 20;
+
+    static final byte JUST_USER = 0;
+    static final byte ADMIN = 1;
+
+    private static final int NAME_OFFSET = 0;
+    private static final int NAME_LENGTH = 4;
+    private static final int PASSWORD_OFFSET = 8;
+    private static final int PASSWORD_LENGTH = 12;
+    private static final int STATUS = 16;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int poolOffset;
+
+    private UserSnapshot(@NotNull Path path, @NotNull FileChannel channel, @NotNull MappedByteBuffer buffer) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.count = buffer.getInt(8);
+        this.poolOffset = buffer.getInt(12);
+    }
+
+    /**
+     * Maps the snapshot file and validates its header.
+     *
+     * @param path path to the snapshot file
+     * @return opened snapshot
+     * @throws IOException if the file cannot be mapped or is not a valid snapshot
+     */
+    public static @NotNull UserSnapshot open(@NotNull Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("File " + path + " is not a user snapshot: unexpected size " + size);
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("File " + path + " is not a user snapshot.");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("User snapshot " + path + " has unsupported version " + buffer.getInt(4));
+            }
+
+            long indexEnd = HEADER_BYTES + (long) buffer.getInt(8) * ENTRY_BYTES;
+            int poolOffset = buffer.getInt(12);
+            if (buffer.getInt(8) < 0 || poolOffset < indexEnd || poolOffset > size) {
+                throw new IOException("User snapshot " + path + " is truncated or corrupt.");
+            }
+
+            return new UserSnapshot(path, channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public @NotNull Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return number of users in the snapshot
+     */
+    public int size() {
+        return count;
+    }
+
+    // ======================================================== \\
+    //                         LOOKUPS                          \\
+    // ======================================================== \\
+
+    /**
+     * Finds the position of the user in the index.
+     *
+     * @param userName name of the user
+     * @return index of the user, or {@code -(insertion point) - 1} if there is no such user,
+     * as {@link java.util.Arrays#binarySearch(int[], int)} returns
+     */
+    public int indexOf(@NotNull String userName) {
+        int low = 0;
+        int high = count - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = entryOffset(middle);
+            int comparison = compare(
+                    userName,
+                    poolOffset + buffer.getInt(entry + NAME_OFFSET),
+                    buffer.getInt(entry + NAME_LENGTH)
+            );
+
+            if (comparison > 0) {
+                low = middle + 1;
+            } else if (comparison < 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Returns the user with the name.
+     *
+     * @param userName name of the user
+     * @return the user, or null if there is none
+     */
+    public @Nullable User get(@NotNull String userName) {
+        int index = indexOf(userName);
+        return index < 0 ? null : userAt(index);
+    }
+
+    /**
+     * Returns the user at a position of the index.
+     *
+     * @param index position from 0 to {@link #size()} - 1
+     * @return the user
+     * @throws IndexOutOfBoundsException if there is no user at the position
+     */
+    public @NotNull User userAt(int index) {
+        // Past the index the mapped bytes belong to the pool and would decode into garbage
+        int entry = entryOffset(Objects.checkIndex(index, count));
+        return new User(
+                string(buffer.getInt(entry + NAME_OFFSET), buffer.getInt(entry + NAME_LENGTH)),
+                string(buffer.getInt(entry + PASSWORD_OFFSET), buffer.getInt(entry + PASSWORD_LENGTH)),
+                buffer.get(entry + STATUS) == ADMIN ? UserStatus.ADMIN : UserStatus.JUST_USER
+        );
+    }
+
+    /**
+     * Returns the users after the given name, in index order.
+     *
+     * @param afterName name after which the page starts, or null for the first page
+     * @param limit     maximum number of users on the page
+     * @return users of the page
+     */
+    public @NotNull List<User> page(@Nullable String afterName, int limit) {
+        int from = 0;
+        if (afterName != null) {
+            int index = indexOf(afterName);
+            from = index >= 0 ? index + 1 : -(index + 1);
+        }
+
+        int to = (int) Math.min(count, (long) from + Math.max(0, limit));
+        List<User> users = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            users.add(userAt(i));
+        }
+        return users;
+    }
+
+    /**
+     * Returns every user in index order, decoded lazily.
+     *
+     * @return stream of all users
+     */
+    public @NotNull Stream<User> stream() {
+        return IntStream.range(0, count).mapToObj(this::userAt);
+    }
+
+    /**
+     * Closes the file. The mapping itself is released when the snapshot is garbage collected,
+     * so the snapshot must not be used after closing.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ======================================================== \\
+    //                         HELPERS                          \\
+    // ======================================================== \\
+
+    private static int entryOffset(int index) {
+        return HEADER_BYTES + index * ENTRY_BYTES;
+    }
+
+    private @NotNull String string(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(poolOffset + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares the UTF-8 encoding of the key with mapped bytes as unsigned bytes, encoding the key
+     * one code point at a time.
+     */
+    private int compare(@NotNull String key, int offset, int length) {
+        int position = offset;
+        int end = offset + length;
+
+        for (int i = 0; i < key.length(); ) {
+            int codePoint = key.codePointAt(i);
+            i += Character.charCount(codePoint);
+            codePoint = Utf8.encodable(codePoint);
+
+            int units = Utf8.length(codePoint);
+            for (int index = 0; index < units; index++) {
+                if (position == end) {
+                    return 1;
+                }
+
+                int expected = Utf8.encodedByte(codePoint, units, index);
+                int actual = buffer.get(position++) & 0xFF;
+                if (expected != actual) {
+                    return expected - actual;
+                }
+            }
+        }
+        return position == end ? 0 : -1;
+    }
+}
@@ -0,0 +1,122 @@
+package to.grindelf.sprtest.utils.snapshot;
+
+import org.jetbrains.annotations.NotNull;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.domain.UserStatus;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds {@link UserSnapshot} files.
+ * <p>The users may come from any backend in any order, e.g. from {@code UserDao.stream()}; they
+ * are sorted here by the UTF-8 bytes of their names. The snapshot is written to a temporary file
+ * and moved over the destination atomically, so a snapshot that is being read is never changed.</p>
+ */
+public final class UserSnapshotWriter {
+
+    private record Entry(byte[] name, byte[] password, byte status) {
+    }
+
+    private UserSnapshotWriter() {
+    }
+
+    /**
+     * Writes a snapshot of the users.
+     *
+     * @param target path of the snapshot file, replaced if it exists
+     * @param users  users to write; names must be unique
+     * @return number of written users
+     * @throws IOException              if the file cannot be written
+     * @throws IllegalArgumentException if a name occurs twice or the snapshot would exceed 2 GB
+     */
+    public static int write(@NotNull Path target, @NotNull Iterable<? extends User> users) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long poolBytes = 0;
+        for (User user : users) {
+            Entry entry = new Entry(
+                    user.getName().getBytes(StandardCharsets.UTF_8),
+                    user.getPassword().getBytes(StandardCharsets.UTF_8),
+                    user.getStatus() == UserStatus.ADMIN ? UserSnapshot.ADMIN : UserSnapshot.JUST_USER
+            );
+            entries.add(entry);
+            poolBytes += entry.name().length + entry.password().length;
+        }
+
+        entries.sort((left, right) -> Arrays.compareUnsigned(left.name(), right.name()));
+        for (int i = 1; i < entries.size(); i++) {
+            if (Arrays.equals(entries.get(i - 1).name(), entries.get(i).name())) {
+                throw new IllegalArgumentException(
+                        "User " + new String(entries.get(i).name(), StandardCharsets.UTF_8) + " occurs twice."
+                );
+            }
+        }
+
+        long poolOffset = UserSnapshot.HEADER_BYTES + (long) entries.size() * UserSnapshot.ENTRY_BYTES;
+        if (poolOffset + poolBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("User snapshot would exceed 2 GB.");
+        }
+
+        Path absolute = target.toAbsolutePath().normalize();
+        Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName() + ".", ".tmp");
+        try {
+            writeFile(temporary, entries, (int) poolOffset);
+            move(temporary, absolute);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return entries.size();
+    }
+
+    private static void writeFile(@NotNull Path file, @NotNull List<Entry> entries, int poolOffset) throws IOException {
+        try (FileOutputStream stream = new FileOutputStream(file.toFile());
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            output.writeInt(UserSnapshot.MAGIC);
+            output.writeInt(UserSnapshot.VERSION);
+            output.writeInt(entries.size());
+            output.writeInt(poolOffset);
+
+            int nameOffset = 0;
+            int passwordOffset = entries.stream().mapToInt(entry -> entry.name().length).sum();
+            for (Entry entry : entries) {
+                output.writeInt(nameOffset);
+                output.writeInt(entry.name().length);
+                output.writeInt(passwordOffset);
+                output.writeInt(entry.password().length);
+                output.writeByte(entry.status());
+                output.write(new byte[3]);
+
+                nameOffset += entry.name().length;
+                passwordOffset += entry.password().length;
+            }
+
+            for (Entry entry : entries) {
+                output.write(entry.name());
+            }
+            for (Entry entry : entries) {
+                output.write(entry.password());
+            }
+
+            output.flush();
+            stream.getChannel().force(true);
+        }
+    }
+
+    private static void move(@NotNull Path source, @NotNull Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
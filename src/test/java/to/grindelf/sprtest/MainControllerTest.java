@@ -0,0 +1,187 @@
+package to.grindelf.sprtest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.ui.ExtendedModelMap;
+import to.grindelf.sprtest.auth.InMemoryUserDao;
+import to.grindelf.sprtest.auth.SnapshotUserDao;
+import to.grindelf.sprtest.auth.credentials.CredentialService;
+import to.grindelf.sprtest.auth.shield.LoginShield;
+import to.grindelf.sprtest.auth.shield.TokenBucketLimiter;
+import to.grindelf.sprtest.auth.shield.UserNameFilter;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.domain.UserStatus;
+import to.grindelf.sprtest.utils.snapshot.UserSnapshot;
+import to.grindelf.sprtest.utils.snapshot.UserSnapshotWriter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MainControllerTest {
+
+    private static final TokenBucketLimiter.Settings UNLIMITED =
+            new TokenBucketLimiter.Settings(Integer.MAX_VALUE, Duration.ofNanos(1), 1);
+
+    private final InMemoryUserDao userDao = new InMemoryUserDao();
+    private CredentialService credentials;
+
+    @AfterEach
+    void tearDown() {
+        credentials.close();
+    }
+
+    @Test
+    void loginOpensTheHomeOfTheUserStatus() throws Exception {
+        credentials = new CredentialService(userDao, settings(Duration.ofSeconds(5)));
+        userDao.save(new User("alice", credentials.hash("secret"), UserStatus.ADMIN));
+        userDao.save(new User("bob", "plain"));
+        MainController controller = controller(null);
+
+        assertEquals("home-admin", login(controller, "alice", "secret", new MockHttpServletResponse()).view());
+        assertEquals("home", login(controller, "bob", "plain", new MockHttpServletResponse()).view());
+
+        Outcome wrong = login(controller, "alice", "wrong", new MockHttpServletResponse());
+        assertEquals("login", wrong.view());
+        assertNotNull(wrong.model().get("error"));
+        assertEquals("login", login(controller, "nobody", "secret", new MockHttpServletResponse()).view());
+    }
+
+    @Test
+    void saturatedVerifierAnswersServiceUnavailable() throws Exception {
+        // No verification finishes within a nanosecond
+        credentials = new CredentialService(userDao, settings(Duration.ofNanos(1)));
+        userDao.save(new User("alice", "pbkdf2-sha512$200000$AAAAAAAAAAAAAAAAAAAAAA$AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA"));
+        MainController controller = controller(null);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Outcome outcome = login(controller, "alice", "secret", response);
+
+        assertEquals("login", outcome.view());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertNotNull(outcome.model().get("error"));
+
+        MockHttpServletResponse signupResponse = new MockHttpServletResponse();
+        assertEquals("signup", controller.signup("bob", "secret", signupResponse, new ExtendedModelMap()));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), signupResponse.getStatus());
+        assertTrue(userDao.users.containsKey("alice"));
+        assertFalse(userDao.users.containsKey("bob"));
+    }
+
+    @Test
+    void takenNameAnswersConflictOnTheSignupPage() throws Exception {
+        credentials = new CredentialService(userDao, settings(Duration.ofSeconds(5)));
+        userDao.save(new User("alice", credentials.hash("secret")));
+        String storedPassword = userDao.users.get("alice").getPassword();
+        MainController controller = controller(null);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ExtendedModelMap model = new ExtendedModelMap();
+
+        assertEquals("signup", controller.signup("alice", "other", response, model));
+        assertEquals(HttpStatus.CONFLICT.value(), response.getStatus());
+        assertNotNull(model.get("error"));
+        assertEquals(storedPassword, userDao.users.get("alice").getPassword());
+
+        MockHttpServletResponse created = new MockHttpServletResponse();
+        assertEquals("login", controller.signup("bob", "secret", created, new ExtendedModelMap()));
+        assertEquals(HttpStatus.OK.value(), created.getStatus());
+        assertTrue(userDao.users.containsKey("bob"));
+    }
+
+    @Test
+    void readOnlyStorageAnswersSignupWithForbidden(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("users.snapshot");
+        UserSnapshotWriter.write(file, List.of(new User("alice", "plain")));
+
+        try (UserSnapshot snapshot = UserSnapshot.open(file)) {
+            SnapshotUserDao snapshotDao = new SnapshotUserDao(snapshot);
+            credentials = new CredentialService(snapshotDao, settings(Duration.ofSeconds(5)));
+            MainController controller = new MainController(
+                    snapshotDao,
+                    credentials,
+                    new LoginShield(new TokenBucketLimiter(UNLIMITED), new TokenBucketLimiter(UNLIMITED), null)
+            );
+
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            ExtendedModelMap model = new ExtendedModelMap();
+
+            assertEquals("signup", controller.signup("bob", "secret", response, model));
+            assertEquals(HttpStatus.FORBIDDEN.value(), response.getStatus());
+            assertNotNull(model.get("error"));
+            assertNull(snapshot.get("bob"));
+            assertEquals("home", login(controller, "alice", "plain", new MockHttpServletResponse()).view());
+        }
+    }
+
+    @Test
+    void throttledLoginAnswersTooManyRequestsWithoutLookingUpTheUser() throws Exception {
+        credentials = new CredentialService(userDao, settings(Duration.ofSeconds(5)));
+        userDao.save(new User("alice", credentials.hash("secret")));
+        TokenBucketLimiter.Settings twoAttempts = new TokenBucketLimiter.Settings(2, Duration.ofMinutes(1), 16);
+        MainController controller = controller(
+                new LoginShield(new TokenBucketLimiter(UNLIMITED), new TokenBucketLimiter(twoAttempts), null));
+
+        assertEquals("login", login(controller, "alice", "wrong", new MockHttpServletResponse()).view());
+        assertEquals("login", login(controller, "alice", "wrong", new MockHttpServletResponse()).view());
+        int lookups = userDao.lookups.get();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Outcome throttled = login(controller, "alice", "secret", response);
+
+        assertEquals("login", throttled.view());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertNotNull(throttled.model().get("error"));
+        assertEquals(lookups, userDao.lookups.get());
+    }
+
+    @Test
+    void unknownNameIsAnsweredLikeAWrongPassword() throws Exception {
+        credentials = new CredentialService(userDao, settings(Duration.ofSeconds(5)));
+        userDao.save(new User("alice", credentials.hash("secret")));
+        UserNameFilter filter = new UserNameFilter(new UserNameFilter.Settings(100, 0.01));
+        filter.add("alice");
+        MainController controller = controller(
+                new LoginShield(new TokenBucketLimiter(UNLIMITED), new TokenBucketLimiter(UNLIMITED), filter));
+
+        Outcome wrong = login(controller, "alice", "wrong", new MockHttpServletResponse());
+        int lookups = userDao.lookups.get();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Outcome unknown = login(controller, "nobody", "secret", response);
+
+        assertEquals("login", unknown.view());
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(wrong.model().get("error"), unknown.model().get("error"));
+        assertEquals(lookups, userDao.lookups.get());
+    }
+
+    private record Outcome(String view, ExtendedModelMap model) {
+    }
+
+    private MainController controller(LoginShield shield) {
+        return new MainController(
+                userDao,
+                credentials,
+                shield != null ? shield : new LoginShield(new TokenBucketLimiter(UNLIMITED), new TokenBucketLimiter(UNLIMITED), null)
+        );
+    }
+
+    private static Outcome login(MainController controller, String name, String password, MockHttpServletResponse response) {
+        ExtendedModelMap model = new ExtendedModelMap();
+        String view = controller.login(name, password, new MockHttpServletRequest(), response, model);
+        return new Outcome(view, model);
+    }
+
+    private static CredentialService.Settings settings(Duration verifyTimeout) {
+        return new CredentialService.Settings(200_000, 1, 4, verifyTimeout, 100, Duration.ofMinutes(1), false);
+    }
+}
@@ -0,0 +1,62 @@
+package to.grindelf.sprtest.apartments;
+
+import org.junit.jupiter.api.Test;
+import to.grindelf.sprtest.domain.Booking;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityIndexTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void bookingsDoNotRegisterTheirApartment() {
+        AvailabilityIndex index = new AvailabilityIndex();
+
+        assertFalse(index.add(new Booking(1L, "phantom", "booker", START, START.plusDays(1))));
+        assertFalse(index.hasApartment("phantom"));
+        assertFalse(index.isFree("phantom", START.plusDays(2), START.plusDays(3)));
+        assertTrue(index.freeApartments(START, START.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void apartmentRegisteredWithBookingsKeepsTheirRangesTaken() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        index.addApartment("apartment", List.of(
+                new Booking(1L, "apartment", "first", START.plusDays(4), START.plusDays(6)),
+                new Booking(2L, "apartment", "second", START, START.plusDays(2))
+        ));
+
+        assertFalse(index.isFree("apartment", START.plusDays(1), START.plusDays(2)));
+        assertTrue(index.isFree("apartment", START.plusDays(2), START.plusDays(4)));
+        assertFalse(index.isFree("apartment", START.plusDays(5), START.plusDays(9)));
+    }
+
+    @Test
+    void answersMatchAScanOfTheBookings() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        index.addApartment("apartment");
+        Random random = new Random(1);
+        List<Booking> bookings = new ArrayList<>();
+
+        for (long id = 0; id < 300; id++) {
+            LocalDate from = START.plusDays(random.nextInt(200));
+            Booking booking = new Booking(id, "apartment", "booker", from, from.plusDays(1 + random.nextInt(10)));
+            assertTrue(index.add(booking));
+            bookings.add(booking);
+            if (random.nextInt(3) == 0) {
+                index.remove(bookings.remove(random.nextInt(bookings.size())));
+            }
+
+            LocalDate queryFrom = START.plusDays(random.nextInt(200));
+            LocalDate queryTo = queryFrom.plusDays(1 + random.nextInt(10));
+            boolean expected = bookings.stream().noneMatch(stored -> stored.overlaps(queryFrom, queryTo));
+            assertEquals(expected, index.isFree("apartment", queryFrom, queryTo));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package to.grindelf.sprtest.apartments;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import to.grindelf.sprtest.domain.Apartment;
+import to.grindelf.sprtest.domain.Booking;
+import to.grindelf.sprtest.exceptions.BookingConflictException;
+import to.grindelf.sprtest.exceptions.NoSuchApartmentException;
+import to.grindelf.sprtest.exceptions.NoSuchBookingException;
+import to.grindelf.sprtest.utils.database.SQLOperator;
+import to.grindelf.sprtest.utils.database.SchemaRegistry;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.database.pool.PoolSettings;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 12, 18);
+
+    @TempDir
+    Path directory;
+
+    private ConnectionPoolRegistry pools;
+    private SchemaRegistry schemas;
+    private String filePath;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        filePath = directory.resolve("apartments.db").toString();
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + filePath);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE bookings (id INTEGER PRIMARY KEY, apartmentId TEXT, bookerName TEXT, dateFrom TEXT, dateTo TEXT, UNIQUE(id))");
+            stmt.execute("INSERT INTO bookings VALUES (3, '37', 'deVitt', '2024-12-18', '2024-12-21')");
+        }
+
+        pools = new ConnectionPoolRegistry(PoolSettings.DEFAULT);
+        schemas = new SchemaRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.close();
+    }
+
+    @Test
+    void bookingsOfUnknownApartmentsAreRejectedAndNeverListed() throws Exception {
+        AvailabilityService service = service();
+
+        // The stored booking of apartment 37 does not make the apartment known
+        assertTrue(service.findFreeApartments(START, START.plusDays(1)).isEmpty());
+        assertFalse(service.isFree("37", START.plusDays(5), START.plusDays(6)));
+
+        assertThrows(
+                NoSuchApartmentException.class,
+                () -> service.book(new Booking(null, "phantom", "booker", START, START.plusDays(1)))
+        );
+        assertTrue(service.findFreeApartments(START, START.plusDays(1)).isEmpty());
+        assertEquals(1, bookingDao().getAll().size());
+    }
+
+    @Test
+    void bookingsAndCancellationsUpdateAvailability() throws Exception {
+        AvailabilityService service = service();
+        service.addApartment(new Apartment("1", "One"));
+        service.addApartment(new Apartment("37", "Thirty seven"));
+
+        assertEquals(Set.of("1"), free(service, START, START.plusDays(1)));
+        assertTrue(service.isFree("37", START.plusDays(3), START.plusDays(5)));
+        assertFalse(service.isFree("37", START.plusDays(2), START.plusDays(5)));
+
+        Booking booked = service.book(new Booking(null, "1", "booker", START, START.plusDays(1)));
+        // The id follows the highest stored one, even though this process never saw it assigned
+        assertEquals(4L, booked.getId());
+        assertThrows(
+                BookingConflictException.class,
+                () -> service.book(new Booking(null, "1", "other", START.minusDays(1), START.plusDays(3)))
+        );
+        assertTrue(service.findFreeApartments(START, START.plusDays(1)).isEmpty());
+
+        service.cancel(3);
+        assertEquals(Set.of("37"), free(service, START, START.plusDays(1)));
+        assertThrows(NoSuchBookingException.class, () -> service.cancel(3));
+
+        // A fresh service rebuilds the same index from the storage
+        assertEquals(Set.of("37"), free(service(), START, START.plusDays(1)));
+    }
+
+    @Test
+    void removedApartmentTakesNoBookings() throws Exception {
+        AvailabilityService service = service();
+        service.addApartment(new Apartment("1", "One"));
+        service.book(new Booking(null, "1", "booker", START, START.plusDays(1)));
+
+        service.removeApartment("1");
+
+        assertThrows(
+                NoSuchApartmentException.class,
+                () -> service.book(new Booking(null, "1", "other", START.plusDays(2), START.plusDays(3)))
+        );
+        assertThrows(NoSuchApartmentException.class, () -> service.removeApartment("1"));
+        // Its remaining booking does not bring it back on reload
+        assertTrue(service().findFreeApartments(START.plusDays(5), START.plusDays(6)).isEmpty());
+    }
+
+    @Test
+    void apartmentDaoTranslatesOperatorExceptions() {
+        SQLApartmentDao apartmentDao = apartmentDao();
+        apartmentDao.save(new Apartment("1", "One"));
+
+        assertThrows(IllegalArgumentException.class, () -> apartmentDao.save(new Apartment("1", "Again")));
+        assertThrows(NoSuchApartmentException.class, () -> apartmentDao.getApartmentById("2"));
+        assertThrows(NoSuchApartmentException.class, () -> apartmentDao.delete("2"));
+        assertThrows(NoSuchBookingException.class, () -> bookingDao().getBookingById(42));
+    }
+
+    private AvailabilityService service() {
+        return new AvailabilityService(apartmentDao(), bookingDao());
+    }
+
+    private SQLApartmentDao apartmentDao() {
+        return new SQLApartmentDao(new SQLOperator<>(pools, schemas), filePath);
+    }
+
+    private SQLBookingDao bookingDao() {
+        return new SQLBookingDao(new SQLOperator<>(pools, schemas), filePath);
+    }
+
+    private static Set<String> free(AvailabilityService service, LocalDate from, LocalDate to) {
+        List<String> free = service.findFreeApartments(from, to);
+        return new HashSet<>(free);
+    }
+}
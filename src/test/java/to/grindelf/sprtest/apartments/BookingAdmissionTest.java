@@ -0,0 +1,241 @@
+package to.grindelf.sprtest.apartments;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import to.grindelf.sprtest.domain.Apartment;
+import to.grindelf.sprtest.domain.Booking;
+import to.grindelf.sprtest.exceptions.BookingConflictException;
+import to.grindelf.sprtest.exceptions.NoSuchApartmentException;
+import to.grindelf.sprtest.utils.database.SQLOperator;
+import to.grindelf.sprtest.utils.database.SchemaRegistry;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.database.pool.PoolSettings;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingAdmissionTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @TempDir
+    Path directory;
+
+    private String file;
+    private ConnectionPoolRegistry pools;
+    private SQLApartmentDao apartmentDao;
+    private SQLBookingDao bookingDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        file = directory.resolve("bookings.db").toString();
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE bookings (id INTEGER PRIMARY KEY, apartmentId TEXT, bookerName TEXT, dateFrom TEXT, dateTo TEXT, UNIQUE(id))");
+        }
+
+        pools = new ConnectionPoolRegistry(PoolSettings.DEFAULT);
+        apartmentDao = new SQLApartmentDao(new SQLOperator<>(pools, new SchemaRegistry()), file);
+        bookingDao = new SQLBookingDao(new SQLOperator<>(pools, new SchemaRegistry()), file);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.close();
+    }
+
+    @Test
+    void concurrentOverlappingBookingsAdmitOnlyOnePerApartment() throws Exception {
+        AvailabilityIndex index = new AvailabilityIndex();
+        BookingAdmission admission = new BookingAdmission(index, apartmentDao, bookingDao);
+        int apartments = 4;
+        int requestsPerApartment = 16;
+        for (int apartment = 0; apartment < apartments; apartment++) {
+            index.addApartment("apartment-" + apartment);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        for (int apartment = 0; apartment < apartments; apartment++) {
+            for (int request = 0; request < requestsPerApartment; request++) {
+                // Every request of an apartment shares the night of START + 3 with every other one
+                Booking booking = new Booking(
+                        null,
+                        "apartment-" + apartment,
+                        "booker-" + request,
+                        START.plusDays(request % 4),
+                        START.plusDays(4 + request % 3)
+                );
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        admission.admit(booking);
+                        return true;
+                    } catch (BookingConflictException e) {
+                        return false;
+                    }
+                }));
+            }
+        }
+
+        start.countDown();
+        int admitted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) {
+                admitted++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(apartments, admitted);
+
+        List<Booking> stored = bookingDao.getAll();
+        assertEquals(apartments, stored.size());
+        assertEquals(apartments, stored.stream().map(Booking::getApartmentId).distinct().count());
+    }
+
+    @Test
+    void adjacentBookingsDoNotConflict() throws Exception {
+        AvailabilityIndex index = new AvailabilityIndex();
+        index.addApartment("apartment");
+        BookingAdmission admission = new BookingAdmission(index, apartmentDao, bookingDao);
+
+        admission.admit(new Booking(null, "apartment", "first", START, START.plusDays(2)));
+        admission.admit(new Booking(null, "apartment", "second", START.plusDays(2), START.plusDays(4)));
+
+        assertThrows(
+                BookingConflictException.class,
+                () -> admission.admit(new Booking(null, "apartment", "third", START.plusDays(1), START.plusDays(3)))
+        );
+        assertEquals(2, bookingDao.getAll().size());
+    }
+
+    @Test
+    void unknownApartmentIsRejectedWithoutStoringTheBooking() {
+        AvailabilityIndex index = new AvailabilityIndex();
+        BookingAdmission admission = new BookingAdmission(index, apartmentDao, bookingDao);
+
+        assertThrows(
+                NoSuchApartmentException.class,
+                () -> admission.admit(new Booking(null, "phantom", "booker", START, START.plusDays(1)))
+        );
+        assertTrue(bookingDao.getAll().isEmpty());
+        assertFalse(index.hasApartment("phantom"));
+        assertTrue(index.freeApartments(START, START.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void retiredApartmentIsNoLongerAdmitted() throws Exception {
+        AvailabilityIndex index = new AvailabilityIndex();
+        BookingAdmission admission = new BookingAdmission(index, apartmentDao, bookingDao);
+        admission.register(new Apartment("apartment", "Apartment"));
+        Booking stored = admission.admit(new Booking(null, "apartment", "first", START, START.plusDays(1)));
+
+        admission.retire("apartment");
+
+        assertThrows(
+                NoSuchApartmentException.class,
+                () -> admission.admit(new Booking(null, "apartment", "second", START.plusDays(2), START.plusDays(3)))
+        );
+        // A booking that outlived its apartment does not register the apartment again
+        assertFalse(index.add(stored));
+        assertFalse(index.hasApartment("apartment"));
+        assertTrue(apartmentDao.getAll().isEmpty());
+        assertThrows(NoSuchApartmentException.class, () -> admission.retire("apartment"));
+    }
+
+    @Test
+    void registeredApartmentKeepsOnlyItsOwnStoredBookings() throws Exception {
+        bookingDao.save(new Booking(null, "apartment", "earlier", START, START.plusDays(2)));
+        bookingDao.save(new Booking(null, "other", "elsewhere", START.plusDays(4), START.plusDays(6)));
+        AvailabilityIndex index = new AvailabilityIndex();
+        BookingAdmission admission = new BookingAdmission(index, apartmentDao, bookingDao);
+
+        admission.register(new Apartment("apartment", "Apartment"));
+
+        assertFalse(index.isFree("apartment", START.plusDays(1), START.plusDays(2)));
+        assertTrue(index.isFree("apartment", START.plusDays(4), START.plusDays(6)));
+        assertFalse(index.hasApartment("other"));
+        assertThrows(
+                BookingConflictException.class,
+                () -> admission.admit(new Booking(null, "apartment", "late", START.plusDays(1), START.plusDays(3)))
+        );
+    }
+
+    @Test
+    void apartmentRetiredWhileItIsRegisteredDoesNotStayInTheIndex() throws Exception {
+        CountDownLatch saved = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        SQLApartmentDao stallingDao = new SQLApartmentDao(new SQLOperator<>(pools, new SchemaRegistry()), file) {
+            @Override
+            public void save(@NotNull Apartment apartment) {
+                super.save(apartment);
+                saved.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        AvailabilityIndex index = new AvailabilityIndex();
+        BookingAdmission admission = new BookingAdmission(index, stallingDao, bookingDao);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<?> register = executor.submit(() -> admission.register(new Apartment("apartment", "Apartment")));
+            assertTrue(saved.await(5, TimeUnit.SECONDS));
+
+            // The apartment is stored but not yet registered; its removal waits for the registration
+            Future<?> retire = executor.submit(() -> {
+                admission.retire("apartment");
+                return null;
+            });
+            Thread.sleep(50);
+            assertFalse(retire.isDone());
+            resume.countDown();
+
+            register.get(5, TimeUnit.SECONDS);
+            retire.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertFalse(index.hasApartment("apartment"));
+        assertTrue(stallingDao.getAll().isEmpty());
+    }
+
+    @Test
+    void storageAssignsIncreasingIds() throws Exception {
+        AvailabilityIndex index = new AvailabilityIndex();
+        index.addApartment("apartment");
+        BookingAdmission admission = new BookingAdmission(index, apartmentDao, bookingDao);
+
+        Booking first = admission.admit(new Booking(null, "apartment", "first", START, START.plusDays(1)));
+        // An id chosen by the caller is ignored
+        Booking second = admission.admit(new Booking(first.getId(), "apartment", "second", START.plusDays(1), START.plusDays(2)));
+
+        assertNotNull(first.getId());
+        assertTrue(second.getId() > first.getId());
+        assertEquals("second", bookingDao.getBookingById(second.getId()).getBookerName());
+        assertEquals("first", bookingDao.getBookingById(first.getId()).getBookerName());
+    }
+}
@@ -0,0 +1,182 @@
+package to.grindelf.sprtest.auth;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingUserDaoTest {
+
+    /**
+     * Storage whose lookups of one name stall after reading, until the test lets them return.
+     */
+    private static final class StallingUserDao extends InMemoryUserDao {
+        private final String stalledName;
+        private final CountDownLatch looked = new CountDownLatch(1);
+        private final CountDownLatch resume = new CountDownLatch(1);
+
+        private StallingUserDao(String stalledName) {
+            this.stalledName = stalledName;
+        }
+
+        @Override
+        public Optional<User> findUserByName(@NotNull String userName) {
+            Optional<User> user = super.findUserByName(userName);
+            if (userName.equals(stalledName) && looked.getCount() > 0) {
+                looked.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return user;
+        }
+    }
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void foundAndUnknownNamesAreServedFromTheCaches() throws Exception {
+        InMemoryUserDao storage = new InMemoryUserDao();
+        storage.save(new User("alice", "a"));
+        CachingUserDao cache = new CachingUserDao(storage);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("a", cache.getUserByName("alice").getPassword());
+            assertThrows(NoSuchUserException.class, () -> cache.getUserByName("mallory"));
+        }
+
+        assertEquals(2, storage.lookups.get());
+        assertEquals(2, cache.getStatistics().users().hitCount());
+        assertEquals(2, cache.getStatistics().unknownNames().hitCount());
+    }
+
+    @Test
+    void writesInvalidateTheName() throws Exception {
+        InMemoryUserDao storage = new InMemoryUserDao();
+        CachingUserDao cache = new CachingUserDao(storage);
+
+        assertTrue(cache.findUserByName("alice").isEmpty());
+        cache.save(new User("alice", "a"));
+        assertEquals("a", cache.getUserByName("alice").getPassword());
+
+        cache.update(new User("alice", "changed"));
+        assertEquals("changed", cache.getUserByName("alice").getPassword());
+
+        cache.delete("alice");
+        assertTrue(cache.findUserByName("alice").isEmpty());
+
+        assertTrue(cache.findUserByName("bob").isEmpty());
+        cache.saveAll(List.of(new User("bob", "b")));
+        assertEquals("b", cache.getUserByName("bob").getPassword());
+    }
+
+    @Test
+    void saveRacingWithTheLookupOfItsNameIsNotHiddenByTheNegativeCache() throws Exception {
+        StallingUserDao storage = new StallingUserDao("alice");
+        CachingUserDao cache = new CachingUserDao(storage);
+
+        Future<Optional<User>> lookup = executor.submit(() -> cache.findUserByName("alice"));
+        assertTrue(storage.looked.await(5, TimeUnit.SECONDS));
+
+        // The save reaches the storage after the lookup read it, and then invalidates the name
+        Future<?> save = executor.submit(() -> {
+            cache.save(new User("alice", "a"));
+            return null;
+        });
+        awaitStored(storage, "alice");
+        Thread.sleep(50);
+        storage.resume.countDown();
+
+        assertTrue(lookup.get(5, TimeUnit.SECONDS).isEmpty());
+        save.get(5, TimeUnit.SECONDS);
+        assertEquals("a", cache.getUserByName("alice").getPassword());
+    }
+
+    @Test
+    void updateRacingWithTheLookupOfItsNameDoesNotLeaveTheOldUserCached() throws Exception {
+        StallingUserDao storage = new StallingUserDao("alice");
+        storage.save(new User("alice", "old"));
+        CachingUserDao cache = new CachingUserDao(storage);
+
+        Future<Optional<User>> lookup = executor.submit(() -> cache.findUserByName("alice"));
+        assertTrue(storage.looked.await(5, TimeUnit.SECONDS));
+
+        Future<?> update = executor.submit(() -> {
+            cache.update(new User("alice", "new"));
+            return null;
+        });
+        while (!storage.users.get("alice").getPassword().equals("new")) {
+            Thread.onSpinWait();
+        }
+        Thread.sleep(50);
+        storage.resume.countDown();
+
+        assertEquals("old", lookup.get(5, TimeUnit.SECONDS).orElseThrow().getPassword());
+        update.get(5, TimeUnit.SECONDS);
+        assertEquals("new", cache.getUserByName("alice").getPassword());
+    }
+
+    @Test
+    void bulkImportRacingWithTheLookupOfANameIsNotHiddenByTheNegativeCache() throws Exception {
+        StallingUserDao storage = new StallingUserDao("alice");
+        CachingUserDao cache = new CachingUserDao(storage);
+
+        Future<Optional<User>> lookup = executor.submit(() -> cache.findUserByName("alice"));
+        assertTrue(storage.looked.await(5, TimeUnit.SECONDS));
+
+        cache.saveAll(List.of(new User("alice", "a"), new User("bob", "b")));
+        storage.resume.countDown();
+
+        assertTrue(lookup.get(5, TimeUnit.SECONDS).isEmpty());
+        assertEquals("a", cache.getUserByName("alice").getPassword());
+    }
+
+    @Test
+    void stalledLookupBlocksNeitherOtherNamesNorWritesOfItsName() throws Exception {
+        StallingUserDao storage = new StallingUserDao("alice");
+        storage.save(new User("alice", "old"));
+        CachingUserDao cache = new CachingUserDao(storage);
+
+        Future<Optional<User>> lookup = executor.submit(() -> cache.findUserByName("alice"));
+        assertTrue(storage.looked.await(5, TimeUnit.SECONDS));
+
+        Future<?> others = executor.submit(() -> {
+            for (int i = 0; i < 100; i++) {
+                cache.save(new User("user-" + i, "p"));
+                assertEquals("p", cache.getUserByName("user-" + i).getPassword());
+                assertTrue(cache.findUserByName("unknown-" + i).isEmpty());
+            }
+            cache.update(new User("alice", "new"));
+            return null;
+        });
+        others.get(5, TimeUnit.SECONDS);
+        storage.resume.countDown();
+
+        assertEquals("old", lookup.get(5, TimeUnit.SECONDS).orElseThrow().getPassword());
+        assertEquals("new", cache.getUserByName("alice").getPassword());
+    }
+
+    private static void awaitStored(InMemoryUserDao storage, String userName) {
+        while (!storage.users.containsKey(userName)) {
+            Thread.onSpinWait();
+        }
+    }
+}
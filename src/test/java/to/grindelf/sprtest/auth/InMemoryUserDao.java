@@ -0,0 +1,88 @@
+package to.grindelf.sprtest.auth;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * User DAO over a sorted map, standing in for a storage backend behind decorating DAOs.
+ * It counts the lookups that reach it.
+ */
+public class InMemoryUserDao implements UserDao<User> {
+
+    public final NavigableMap<String, User> users = new ConcurrentSkipListMap<>();
+    public final AtomicInteger lookups = new AtomicInteger();
+
+    @Override
+    public User getUserByName(@NotNull String userName) throws NoSuchUserException {
+        return findUserByName(userName).orElseThrow(NoSuchUserException::new);
+    }
+
+    @Override
+    public Optional<User> findUserByName(@NotNull String userName) {
+        lookups.incrementAndGet();
+        return Optional.ofNullable(users.get(userName));
+    }
+
+    @Override
+    public List<User> getAll() {
+        return new ArrayList<>(users.values());
+    }
+
+    @Override
+    public List<User> getPage(@Nullable String afterName, int limit) {
+        NavigableMap<String, User> tail = afterName == null ? users : users.tailMap(afterName, false);
+        return tail.values().stream().limit(limit).toList();
+    }
+
+    @Override
+    public Stream<User> stream() {
+        return users.values().stream();
+    }
+
+    @Override
+    public void save(@NotNull User user) throws UserAlreadyExistsException {
+        if (users.putIfAbsent(user.getName(), user) != null) {
+            throw new UserAlreadyExistsException();
+        }
+    }
+
+    @Override
+    public BulkImportReport<String> saveAll(@NotNull Iterable<? extends User> users) {
+        long imported = 0;
+        List<String> conflicts = new ArrayList<>();
+        for (User user : users) {
+            if (this.users.putIfAbsent(user.getName(), user) == null) {
+                imported++;
+            } else {
+                conflicts.add(user.getName());
+            }
+        }
+        return new BulkImportReport<>(imported, conflicts);
+    }
+
+    @Override
+    public void update(@NotNull User user) throws NoSuchUserException {
+        if (users.replace(user.getName(), user) == null) {
+            throw new NoSuchUserException();
+        }
+    }
+
+    @Override
+    public void delete(@NotNull String userName) throws NoSuchUserException {
+        if (users.remove(userName) == null) {
+            throw new NoSuchUserException();
+        }
+    }
+}
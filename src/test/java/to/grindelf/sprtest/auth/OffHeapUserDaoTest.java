@@ -0,0 +1,103 @@
+package to.grindelf.sprtest.auth;
+
+import org.junit.jupiter.api.Test;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.domain.UserStatus;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapUserDaoTest {
+
+    @Test
+    void lookupsAndWritesFollowTheStorage() throws Exception {
+        InMemoryUserDao storage = new InMemoryUserDao();
+        storage.users.put("old", new User("old", "x"));
+        OffHeapUserDao dao = new OffHeapUserDao(storage);
+
+        assertEquals("x", dao.getUserByName("old").getPassword());
+        assertThrows(NoSuchUserException.class, () -> dao.getUserByName("missing"));
+        assertThrows(UserAlreadyExistsException.class, () -> dao.save(new User("old", "y")));
+        assertEquals("x", dao.getUserByName("old").getPassword());
+
+        dao.save(new User("new", "a"));
+        dao.update(new User("new", "longer", UserStatus.ADMIN));
+        assertEquals(UserStatus.ADMIN, dao.getUserByName("new").getStatus());
+        assertThrows(NoSuchUserException.class, () -> dao.update(new User("missing", "q")));
+        assertThrows(NoSuchUserException.class, () -> dao.getUserByName("missing"));
+
+        dao.delete("new");
+        assertTrue(dao.findUserByName("new").isEmpty());
+        assertFalse(storage.users.containsKey("new"));
+        // Unknown names are answered by the table alone
+        int lookups = storage.lookups.get();
+        assertTrue(dao.findUserByName("unknown").isEmpty());
+        assertEquals(lookups, storage.lookups.get());
+    }
+
+    @Test
+    void importAddsOnlyTheImportedUsers() throws Exception {
+        InMemoryUserDao storage = new InMemoryUserDao();
+        storage.users.put("old", new User("old", "x"));
+        OffHeapUserDao dao = new OffHeapUserDao(storage);
+
+        BulkImportReport<String> report = dao.saveAll(List.of(
+                new User("first", "a"),
+                new User("first", "b"),
+                new User("old", "z"),
+                new User("second", "c")
+        ));
+
+        assertEquals(2, report.imported());
+        assertEquals(List.of("first", "old"), report.conflicts());
+        assertEquals("a", dao.getUserByName("first").getPassword());
+        assertEquals("x", dao.getUserByName("old").getPassword());
+        assertEquals("c", dao.getUserByName("second").getPassword());
+    }
+
+    @Test
+    void largeImportIsStreamedInBoundedChunks() throws Exception {
+        ChunkRecordingUserDao storage = new ChunkRecordingUserDao();
+        OffHeapUserDao dao = new OffHeapUserDao(storage);
+
+        // Read once from a stream, so nothing but the DAO can have buffered it; one name repeats across chunks
+        try (Stream<User> users = Stream.concat(
+                IntStream.range(0, 2500).mapToObj(i -> new User("user-" + i, "password-" + i)),
+                Stream.of(new User("user-0", "again"))
+        )) {
+            BulkImportReport<String> report = dao.saveAll(users::iterator);
+
+            assertEquals(2500, report.imported());
+            assertEquals(List.of("user-0"), report.conflicts());
+        }
+
+        assertEquals(List.of(1024, 1024, 453), storage.chunks);
+        assertEquals(2500, dao.getStatistics().users());
+        assertEquals("password-0", dao.getUserByName("user-0").getPassword());
+        assertEquals("password-2499", dao.getUserByName("user-2499").getPassword());
+        assertEquals(0, dao.saveAll(List.of()).imported());
+    }
+
+    /**
+     * Storage that records the size of every bulk import it receives.
+     */
+    private static final class ChunkRecordingUserDao extends InMemoryUserDao {
+
+        final List<Integer> chunks = new ArrayList<>();
+
+        @Override
+        public BulkImportReport<String> saveAll(Iterable<? extends User> users) {
+            List<User> chunk = new ArrayList<>();
+            users.forEach(chunk::add);
+            chunks.add(chunk.size());
+            return super.saveAll(chunk);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package to.grindelf.sprtest.auth;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.domain.UserStatus;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.utils.database.SQLOperator;
+import to.grindelf.sprtest.utils.database.SchemaRegistry;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.database.pool.PoolSettings;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SQLUserDaoTest {
+
+    @TempDir
+    Path directory;
+
+    private ConnectionPoolRegistry pools;
+    private SQLUserDao userDao;
+    private String filePath;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Path file = directory.resolve("users.db");
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE users (name TEXT PRIMARY KEY, password TEXT NOT NULL, status TEXT)");
+        }
+
+        filePath = file.toString();
+        pools = new ConnectionPoolRegistry(PoolSettings.DEFAULT);
+        userDao = new SQLUserDao(new SQLOperator<>(pools, new SchemaRegistry()), filePath);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.close();
+    }
+
+    // ======================================================== \\
+    //                   SINGLE-ROW WRITES                      \\
+    // ======================================================== \\
+
+    @Test
+    void duplicateNameIsReportedAndLeavesTheStoredUserAlone() throws Exception {
+        userDao.save(new User("alice", "first", UserStatus.ADMIN));
+
+        assertThrows(UserAlreadyExistsException.class, () -> userDao.save(new User("alice", "second")));
+
+        User stored = userDao.getUserByName("alice");
+        assertEquals("first", stored.getPassword());
+        assertTrue(stored.isAdmin());
+        assertEquals(1, userDao.getAll().size());
+    }
+
+    @Test
+    void otherConstraintViolationsAreNotReportedAsDuplicates() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> userDao.save(new User("bob", null, UserStatus.JUST_USER)));
+        assertInstanceOf(SQLException.class, e.getCause());
+        assertTrue(userDao.findUserByName("bob").isEmpty());
+    }
+
+    @Test
+    void missingRowsAreReportedByUpdateAndDelete() throws Exception {
+        assertThrows(NoSuchUserException.class, () -> userDao.update(new User("carol", "secret")));
+        assertThrows(NoSuchUserException.class, () -> userDao.delete("carol"));
+
+        userDao.save(new User("carol", "secret"));
+        userDao.update(new User("carol", "changed"));
+        assertEquals("changed", userDao.getUserByName("carol").getPassword());
+
+        userDao.delete("carol");
+        assertThrows(NoSuchUserException.class, () -> userDao.getUserByName("carol"));
+        assertThrows(NoSuchUserException.class, () -> userDao.delete("carol"));
+    }
+
+    // ======================================================== \\
+    //                     KEYSET PAGES                         \\
+    // ======================================================== \\
+
+    @Test
+    void pagesStartStrictlyAfterTheGivenName() {
+        userDao.saveAll(users("e", "c", "a", "d", "b"));
+
+        assertEquals(List.of("a", "b"), names(userDao.getPage(null, 2)));
+        assertEquals(List.of("c", "d"), names(userDao.getPage("b", 2)));
+        assertEquals(List.of("e"), names(userDao.getPage("d", 2)));
+        assertEquals(List.of(), names(userDao.getPage("e", 2)));
+
+        // The name after which a page starts does not have to exist
+        assertEquals(List.of("c", "d", "e"), names(userDao.getPage("bb", 10)));
+        assertEquals(List.of("a"), names(userDao.getPage("", 1)));
+
+        assertThrows(IllegalArgumentException.class, () -> userDao.getPage(null, 0));
+    }
+
+    @Test
+    void walkingPagesVisitsEveryUserOnceDespiteConcurrentDeletes() throws Exception {
+        List<User> stored = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            stored.add(new User(String.format("user-%02d", i), "p"));
+        }
+        userDao.saveAll(stored);
+
+        List<String> visited = new ArrayList<>();
+        List<User> page = userDao.getPage(null, 10);
+        while (!page.isEmpty()) {
+            visited.addAll(names(page));
+            if (visited.size() == 10) {
+                // Deleting the last name of a page does not shift the next page
+                userDao.delete("user-09");
+            }
+            page = userDao.getPage(visited.getLast(), 10);
+        }
+
+        assertEquals(25, visited.size());
+        assertEquals(visited.stream().sorted().toList(), visited);
+    }
+
+    @Test
+    void closingAStreamEarlyReleasesItsReader() {
+        userDao.saveAll(users("c", "a", "b"));
+
+        try (Stream<User> users = userDao.stream()) {
+            assertEquals(List.of("a", "b"), names(users.limit(2).toList()));
+            assertEquals(1, pools.poolFor(filePath).metrics().activeReaders());
+        }
+        assertEquals(0, pools.poolFor(filePath).metrics().activeReaders());
+
+        assertEquals(List.of("a", "b", "c"), names(userDao.getAll()));
+        assertEquals(0, pools.poolFor(filePath).metrics().activeReaders());
+    }
+
+    private static List<User> users(String... names) {
+        return Arrays.stream(names).map(name -> new User(name, "p")).toList();
+    }
+
+    private static List<String> names(List<User> users) {
+        return users.stream().map(User::getName).toList();
+    }
+}
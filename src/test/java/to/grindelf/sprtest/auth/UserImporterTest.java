@@ -0,0 +1,129 @@
+package to.grindelf.sprtest.auth;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.utils.BulkImportReport;
+import to.grindelf.sprtest.utils.BulkImportSettings;
+import to.grindelf.sprtest.utils.database.SQLOperator;
+import to.grindelf.sprtest.utils.database.SchemaRegistry;
+import to.grindelf.sprtest.utils.database.pool.ConnectionPoolRegistry;
+import to.grindelf.sprtest.utils.database.pool.PoolSettings;
+import to.grindelf.sprtest.utils.json.JsonIndexedStore;
+import to.grindelf.sprtest.utils.json.JsonOperator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImporterTest {
+
+    private static final String CSV = """
+            name,password,status
+            alice,a,admin
+            bob,b,just_user
+            alice,again,just_user
+            carol,c,JUST_USER
+            dave,d,just_user
+            bob,again,admin
+            """;
+
+    @TempDir
+    Path directory;
+
+    private ConnectionPoolRegistry pools;
+    private SQLUserDao userDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Path file = directory.resolve("users.db");
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE users (name TEXT PRIMARY KEY, password TEXT NOT NULL, status TEXT)");
+        }
+
+        pools = new ConnectionPoolRegistry(PoolSettings.DEFAULT);
+        // Batches of two rows, so that conflicts fall into different batches
+        userDao = new SQLUserDao(
+                new SQLOperator<>(pools, new SchemaRegistry()),
+                file.toString(),
+                new BulkImportSettings(2, false)
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.close();
+    }
+
+    @Test
+    void csvConflictsAreReportedInFileOrder() throws Exception {
+        userDao.save(new User("dave", "stored"));
+
+        BulkImportReport<String> report = new UserImporter(userDao).importCsv(write("users.csv", CSV));
+
+        assertEquals(3, report.imported());
+        assertEquals(List.of("alice", "dave", "bob"), report.conflicts());
+        assertTrue(userDao.getUserByName("alice").isAdmin());
+        assertEquals("b", userDao.getUserByName("bob").getPassword());
+        assertEquals("stored", userDao.getUserByName("dave").getPassword());
+        assertEquals(4, userDao.getAll().size());
+    }
+
+    @Test
+    void failedImportLeavesNothingBehind() throws Exception {
+        Path file = write("users.csv", "alice,a,admin\nbob,b,just_user\ncarol,c,superuser\n");
+
+        assertThrows(IllegalArgumentException.class, () -> new UserImporter(userDao).importCsv(file));
+        assertTrue(userDao.getAll().isEmpty());
+
+        assertThrows(RuntimeException.class, () -> userDao.saveAll(List.of(
+                new User("alice", "a"),
+                new User("bob", "b"),
+                new User("carol", null, "just_user")
+        )));
+        assertTrue(userDao.getAll().isEmpty());
+    }
+
+    @Test
+    void jsonImportIntoJsonStoreReportsTheSameConflicts() throws Exception {
+        JsonOperator<User, String> operator = new JsonOperator<>(new TypeReference<List<User>>() {});
+        Path source = directory.resolve("import.json");
+        operator.writeToFile(source.toString(), List.of(
+                new User("alice", "a"),
+                new User("bob", "b"),
+                new User("alice", "again"),
+                new User("dave", "d")
+        ));
+
+        try (JsonIndexedStore<User, String> store = new JsonIndexedStore<>(
+                operator,
+                directory.resolve("users.json").toString(),
+                User::getName
+        )) {
+            JsonUserDao jsonDao = new JsonUserDao(store);
+            jsonDao.save(new User("dave", "stored"));
+
+            BulkImportReport<String> report = new UserImporter(jsonDao, operator).importJson(source);
+
+            assertEquals(2, report.imported());
+            assertEquals(List.of("alice", "dave"), report.conflicts());
+            assertEquals("a", jsonDao.getUserByName("alice").getPassword());
+            assertEquals("stored", jsonDao.getUserByName("dave").getPassword());
+        }
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content);
+    }
+}
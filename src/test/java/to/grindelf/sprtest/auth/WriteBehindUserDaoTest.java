@@ -0,0 +1,240 @@
+package to.grindelf.sprtest.auth;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.NoSuchUserException;
+import to.grindelf.sprtest.exceptions.UserAlreadyExistsException;
+import to.grindelf.sprtest.utils.BulkImportReport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindUserDaoTest {
+
+    private static final long SEGMENT_BYTES = 256;
+
+    @TempDir
+    Path directory;
+
+    private WriteBehindUserDao writeBehind;
+
+    @AfterEach
+    void tearDown() {
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+    }
+
+    @Test
+    void pendingWritesAreVisibleAndReplacedUpdatesAreDropped() throws Exception {
+        InMemoryUserDao storage = new InMemoryUserDao();
+        writeBehind = new WriteBehindUserDao(storage, settings(Duration.ofMillis(200)));
+
+        writeBehind.save(new User("alice", "first"));
+        assertEquals("first", writeBehind.getUserByName("alice").getPassword());
+        assertThrows(UserAlreadyExistsException.class, () -> writeBehind.save(new User("alice", "again")));
+
+        writeBehind.update(new User("alice", "second"));
+        writeBehind.update(new User("alice", "third"));
+        assertEquals("third", writeBehind.getUserByName("alice").getPassword());
+
+        writeBehind.save(new User("bob", "secret"));
+        writeBehind.delete("bob");
+        assertThrows(NoSuchUserException.class, () -> writeBehind.getUserByName("bob"));
+        assertThrows(NoSuchUserException.class, () -> writeBehind.update(new User("bob", "other")));
+
+        writeBehind.flush();
+
+        assertEquals("third", storage.users.get("alice").getPassword());
+        assertFalse(storage.users.containsKey("bob"));
+        WriteBehindUserDao.Statistics statistics = writeBehind.getStatistics();
+        assertEquals(5, statistics.admitted());
+        assertEquals(5, statistics.applied());
+        // All writes fall into one batch, where the second update replaces the first
+        assertEquals(1, statistics.coalesced());
+        assertEquals(0, statistics.conflicts());
+        assertEquals(0, statistics.pending());
+    }
+
+    @Test
+    void concurrentSignupsAreAllApplied() throws Exception {
+        InMemoryUserDao storage = new InMemoryUserDao();
+        writeBehind = new WriteBehindUserDao(storage, settings(Duration.ofMillis(20)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> signups = Stream.iterate(0, i -> i + 1).limit(500)
+                .<Future<?>>map(i -> executor.submit(() -> {
+                    writeBehind.save(new User("user-" + i, "secret"));
+                    return null;
+                }))
+                .toList();
+        for (Future<?> signup : signups) {
+            signup.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(500, writeBehind.getAll().size());
+        assertEquals(500, storage.users.size());
+        assertTrue(writeBehind.getStatistics().batches() < 500);
+    }
+
+    @Test
+    void logStaysBoundedByThePendingWrites() throws Exception {
+        InMemoryUserDao storage = new InMemoryUserDao();
+        WriteBehindUserDao.Settings settings = settings(Duration.ofMillis(1));
+        writeBehind = new WriteBehindUserDao(storage, settings);
+
+        writeBehind.save(new User("alice", "0"));
+        long maxLogBytes = 0;
+        for (int i = 1; i <= 2000; i++) {
+            writeBehind.update(new User("alice", String.valueOf(i)));
+            maxLogBytes = Math.max(maxLogBytes, logBytes());
+        }
+        writeBehind.flush();
+
+        assertEquals("2000", storage.users.get("alice").getPassword());
+        // Each entry takes less than 128 bytes; the updates together take about 200 KB
+        long bound = settings.queueCapacity() * 128L + 2 * SEGMENT_BYTES;
+        assertTrue(maxLogBytes <= bound, "Log grew to " + maxLogBytes + " bytes");
+
+        writeBehind.close();
+        writeBehind = null;
+        assertEquals(List.of(), segments());
+    }
+
+    @Test
+    void unappliedSegmentsAreReplayedInOrderOnStart() throws Exception {
+        FailingUserDao failing = new FailingUserDao();
+        writeBehind = new WriteBehindUserDao(failing, settings(Duration.ofMillis(1)));
+        failing.users.put("alice", new User("alice", "0"));
+        failing.users.put("bob", new User("bob", "secret"));
+        failing.failing = true;
+
+        writeBehind.save(new User("carol", "secret"));
+        for (int i = 1; i <= 10; i++) {
+            writeBehind.update(new User("alice", String.valueOf(i)));
+        }
+        writeBehind.delete("bob");
+        // The writer gives up on the failing batch, which stays in the log
+        writeBehind.close();
+        writeBehind = null;
+        assertTrue(segments().size() > 1);
+
+        InMemoryUserDao storage = new InMemoryUserDao();
+        storage.users.putAll(failing.users);
+        writeBehind = new WriteBehindUserDao(storage, settings(Duration.ofMillis(1)));
+        writeBehind.flush();
+
+        assertEquals("10", storage.users.get("alice").getPassword());
+        assertEquals("secret", storage.users.get("carol").getPassword());
+        assertFalse(storage.users.containsKey("bob"));
+    }
+
+    @Test
+    void tornTailIsCutOffAndLaterWritesGoToANewSegment() throws Exception {
+        InMemoryUserDao storage = new InMemoryUserDao();
+        storage.users.put("alice", new User("alice", "secret"));
+
+        Path first = directory.resolve("pending.log.1");
+        Path second = directory.resolve("pending.log.2");
+        Files.writeString(first, "{\"op\":\"save\",\"name\":\"ryan\",\"value\":{\"name\":\"ryan\",\"password\":\"x\",\"status\":\"ADMIN\"}}\n");
+        byte[] complete = "{\"op\":\"delete\",\"name\":\"alice\"}\n".getBytes(StandardCharsets.UTF_8);
+        byte[] torn = "{\"op\":\"save\",\"name\":\"ünter".getBytes(StandardCharsets.UTF_8);
+        // The crash hit the middle of the two-byte "ü"
+        byte[] log = Arrays.copyOf(complete, complete.length + 13);
+        System.arraycopy(torn, 0, log, complete.length, 13);
+        Files.write(second, log);
+
+        writeBehind = new WriteBehindUserDao(storage, settings(Duration.ofMillis(200)));
+
+        assertEquals(complete.length, Files.size(second));
+        assertEquals("x", writeBehind.getUserByName("ryan").getPassword());
+        assertThrows(NoSuchUserException.class, () -> writeBehind.getUserByName("alice"));
+
+        writeBehind.save(new User("zoe", "secret"));
+        assertTrue(Files.size(directory.resolve("pending.log.3")) > 0);
+
+        writeBehind.flush();
+        assertTrue(storage.users.get("ryan").isAdmin());
+        assertFalse(storage.users.containsKey("alice"));
+        assertTrue(storage.users.containsKey("zoe"));
+    }
+
+    private WriteBehindUserDao.Settings settings(Duration maxStaleness) {
+        return new WriteBehindUserDao.Settings(
+                64,
+                32,
+                maxStaleness,
+                Duration.ofSeconds(5),
+                Duration.ofMillis(10),
+                directory.resolve("pending.log"),
+                false,
+                SEGMENT_BYTES
+        );
+    }
+
+    private long logBytes() throws IOException {
+        long bytes = 0;
+        for (Path segment : segments()) {
+            try {
+                bytes += Files.size(segment);
+            } catch (NoSuchFileException e) {
+                // Dropped by the writer in the meantime
+            }
+        }
+        return bytes;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("pending.log.")).toList();
+        }
+    }
+
+    /**
+     * Storage that refuses every write while {@link #failing} is set.
+     */
+    private static final class FailingUserDao extends InMemoryUserDao {
+
+        volatile boolean failing;
+
+        @Override
+        public BulkImportReport<String> saveAll(Iterable<? extends User> users) {
+            check();
+            return super.saveAll(users);
+        }
+
+        @Override
+        public void update(User user) throws NoSuchUserException {
+            check();
+            super.update(user);
+        }
+
+        @Override
+        public void delete(String userName) throws NoSuchUserException {
+            check();
+            super.delete(userName);
+        }
+
+        private void check() {
+            if (failing) {
+                throw new IllegalStateException("Storage is unavailable.");
+            }
+        }
+    }
+}
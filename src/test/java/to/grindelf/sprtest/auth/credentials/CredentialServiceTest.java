@@ -0,0 +1,95 @@
+package to.grindelf.sprtest.auth.credentials;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import to.grindelf.sprtest.auth.InMemoryUserDao;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.domain.UserStatus;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialServiceTest {
+
+    private static final int ITERATIONS = 1_000;
+
+    private final InMemoryUserDao userDao = new InMemoryUserDao();
+    private CredentialService credentials;
+
+    @AfterEach
+    void tearDown() {
+        credentials.close();
+    }
+
+    @Test
+    void plaintextPasswordIsHashedOnFirstSuccessfulLogin() throws Exception {
+        credentials = new CredentialService(userDao, settings(ITERATIONS, Duration.ofSeconds(5), true));
+        User legacy = new User("alice", "secret", UserStatus.ADMIN);
+        userDao.save(legacy);
+
+        assertFalse(credentials.verify(legacy, "wrong"));
+        assertEquals("secret", userDao.getUserByName("alice").getPassword());
+
+        assertTrue(credentials.verify(legacy, "secret"));
+        User upgraded = userDao.getUserByName("alice");
+        assertTrue(upgraded.getPassword().startsWith("pbkdf2-sha512$" + ITERATIONS + "$"));
+        assertTrue(upgraded.isAdmin());
+        assertTrue(credentials.verify(upgraded, "secret"));
+        assertFalse(credentials.verify(upgraded, "wrong"));
+    }
+
+    @Test
+    void hashOfAnotherWorkFactorIsRehashedOnLogin() throws Exception {
+        credentials = new CredentialService(userDao, settings(ITERATIONS, Duration.ofSeconds(5), true));
+        User older = new User("alice", new PasswordHasher(ITERATIONS / 2).hash("secret"));
+        userDao.save(older);
+
+        assertTrue(credentials.verify(older, "secret"));
+
+        String rehashed = userDao.getUserByName("alice").getPassword();
+        assertTrue(rehashed.startsWith("pbkdf2-sha512$" + ITERATIONS + "$"));
+
+        // A current hash is left alone
+        assertTrue(credentials.verify(userDao.getUserByName("alice"), "secret"));
+        assertEquals(rehashed, userDao.getUserByName("alice").getPassword());
+    }
+
+    @Test
+    void upgradeCanBeDisabled() throws Exception {
+        credentials = new CredentialService(userDao, settings(ITERATIONS, Duration.ofSeconds(5), false));
+        User legacy = new User("alice", "secret");
+        userDao.save(legacy);
+
+        assertTrue(credentials.verify(legacy, "secret"));
+        assertEquals("secret", userDao.getUserByName("alice").getPassword());
+    }
+
+    @Test
+    void successfulVerificationsAreRememberedPerStoredHash() throws Exception {
+        credentials = new CredentialService(userDao, settings(ITERATIONS, Duration.ofSeconds(5), false));
+        User user = new User("alice", credentials.hash("secret"));
+
+        assertTrue(credentials.verify(user, "secret"));
+        assertTrue(credentials.verify(user, "secret"));
+        assertFalse(credentials.verify(user, "wrong"));
+        assertEquals(1, credentials.getCacheStatistics().hitCount());
+
+        // A changed password does not match the remembered verification of the old one
+        User changed = new User("alice", credentials.hash("other"));
+        assertFalse(credentials.verify(changed, "secret"));
+    }
+
+    @Test
+    void verificationThatDoesNotFinishInTimeIsRejected() {
+        credentials = new CredentialService(userDao, settings(200_000, Duration.ofNanos(1), false));
+        User user = new User("alice", "pbkdf2-sha512$200000$AAAAAAAAAAAAAAAAAAAAAA$AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA");
+
+        assertThrows(RejectedExecutionException.class, () -> credentials.verify(user, "secret"));
+    }
+
+    private static CredentialService.Settings settings(int iterations, Duration verifyTimeout, boolean upgrade) {
+        return new CredentialService.Settings(iterations, 1, 4, verifyTimeout, 100, Duration.ofMinutes(1), upgrade);
+    }
+}
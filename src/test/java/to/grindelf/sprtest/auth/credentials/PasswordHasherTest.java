@@ -0,0 +1,67 @@
+package to.grindelf.sprtest.auth.credentials;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private final PasswordHasher hasher = new PasswordHasher(1_000);
+
+    @Test
+    void hashVerifiesOnlyItsPassword() {
+        String stored = hasher.hash("secret");
+
+        assertTrue(stored.startsWith("pbkdf2-sha512$1000$"));
+        assertTrue(PasswordHasher.isHashed(stored));
+        assertTrue(hasher.verify("secret", stored));
+        assertFalse(hasher.verify("Secret", stored));
+        assertFalse(hasher.verify("", stored));
+    }
+
+    @Test
+    void everyHashHasItsOwnSalt() {
+        String first = hasher.hash("secret");
+        String second = hasher.hash("secret");
+
+        assertNotEquals(first, second);
+        assertTrue(hasher.verify("secret", first));
+        assertTrue(hasher.verify("secret", second));
+    }
+
+    @Test
+    void hashesOfAnotherWorkFactorStillVerifyButNeedRehash() {
+        String older = new PasswordHasher(500).hash("secret");
+
+        assertTrue(hasher.verify("secret", older));
+        assertTrue(hasher.needsRehash(older));
+        assertFalse(hasher.needsRehash(hasher.hash("secret")));
+        // A count that merely starts with the configured one is another work factor
+        assertTrue(hasher.needsRehash(new PasswordHasher(10_000).hash("secret")));
+    }
+
+    @Test
+    void plaintextIsComparedAndNeedsRehash() {
+        assertFalse(PasswordHasher.isHashed("secret"));
+        assertTrue(hasher.verify("secret", "secret"));
+        assertFalse(hasher.verify("secret", "secret "));
+        assertTrue(hasher.needsRehash("secret"));
+    }
+
+    @Test
+    void malformedHashesNeverVerify() {
+        String stored = hasher.hash("secret");
+        String[] parts = stored.split("\\$");
+
+        assertFalse(hasher.verify("secret", "pbkdf2-sha512$1000$" + parts[2]));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha512$many$" + parts[2] + "$" + parts[3]));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha512$0$" + parts[2] + "$" + parts[3]));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha512$1000$%%%$" + parts[3]));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha512$999$" + parts[2] + "$" + parts[3]));
+    }
+
+    @Test
+    void workFactorMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(0));
+    }
+}
@@ -0,0 +1,65 @@
+package to.grindelf.sprtest.auth.shield;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginShieldTest {
+
+    private final TokenBucketLimiter addresses = limiter(3);
+    private final TokenBucketLimiter names = limiter(2);
+    private final UserNameFilter filter = new UserNameFilter(new UserNameFilter.Settings(100, 0.01));
+
+    @Test
+    void knownNameIsAdmittedUntilItsBucketIsEmpty() {
+        filter.add("alice");
+        LoginShield shield = new LoginShield(addresses, names, filter);
+
+        assertEquals(LoginShield.Verdict.ADMITTED, shield.check("10.0.0.1", "alice"));
+        assertEquals(LoginShield.Verdict.ADMITTED, shield.check("10.0.0.2", "alice"));
+        assertEquals(LoginShield.Verdict.NAME_THROTTLED, shield.check("10.0.0.3", "alice"));
+        assertTrue(LoginShield.Verdict.NAME_THROTTLED.isThrottled());
+    }
+
+    @Test
+    void unknownNameIsTurnedAwayWithoutTakingANameToken() {
+        filter.add("alice");
+        LoginShield shield = new LoginShield(addresses, names, filter);
+
+        assertEquals(LoginShield.Verdict.UNKNOWN_NAME, shield.check("10.0.0.1", "nobody"));
+        assertFalse(LoginShield.Verdict.UNKNOWN_NAME.isThrottled());
+
+        LoginShield.Statistics statistics = shield.getStatistics();
+        assertEquals(new TokenBucketLimiter.Statistics(1, 0), statistics.addresses());
+        assertEquals(new TokenBucketLimiter.Statistics(0, 0), statistics.names());
+        assertNotNull(statistics.filter());
+        assertEquals(1, statistics.filter().rejected());
+    }
+
+    @Test
+    void addressIsThrottledBeforeTheNameIsChecked() {
+        LoginShield shield = new LoginShield(addresses, names, filter);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(LoginShield.Verdict.UNKNOWN_NAME, shield.check("10.0.0.1", "nobody-" + i));
+        }
+        assertEquals(LoginShield.Verdict.ADDRESS_THROTTLED, shield.check("10.0.0.1", "nobody"));
+        assertEquals(3, shield.getStatistics().filter().rejected());
+    }
+
+    @Test
+    void withoutFilterEveryNameTakesANameToken() {
+        LoginShield shield = new LoginShield(addresses, names, null);
+
+        assertEquals(LoginShield.Verdict.ADMITTED, shield.check("10.0.0.1", "nobody"));
+        assertEquals(new TokenBucketLimiter.Statistics(1, 0), shield.getStatistics().names());
+        assertNull(shield.getStatistics().filter());
+    }
+
+    private static TokenBucketLimiter limiter(int burst) {
+        // A clock that never moves, so no bucket refills during the test
+        return new TokenBucketLimiter(new TokenBucketLimiter.Settings(burst, Duration.ofMinutes(1), 1 << 16), () -> 0L);
+    }
+}
@@ -0,0 +1,73 @@
+package to.grindelf.sprtest.auth.shield;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+
+    // Far from zero, so times relative to the creation are tested with a negative clock
+    private final AtomicLong now = new AtomicLong(-5_000_000_000L);
+
+    @Test
+    void fullBucketAdmitsTheBurstAndThenOneTokenPerRefill() {
+        TokenBucketLimiter limiter = limiter(3);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("client"));
+        }
+        assertFalse(limiter.tryAcquire("client"));
+
+        now.addAndGet(Duration.ofMillis(999).toNanos());
+        assertFalse(limiter.tryAcquire("client"));
+
+        now.addAndGet(Duration.ofMillis(1).toNanos());
+        assertTrue(limiter.tryAcquire("client"));
+        assertFalse(limiter.tryAcquire("client"));
+
+        assertEquals(new TokenBucketLimiter.Statistics(4, 3), limiter.getStatistics());
+    }
+
+    @Test
+    void idleBucketRefillsOnlyUpToTheBurst() {
+        TokenBucketLimiter limiter = limiter(3);
+        limiter.tryAcquire("client");
+
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("client"));
+        }
+        assertFalse(limiter.tryAcquire("client"));
+    }
+
+    @Test
+    void keysInDifferentBucketsAreLimitedSeparately() {
+        // Enough buckets that two keys almost never share one
+        TokenBucketLimiter limiter = new TokenBucketLimiter(
+                new TokenBucketLimiter.Settings(1, Duration.ofSeconds(1), 1 << 20), now::get);
+
+        int admitted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (limiter.tryAcquire("client-" + i)) {
+                admitted++;
+            }
+        }
+
+        assertTrue(admitted >= 99, "Admitted " + admitted);
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter.Settings(0, Duration.ofSeconds(1), 16));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter.Settings(1, Duration.ZERO, 16));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter.Settings(1, Duration.ofSeconds(1), 0));
+    }
+
+    private TokenBucketLimiter limiter(int burst) {
+        return new TokenBucketLimiter(new TokenBucketLimiter.Settings(burst, Duration.ofSeconds(1), 16), now::get);
+    }
+}
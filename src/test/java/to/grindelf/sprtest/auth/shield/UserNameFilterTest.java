@@ -0,0 +1,59 @@
+package to.grindelf.sprtest.auth.shield;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserNameFilterTest {
+
+    private static final int NAMES = 100_000;
+
+    @Test
+    void addedNamesAreNeverReportedAbsent() {
+        UserNameFilter filter = new UserNameFilter(new UserNameFilter.Settings(NAMES, 0.01));
+        for (int i = 0; i < NAMES; i++) {
+            filter.add("user-" + i);
+        }
+
+        for (int i = 0; i < NAMES; i++) {
+            assertTrue(filter.mightContain("user-" + i));
+        }
+        assertEquals(NAMES, filter.getStatistics().added());
+        assertEquals(0, filter.getStatistics().rejected());
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheConfiguredRate() {
+        UserNameFilter filter = new UserNameFilter(new UserNameFilter.Settings(NAMES, 0.01));
+        for (int i = 0; i < NAMES; i++) {
+            filter.add("user-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < NAMES; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // 1% expected; the bound leaves room for the randomly seeded hash
+        assertTrue(falsePositives < NAMES * 0.015, "False positives: " + falsePositives);
+        assertEquals(NAMES - falsePositives, filter.getStatistics().rejected());
+    }
+
+    @Test
+    void emptyFilterReportsEveryNameAbsent() {
+        UserNameFilter filter = new UserNameFilter(UserNameFilter.Settings.DEFAULT);
+
+        assertFalse(filter.mightContain("alice"));
+        assertFalse(filter.mightContain(""));
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new UserNameFilter.Settings(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new UserNameFilter.Settings(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new UserNameFilter.Settings(10, 1));
+        assertThrows(IllegalArgumentException.class, () -> new UserNameFilter.Settings(10, Double.NaN));
+    }
+}
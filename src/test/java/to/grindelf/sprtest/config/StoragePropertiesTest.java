@@ -0,0 +1,38 @@
+package to.grindelf.sprtest.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.NestedExceptionUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoragePropertiesTest {
+
+    @Test
+    void snapshotBackendCannotExportOnStartup() {
+        BindException failure = assertThrows(BindException.class, () -> bind(Map.of(
+                "sprtest.storage.backend", "snapshot",
+                "sprtest.storage.snapshot.export-on-startup", "true"
+        )));
+
+        assertInstanceOf(IllegalArgumentException.class, NestedExceptionUtils.getMostSpecificCause(failure));
+    }
+
+    @Test
+    void otherBackendsMayExportOnStartup() {
+        StorageProperties properties = bind(Map.of("sprtest.storage.snapshot.export-on-startup", "true"));
+
+        assertEquals(StorageProperties.Backend.SQLITE, properties.backend());
+        assertTrue(properties.snapshot().exportOnStartup());
+        assertEquals(StorageProperties.Backend.SNAPSHOT, bind(Map.of("sprtest.storage.backend", "snapshot")).backend());
+    }
+
+    private static StorageProperties bind(Map<String, String> properties) {
+        return new Binder(new MapConfigurationPropertySource(properties))
+                .bindOrCreate("sprtest.storage", StorageProperties.class);
+    }
+}
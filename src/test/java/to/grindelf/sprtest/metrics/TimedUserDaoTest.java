@@ -0,0 +1,96 @@
+package to.grindelf.sprtest.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import to.grindelf.sprtest.auth.InMemoryUserDao;
+import to.grindelf.sprtest.domain.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedUserDaoTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InMemoryUserDao storage = new InMemoryUserDao();
+
+    @Test
+    void streamReadToItsEndIsRecordedWithoutBeingClosed() throws Exception {
+        saveUsers(3);
+        TimedUserDao<User> dao = new TimedUserDao<>(storage, registry);
+
+        assertEquals(3, dao.stream().count());
+
+        assertEquals(1, timer("success").count());
+        assertEquals(3, registry.get("sprtest.dao.rows").tag("operation", "stream").summary().totalAmount());
+    }
+
+    @Test
+    void streamClosedEarlyIsRecordedOnce() throws Exception {
+        saveUsers(3);
+        TimedUserDao<User> dao = new TimedUserDao<>(storage, registry);
+
+        try (Stream<User> users = dao.stream()) {
+            assertEquals(1, users.limit(1).count());
+        }
+
+        try (Stream<User> users = dao.stream()) {
+            assertEquals(3, users.toList().size());
+        }
+
+        assertEquals(2, timer("success").count());
+    }
+
+    @Test
+    void failingStreamIsRecordedAsError() throws Exception {
+        saveUsers(3);
+        InMemoryUserDao failing = new InMemoryUserDao() {
+            @Override
+            public Stream<User> stream() {
+                return storage.stream().map(user -> {
+                    if (user.getName().equals("user-2")) {
+                        throw new UncheckedIOException(new IOException("Cursor lost"));
+                    }
+                    return user;
+                });
+            }
+        };
+        TimedUserDao<User> dao = new TimedUserDao<>(failing, registry);
+
+        try (Stream<User> users = dao.stream()) {
+            assertThrows(UncheckedIOException.class, users::toList);
+        }
+
+        assertEquals(1, timer("error").count());
+        assertNull(registry.find("sprtest.dao.operations").tag("outcome", "success").timer());
+        assertEquals(1, registry.get("sprtest.dao.errors").tag("exception", "UncheckedIOException").counter().count());
+    }
+
+    @Test
+    void failureOfTheConsumerIsNotAFailureOfTheStorage() throws Exception {
+        saveUsers(3);
+        TimedUserDao<User> dao = new TimedUserDao<>(storage, registry);
+
+        try (Stream<User> users = dao.stream()) {
+            assertThrows(IllegalStateException.class, () -> users.forEach(user -> {
+                throw new IllegalStateException("Consumer failed");
+            }));
+        }
+
+        assertEquals(1, timer("success").count());
+        assertNull(registry.find("sprtest.dao.errors").counter());
+    }
+
+    private void saveUsers(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            storage.save(new User("user-" + i, "p"));
+        }
+    }
+
+    private Timer timer(String outcome) {
+        return registry.get("sprtest.dao.operations").tag("operation", "stream").tag("outcome", outcome).timer();
+    }
+}
@@ -0,0 +1,117 @@
+package to.grindelf.sprtest.utils.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityPlanTest {
+
+    private enum Kind {
+        STUDIO, LOFT
+    }
+
+    @SuppressWarnings({"unused", "FieldCanBeLocal"})
+    private static final class Entity {
+        private static final String IGNORED = "static fields are not columns";
+
+        private final String name;
+        private final int rooms;
+        private final Kind kind;
+        private final LocalDate since;
+        private final Object extra;
+
+        private Entity(String name, int rooms, Kind kind, LocalDate since, Object extra) {
+            this.name = name;
+            this.rooms = rooms;
+            this.kind = kind;
+            this.since = since;
+            this.extra = extra;
+        }
+    }
+
+    private final EntityPlan<Entity> plan = EntityPlan.of(Entity.class);
+
+    @Test
+    void columnsFollowInstanceFieldsInDeclarationOrder() {
+        assertEquals(List.of("name", "rooms", "kind", "since", "extra"), plan.columns());
+        assertSame(plan, EntityPlan.forEntity(entity(null)));
+    }
+
+    @Test
+    void enumsAndDatesAreConvertedToText() {
+        Entity entity = entity(42L);
+
+        assertEquals("flat", plan.value(entity, "name"));
+        assertEquals(3, plan.value(entity, "rooms"));
+        assertEquals("LOFT", plan.value(entity, "kind"));
+        assertEquals("2025-01-31", plan.value(entity, "since"));
+        assertEquals(42L, plan.value(entity, "extra"));
+    }
+
+    @Test
+    void fieldsOfOpenTypesAreConvertedByRuntimeValue() {
+        assertEquals("STUDIO", plan.value(entity(Kind.STUDIO), "extra"));
+        assertEquals("2024-02-29", plan.value(entity(LocalDate.of(2024, 2, 29)), "extra"));
+        assertNull(plan.value(entity(null), "extra"));
+        assertNull(plan.value(new Entity("flat", 1, null, null, null), "kind"));
+    }
+
+    @Test
+    void unknownColumnIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> plan.value(entity(null), "missing"));
+    }
+
+    @Test
+    void generatedSqlIsCachedPerTableAndKey() {
+        assertEquals("INSERT INTO flats (name,rooms,kind,since,extra) VALUES (?,?,?,?,?)", plan.insertSql("flats"));
+        assertEquals(
+                "INSERT INTO flats (name,rooms,kind,since,extra) VALUES (?,?,?,?,?) ON CONFLICT(name) DO NOTHING",
+                plan.insertIfAbsentSql("flats", "name")
+        );
+        assertEquals("UPDATE flats SET rooms = ?,kind = ?,since = ?,extra = ? WHERE name = ?", plan.updateSql("flats", "name"));
+        assertSame(plan.updateSql("flats", "name"), plan.updateSql("flats", "name"));
+        assertNotEquals(plan.updateSql("flats", "name"), plan.updateSql("flats", "rooms"));
+    }
+
+    @Test
+    void bindingWritesConvertedValuesInColumnOrder() throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE flats (name TEXT PRIMARY KEY, rooms INTEGER, kind TEXT, since TEXT, extra)");
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(plan.insertSql("flats"))) {
+                plan.bindInsert(stmt, entity(Kind.STUDIO));
+                assertEquals(1, stmt.executeUpdate());
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(plan.updateSql("flats", "name"))) {
+                plan.bindUpdate(stmt, new Entity("flat", 5, Kind.STUDIO, LocalDate.of(2026, 6, 1), 7), "name", "flat");
+                assertEquals(1, stmt.executeUpdate());
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT rooms,kind,since,extra FROM flats WHERE name = ?")) {
+                stmt.setString(1, "flat");
+                try (ResultSet resultSet = stmt.executeQuery()) {
+                    assertTrue(resultSet.next());
+                    assertEquals(5, resultSet.getInt("rooms"));
+                    assertEquals("STUDIO", resultSet.getString("kind"));
+                    assertEquals("2026-06-01", resultSet.getString("since"));
+                    assertEquals(7, resultSet.getInt("extra"));
+                }
+            }
+        }
+    }
+
+    private static Entity entity(Object extra) {
+        return new Entity("flat", 3, Kind.LOFT, LocalDate.of(2025, 1, 31), extra);
+    }
+}
@@ -0,0 +1,104 @@
+package to.grindelf.sprtest.utils.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaRegistryTest {
+
+    @SuppressWarnings("unused")
+    private static final class Row {
+        private String name;
+        private String note;
+    }
+
+    @TempDir
+    Path directory;
+
+    private String filePath;
+    private Connection conn;
+    private SchemaRegistry registry;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        filePath = directory.resolve("schema.db").toString();
+        conn = DriverManager.getConnection("jdbc:sqlite:" + filePath);
+        execute("CREATE TABLE rows (name TEXT PRIMARY KEY)");
+        registry = new SchemaRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void structureIsCachedUntilInvalidated() throws SQLException {
+        TableSchema schema = registry.schema(filePath, "rows", conn);
+        assertTrue(schema.hasColumn("name"));
+        assertFalse(schema.hasColumn("note"));
+
+        execute("ALTER TABLE rows ADD COLUMN note TEXT");
+        assertSame(schema, registry.schema(filePath, "rows", conn));
+
+        // A differently spelled path of the same file drops the same entry
+        registry.invalidate(directory.resolve(".").resolve("schema.db").toString());
+        assertTrue(registry.schema(filePath, "rows", conn).hasColumn("note"));
+    }
+
+    @Test
+    void refreshDropsStructuresOnlyAfterSchemaChange() throws SQLException {
+        assertFalse(registry.refreshIfChanged(filePath, conn));
+
+        TableSchema schema = registry.schema(filePath, "rows", conn);
+        assertFalse(registry.refreshIfChanged(filePath, conn));
+        assertSame(schema, registry.schema(filePath, "rows", conn));
+
+        execute("ALTER TABLE rows ADD COLUMN note TEXT");
+        assertTrue(registry.refreshIfChanged(filePath, conn));
+        assertTrue(registry.schema(filePath, "rows", conn).hasColumn("note"));
+        assertFalse(registry.refreshIfChanged(filePath, conn));
+    }
+
+    @Test
+    void compatibilityIsCheckedAgainCurrentStructureAfterInvalidation() throws SQLException {
+        EntityPlan<Row> plan = EntityPlan.of(Row.class);
+        assertThrows(IllegalArgumentException.class, () -> registry.ensureCompatible(filePath, "rows", plan, conn));
+
+        execute("ALTER TABLE rows ADD COLUMN note TEXT");
+        // Still the cached structure without the new column
+        assertThrows(IllegalArgumentException.class, () -> registry.ensureCompatible(filePath, "rows", plan, conn));
+
+        registry.invalidate(filePath);
+        assertDoesNotThrow(() -> registry.ensureCompatible(filePath, "rows", plan, conn));
+
+        // Once validated, the check is not repeated for the same class and table
+        execute("ALTER TABLE rows RENAME COLUMN note TO comment");
+        assertDoesNotThrow(() -> registry.ensureCompatible(filePath, "rows", plan, conn));
+        assertTrue(registry.refreshIfChanged(filePath, conn));
+        assertThrows(IllegalArgumentException.class, () -> registry.ensureCompatible(filePath, "rows", plan, conn));
+    }
+
+    @Test
+    void missingTableIsRejected() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> registry.ensureCompatible(filePath, "missing", EntityPlan.of(Row.class), conn)
+        );
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
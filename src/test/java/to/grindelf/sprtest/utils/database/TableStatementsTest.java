@@ -0,0 +1,34 @@
+package to.grindelf.sprtest.utils.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableStatementsTest {
+
+    private static final List<String> COLUMNS = List.of("name", "password", "status");
+
+    @Test
+    void selectsProjectOnlyTheRequestedColumns() {
+        assertEquals(
+                "SELECT name,password,status FROM users WHERE name = ?",
+                TableStatements.selectByKey("users", "name", COLUMNS)
+        );
+        assertEquals("SELECT name,password,status FROM users", TableStatements.selectAll("users", COLUMNS));
+        assertEquals("SELECT id,title FROM apartments", TableStatements.selectAll("apartments", List.of("id", "title")));
+    }
+
+    @Test
+    void statementTextIsSharedPerTableKeyAndColumns() {
+        assertSame(
+                TableStatements.selectByKey("users", "name", COLUMNS),
+                TableStatements.selectByKey("users", "name", List.of("name", "password", "status"))
+        );
+        assertNotEquals(
+                TableStatements.selectByKey("users", "name", COLUMNS),
+                TableStatements.selectByKey("users", "name", List.of("name"))
+        );
+    }
+}
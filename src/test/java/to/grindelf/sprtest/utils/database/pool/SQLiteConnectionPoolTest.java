@@ -0,0 +1,226 @@
+package to.grindelf.sprtest.utils.database.pool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SQLiteConnectionPoolTest {
+
+    private static final Duration MAX_IDLE = Duration.ofMillis(5);
+
+    @TempDir
+    Path directory;
+
+    private SQLiteConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Path file = directory.resolve("pool.db");
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE entries (id INTEGER PRIMARY KEY, value TEXT)");
+        }
+
+        pool = new SQLiteConnectionPool(file.toString(), new PoolSettings(
+                2,
+                Duration.ofSeconds(1),
+                MAX_IDLE,
+                MAX_IDLE,
+                4,
+                SQLiteProfile.DEFAULT,
+                4
+        ));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void reentrantWriterBorrowKeepsTheConnectionPastMaxIdle() throws Exception {
+        try (PooledConnection outer = pool.borrowWrite()) {
+            Connection connection = outer.connection();
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("INSERT INTO entries (value) VALUES ('first')");
+            }
+
+            Thread.sleep(MAX_IDLE.toMillis() * 4);
+
+            try (PooledConnection inner = pool.borrowWrite()) {
+                assertSame(outer, inner);
+                assertFalse(inner.connection().isClosed());
+                try (Statement stmt = inner.connection().createStatement()) {
+                    stmt.executeUpdate("INSERT INTO entries (value) VALUES ('second')");
+                }
+            }
+
+            connection.commit();
+            connection.setAutoCommit(true);
+        }
+
+        assertEquals(0, pool.metrics().evictions());
+        assertEquals(1, pool.metrics().connectionsOpened());
+        assertEquals(2, countEntries());
+    }
+
+    @Test
+    void evictIdleSkipsTheWriterBorrowedByTheCallingThread() throws Exception {
+        try (PooledConnection writer = pool.borrowWrite()) {
+            Thread.sleep(MAX_IDLE.toMillis() * 4);
+            pool.evictIdle();
+
+            assertFalse(writer.connection().isClosed());
+            assertTrue(pool.metrics().writerActive());
+        }
+
+        assertEquals(0, pool.metrics().evictions());
+    }
+
+    @Test
+    void evictIdleClosesIdleConnections() throws Exception {
+        PooledConnection reader = pool.borrowRead();
+        reader.close();
+        pool.borrowWrite().close();
+        assertEquals(1, pool.metrics().idleReaders());
+
+        Thread.sleep(MAX_IDLE.toMillis() * 4);
+        pool.evictIdle();
+
+        PoolMetrics metrics = pool.metrics();
+        assertEquals(0, metrics.idleReaders());
+        assertEquals(2, metrics.evictions());
+        assertEquals(2, metrics.connectionsClosed());
+        assertTrue(reader.connection().isClosed());
+    }
+
+    @Test
+    void staleIdleReaderIsReplacedOnBorrow() throws Exception {
+        PooledConnection first = pool.borrowRead();
+        first.close();
+
+        Thread.sleep(MAX_IDLE.toMillis() * 4);
+
+        try (PooledConnection second = pool.borrowRead()) {
+            assertNotSame(first, second);
+            assertTrue(first.connection().isClosed());
+            assertFalse(second.connection().isClosed());
+        }
+        assertEquals(1, pool.metrics().evictions());
+    }
+
+    @Test
+    void statementsAreCachedPerConnectionInLeastRecentlyUsedOrder() throws Exception {
+        try (PooledConnection reader = pool.borrowRead()) {
+            PreparedStatement first = reader.prepare(select(0));
+            assertSame(first, reader.prepare(select(0)));
+
+            // Four statements fit; touching the first keeps it while the second becomes the eldest
+            for (int i = 1; i < 4; i++) {
+                reader.prepare(select(i));
+            }
+            assertSame(first, reader.prepare(select(0)));
+            PreparedStatement second = reader.prepare(select(1));
+            reader.prepare(select(2));
+            reader.prepare(select(3));
+            reader.prepare(select(0));
+            reader.prepare(select(4));
+
+            assertTrue(second.isClosed());
+            assertFalse(first.isClosed());
+            assertNotSame(second, reader.prepare(select(1)));
+        }
+
+        PoolMetrics metrics = pool.metrics();
+        assertEquals(6, metrics.statementCacheHits());
+        assertEquals(6, metrics.statementCacheMisses());
+        assertEquals(2, metrics.statementCacheEvictions());
+        assertEquals(0.5, metrics.statementCacheHitRatio());
+    }
+
+    @Test
+    void closedStatementIsPreparedAgain() throws Exception {
+        try (PooledConnection reader = pool.borrowRead()) {
+            PreparedStatement stmt = reader.prepare(select(0));
+            stmt.close();
+
+            PreparedStatement again = reader.prepare(select(0));
+            assertNotSame(stmt, again);
+            try (ResultSet resultSet = again.executeQuery()) {
+                assertTrue(resultSet.next());
+            }
+        }
+    }
+
+    @Test
+    void cachedStatementsAreClosedWithTheirConnection() throws Exception {
+        PreparedStatement stmt;
+        try (PooledConnection reader = pool.borrowRead()) {
+            stmt = reader.prepare(select(0));
+        }
+
+        Thread.sleep(MAX_IDLE.toMillis() * 4);
+        pool.evictIdle();
+
+        assertTrue(stmt.isClosed());
+    }
+
+    @Test
+    void balancedProfileSwitchesTheFileToWriteAheadLogging() throws Exception {
+        Path file = directory.resolve("balanced.db");
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE entries (id INTEGER PRIMARY KEY, value TEXT)");
+        }
+
+        try (SQLiteConnectionPool balanced = new SQLiteConnectionPool(
+                file.toString(), PoolSettings.DEFAULT.withProfile(SQLiteProfile.BALANCED))) {
+            try (PooledConnection reader = balanced.borrowRead()) {
+                assertEquals("wal", pragma(reader, "journal_mode"));
+            }
+            try (PooledConnection writer = balanced.borrowWrite()) {
+                // NORMAL
+                assertEquals("1", pragma(writer, "synchronous"));
+            }
+        }
+    }
+
+    @Test
+    void defaultProfileLeavesTheRollbackJournal() throws Exception {
+        try (PooledConnection reader = pool.borrowRead()) {
+            assertEquals("delete", pragma(reader, "journal_mode"));
+        }
+    }
+
+    private static String pragma(PooledConnection pooled, String name) throws SQLException {
+        try (Statement stmt = pooled.connection().createStatement();
+             ResultSet resultSet = stmt.executeQuery("PRAGMA " + name)) {
+            return resultSet.getString(1);
+        }
+    }
+
+    private static String select(int value) {
+        return "SELECT " + value;
+    }
+
+    private int countEntries() throws SQLException {
+        try (PooledConnection reader = pool.borrowRead();
+             Statement stmt = reader.connection().createStatement();
+             ResultSet resultSet = stmt.executeQuery("SELECT COUNT(*) FROM entries")) {
+            return resultSet.getInt(1);
+        }
+    }
+}
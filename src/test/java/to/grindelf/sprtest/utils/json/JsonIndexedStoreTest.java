@@ -0,0 +1,156 @@
+package to.grindelf.sprtest.utils.json;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import to.grindelf.sprtest.domain.User;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonIndexedStoreTest {
+
+    private static final int NO_COMPACTION = Integer.MAX_VALUE;
+
+    @TempDir
+    Path directory;
+
+    private Path snapshot;
+    private Path log;
+    private final JsonOperator<User, String> operator = new JsonOperator<>(new TypeReference<List<User>>() {});
+    private final List<JsonIndexedStore<User, String>> stores = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        snapshot = directory.resolve("users.json");
+        log = directory.resolve("users.json.log");
+    }
+
+    @AfterEach
+    void tearDown() {
+        stores.forEach(JsonIndexedStore::close);
+    }
+
+    @Test
+    void appendAfterTornTailSurvivesTheNextReplay() throws IOException {
+        JsonIndexedStore<User, String> first = open(NO_COMPACTION);
+        assertTrue(first.insert(new User("alice", "a")));
+        assertTrue(first.insert(new User("bob", "b")));
+        long complete = Files.size(log);
+
+        // A crash in the middle of an append, cut inside a multibyte character
+        byte[] entry = "{\"op\":\"put\",\"value\":{\"name\":\"carolé\"".getBytes(StandardCharsets.UTF_8);
+        Files.write(log, Arrays.copyOf(entry, entry.length - 1), StandardOpenOption.APPEND);
+
+        JsonIndexedStore<User, String> second = open(NO_COMPACTION);
+        assertEquals(2, second.values().size());
+        assertNull(second.get("carolé"));
+        assertEquals(complete, Files.size(log));
+
+        assertTrue(second.insert(new User("dave", "d")));
+        assertTrue(second.remove("alice"));
+
+        JsonIndexedStore<User, String> third = open(NO_COMPACTION);
+        assertNull(third.get("alice"));
+        assertEquals("b", third.get("bob").getPassword());
+        assertEquals("d", third.get("dave").getPassword());
+        assertEquals(2, third.values().size());
+    }
+
+    @Test
+    void completeLastEntryWithoutLineSeparatorIsKept() throws IOException {
+        JsonIndexedStore<User, String> first = open(NO_COMPACTION);
+        first.insert(new User("alice", "a"));
+        byte[] content = Files.readAllBytes(log);
+        Files.write(log, Arrays.copyOf(content, content.length - System.lineSeparator().length()));
+
+        JsonIndexedStore<User, String> second = open(NO_COMPACTION);
+        assertNotNull(second.get("alice"));
+        second.insert(new User("bob", "b"));
+
+        JsonIndexedStore<User, String> third = open(NO_COMPACTION);
+        assertNotNull(third.get("alice"));
+        assertNotNull(third.get("bob"));
+    }
+
+    @Test
+    void compactionFoldsTheLogIntoTheSnapshot() {
+        JsonIndexedStore<User, String> first = open(3);
+        first.insert(new User("alice", "a"));
+        first.insert(new User("bob", "b"));
+        assertTrue(Files.exists(log));
+        assertFalse(Files.exists(snapshot));
+
+        first.replace(new User("alice", "changed"));
+        assertFalse(Files.exists(log));
+        assertEquals(2, operator.readFile(snapshot.toString()).size());
+
+        assertTrue(first.remove("bob"));
+        assertFalse(first.remove("bob"));
+        assertFalse(first.insert(new User("alice", "again")));
+
+        JsonIndexedStore<User, String> second = open(3);
+        assertEquals("changed", second.get("alice").getPassword());
+        assertNull(second.get("bob"));
+
+        second.compact();
+        assertFalse(Files.exists(log));
+        assertEquals(List.of("alice"), operator.readFile(snapshot.toString()).stream().map(User::getName).toList());
+    }
+
+    @Test
+    void closeCompactsPendingChanges() {
+        JsonIndexedStore<User, String> store = open(NO_COMPACTION);
+        store.insert(new User("alice", "a"));
+        store.close();
+
+        assertFalse(Files.exists(log));
+        assertEquals(1, operator.readFile(snapshot.toString()).size());
+    }
+
+    @Test
+    void pagesFollowKeyOrderAcrossMutations() {
+        JsonIndexedStore<User, String> store = open(NO_COMPACTION);
+        for (String name : List.of("e", "c", "a", "d", "b")) {
+            store.insert(new User(name, "p"));
+        }
+
+        assertEquals(List.of("a", "b"), names(store.page(null, 2)));
+        assertEquals(List.of("c", "d"), names(store.page("b", 2)));
+        assertEquals(List.of("e"), names(store.page("d", 2)));
+        assertEquals(List.of(), names(store.page("e", 2)));
+        assertEquals(List.of("c", "d", "e"), names(store.page("bb", 10)));
+
+        store.remove("c");
+        store.insert(new User("ca", "p"));
+        assertEquals(List.of("ca", "d"), names(store.page("b", 2)));
+        assertEquals(List.of("a", "b", "ca", "d", "e"), store.stream().map(User::getName).toList());
+
+        assertThrows(IllegalArgumentException.class, () -> store.page(null, 0));
+    }
+
+    private static List<String> names(List<User> users) {
+        return users.stream().map(User::getName).toList();
+    }
+
+    private JsonIndexedStore<User, String> open(int compactionThreshold) {
+        JsonIndexedStore<User, String> store = new JsonIndexedStore<>(
+                operator,
+                snapshot.toString(),
+                User::getName,
+                compactionThreshold
+        );
+        stores.add(store);
+        return store;
+    }
+}
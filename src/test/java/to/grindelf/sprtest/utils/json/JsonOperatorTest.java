@@ -0,0 +1,98 @@
+package to.grindelf.sprtest.utils.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.domain.UserStatus;
+import to.grindelf.sprtest.exceptions.JSONException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonOperatorTest {
+
+    @TempDir
+    Path directory;
+
+    private final JsonOperator<User, String> operator = new JsonOperator<>(new TypeReference<List<User>>() {});
+
+    @Test
+    void writtenArrayIsStreamedBackInOrder() {
+        String file = directory.resolve("users.json").toString();
+
+        try (JsonStreamWriter<User> writer = operator.openWriter(file)) {
+            for (int i = 0; i < 5; i++) {
+                writer.write(new User("user-" + i, "password-" + i, i == 0 ? UserStatus.ADMIN : UserStatus.JUST_USER));
+            }
+            writer.writeAll(List.of(new User("user-5", "password-5")));
+            assertEquals(6, writer.getWrittenCount());
+        }
+
+        try (Stream<User> users = operator.stream(file)) {
+            List<User> read = users.toList();
+            assertEquals(List.of("user-0", "user-1", "user-2", "user-3", "user-4", "user-5"), read.stream().map(User::getName).toList());
+            assertTrue(read.getFirst().isAdmin());
+            assertEquals("password-3", read.get(3).getPassword());
+        }
+        assertEquals(6, operator.readFile(file).size());
+    }
+
+    @Test
+    void emptyArrayIsAnEmptyStream() {
+        String file = directory.resolve("users.json").toString();
+        operator.writeToFile(file, List.of());
+
+        try (Stream<User> users = operator.stream(file)) {
+            assertEquals(0, users.count());
+        }
+    }
+
+    @Test
+    void elementsAreParsedOnlyWhenConsumed() throws IOException {
+        Path file = directory.resolve("users.json");
+        Files.writeString(file, "[{\"name\":\"alice\",\"password\":\"a\"},{\"name\":\"bob\",\"password\":\"b\"},{\"name\":");
+
+        try (Stream<User> users = operator.stream(file.toString())) {
+            assertEquals(List.of("alice", "bob"), users.limit(2).map(User::getName).toList());
+        }
+
+        try (Stream<User> users = operator.stream(file.toString())) {
+            Iterator<User> iterator = users.iterator();
+            assertEquals("alice", iterator.next().getName());
+            assertEquals("bob", iterator.next().getName());
+            JSONException e = assertThrows(JSONException.class, iterator::hasNext);
+            assertInstanceOf(JsonProcessingException.class, e.getCause());
+        }
+    }
+
+    @Test
+    void nullElementFailsTheStreamInsteadOfEndingIt() throws IOException {
+        Path file = directory.resolve("users.json");
+        Files.writeString(file, "[{\"name\":\"alice\",\"password\":\"a\"},null,{\"name\":\"bob\",\"password\":\"b\"}]");
+
+        try (Stream<User> users = operator.stream(file.toString())) {
+            Iterator<User> iterator = users.iterator();
+            assertEquals("alice", iterator.next().getName());
+            assertThrows(JSONException.class, iterator::hasNext);
+        }
+    }
+
+    @Test
+    void fileWithoutArrayIsRejected() throws IOException {
+        Path file = directory.resolve("user.json");
+        Files.writeString(file, "{\"name\":\"alice\"}");
+
+        assertThrows(JSONException.class, () -> operator.stream(file.toString()));
+        JSONException missing = assertThrows(JSONException.class, () -> operator.stream(directory.resolve("missing.json").toString()));
+        assertInstanceOf(IOException.class, missing.getCause());
+        assertFalse(missing.getCause() instanceof JsonProcessingException);
+    }
+}
@@ -0,0 +1,166 @@
+package to.grindelf.sprtest.utils.json;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.exceptions.JSONException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonStreamWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private final JsonOperator<User, String> operator = new JsonOperator<>(new TypeReference<List<User>>() {});
+
+    @Test
+    void readersSeeThePreviousContentUntilTheWriterCloses() {
+        String file = directory.resolve("users.json").toString();
+        operator.writeToFile(file, List.of(new User("alice", "a")));
+
+        try (JsonStreamWriter<User> writer = operator.openWriter(file)) {
+            writer.writeAll(users(3));
+            assertEquals(List.of("alice"), names(operator.readFile(file)));
+        }
+
+        assertEquals(List.of("user-0", "user-1", "user-2"), names(operator.readFile(file)));
+    }
+
+    @Test
+    void failedWriteLeavesTheTargetIntact() throws IOException {
+        JsonOperator<Object, String> objects = new JsonOperator<>(new TypeReference<List<Object>>() {});
+        String file = directory.resolve("users.json").toString();
+        objects.writeToFile(file, List.of(new User("alice", "a")));
+
+        JsonStreamWriter<Object> writer = objects.openWriter(file);
+        writer.write(new User("bob", "b"));
+        JSONException failure = assertThrows(JSONException.class, () -> writer.write(new Unserializable()));
+        assertNotNull(failure.getCause());
+        writer.close();
+
+        assertEquals(List.of("alice"), names(operator.readFile(file)));
+        assertEquals(Set.of("users.json", "users.json.lock"), filesInDirectory());
+
+        // The lock is released, so the next writer gets through
+        operator.writeToFile(file, users(1));
+        assertEquals(List.of("user-0"), names(operator.readFile(file)));
+    }
+
+    @Test
+    void sameThreadCannotOpenASecondWriter() {
+        String file = directory.resolve("users.json").toString();
+
+        try (JsonStreamWriter<User> writer = operator.openWriter(file)) {
+            writer.write(new User("alice", "a"));
+            assertThrows(IllegalStateException.class, () -> operator.openWriter(file));
+        }
+
+        assertEquals(List.of("alice"), names(operator.readFile(file)));
+    }
+
+    @Test
+    void writerOfAnotherThreadWaitsForTheOpenOne() throws Exception {
+        String file = directory.resolve("users.json").toString();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<?> second;
+            try (JsonStreamWriter<User> writer = operator.openWriter(file)) {
+                writer.write(new User("first", "a"));
+                second = executor.submit(() -> operator.writeToFile(file, List.of(new User("second", "b"))));
+                assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS));
+            }
+
+            second.get(10, TimeUnit.SECONDS);
+            assertEquals(List.of("second"), names(operator.readFile(file)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentWritersNeverExposeAPartialArray() throws Exception {
+        String file = directory.resolve("users.json").toString();
+        operator.writeToFile(file, users(1));
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        AtomicBoolean stop = new AtomicBoolean();
+
+        try {
+            Future<Integer> reader = executor.submit(() -> {
+                int reads = 0;
+                while (!stop.get()) {
+                    int size = operator.readFile(file).size();
+                    assertTrue(size == 1 || size % 500 == 0, "Read a partial array of " + size);
+                    reads++;
+                }
+                return reads;
+            });
+
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 1; w <= 4; w++) {
+                List<User> users = users(w * 500);
+                writers.add(executor.submit(() -> {
+                    for (int round = 0; round < 10; round++) {
+                        operator.writeToFile(file, users);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            stop.set(true);
+            assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+        } finally {
+            stop.set(true);
+            executor.shutdownNow();
+        }
+
+        assertEquals(Set.of("users.json", "users.json.lock"), filesInDirectory());
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new User("user-" + i, "password"));
+        }
+        return users;
+    }
+
+    private static List<String> names(List<User> users) {
+        return users.stream().map(User::getName).toList();
+    }
+
+    private Set<String> filesInDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Object whose serialization fails half-way through the array.
+     */
+    private static final class Unserializable {
+
+        public String getName() {
+            throw new IllegalStateException("Not serializable.");
+        }
+    }
+}
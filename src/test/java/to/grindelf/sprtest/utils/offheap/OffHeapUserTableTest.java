@@ -0,0 +1,111 @@
+package to.grindelf.sprtest.utils.offheap;
+
+import org.junit.jupiter.api.Test;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.domain.UserStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapUserTableTest {
+
+    // Includes unpaired surrogates, which are stored as the replacement character like SQLite does
+    private static final String[] ALPHABET = {"a", "b", "A", "0", "é", "ж", "😀", "\uD800", "\uDC00x"};
+
+    @Test
+    void putRemoveAndGetMatchAMap() {
+        Random random = new Random(7);
+        OffHeapUserTable table = new OffHeapUserTable();
+        Map<String, User> expected = new HashMap<>();
+
+        for (int operation = 0; operation < 100_000; operation++) {
+            String name = randomName(random);
+            int kind = random.nextInt(10);
+
+            if (kind < 5) {
+                // Passwords of varying length exercise both in-place updates and appended records
+                User user = new User(name, "p".repeat(1 + random.nextInt(3)) + operation,
+                        random.nextBoolean() ? UserStatus.ADMIN : UserStatus.JUST_USER);
+                assertEquals(!expected.containsKey(name), table.put(user));
+                expected.put(name, user);
+            } else if (kind < 7) {
+                assertEquals(expected.remove(name) != null, table.remove(name));
+            } else {
+                User stored = expected.get(name);
+                User found = table.get(name);
+                if (stored == null) {
+                    assertNull(found, name);
+                    assertFalse(table.contains(name));
+                } else {
+                    assertNotNull(found, name);
+                    assertEquals(new String(name.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8), found.getName());
+                    assertEquals(stored.getPassword(), found.getPassword());
+                    assertEquals(stored.getStatus(), found.getStatus());
+                }
+            }
+        }
+
+        assertEquals(expected.size(), table.size());
+    }
+
+    @Test
+    void rebuildKeepsEveryUserAndDropsGarbage() {
+        OffHeapUserTable table = new OffHeapUserTable();
+        OffHeapUserTable.Statistics empty = table.getStatistics();
+
+        for (int i = 0; i < 10_000; i++) {
+            table.put(new User("user-" + i, "password-" + i));
+        }
+        for (int i = 0; i < 10_000; i += 2) {
+            table.remove("user-" + i);
+        }
+        OffHeapUserTable.Statistics withGarbage = table.getStatistics();
+        assertTrue(withGarbage.capacity() > empty.capacity());
+        assertTrue(withGarbage.garbageBytes() > 0);
+
+        // Growing past half of the slots rebuilds the table without the removed records
+        for (int i = 10_000; i < 30_000; i++) {
+            table.put(new User("user-" + i, "password-" + i));
+        }
+        OffHeapUserTable.Statistics rebuilt = table.getStatistics();
+        assertEquals(25_000, rebuilt.users());
+        assertTrue(rebuilt.garbageBytes() < withGarbage.garbageBytes());
+
+        for (int i = 0; i < 30_000; i++) {
+            User user = table.get("user-" + i);
+            if (i < 10_000 && i % 2 == 0) {
+                assertNull(user);
+            } else {
+                assertEquals("password-" + i, user.getPassword());
+            }
+        }
+    }
+
+    @Test
+    void samePasswordLengthIsUpdatedInPlace() {
+        OffHeapUserTable table = new OffHeapUserTable();
+        table.put(new User("alice", "aaaa"));
+        long recordBytes = table.getStatistics().recordBytes();
+
+        assertFalse(table.put(new User("alice", "bbbb", UserStatus.ADMIN)));
+        assertEquals(recordBytes, table.getStatistics().recordBytes());
+        assertEquals(0, table.getStatistics().garbageBytes());
+        assertEquals(UserStatus.ADMIN, table.get("alice").getStatus());
+
+        assertFalse(table.put(new User("alice", "longer")));
+        assertTrue(table.getStatistics().garbageBytes() > 0);
+        assertEquals("longer", table.get("alice").getPassword());
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0, length = 1 + random.nextInt(4); i < length; i++) {
+            name.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,143 @@
+package to.grindelf.sprtest.utils.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import to.grindelf.sprtest.auth.InMemoryUserDao;
+import to.grindelf.sprtest.auth.SnapshotUserDao;
+import to.grindelf.sprtest.auth.UserSnapshotExporter;
+import to.grindelf.sprtest.domain.User;
+import to.grindelf.sprtest.domain.UserStatus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSnapshotTest {
+
+    // Includes characters of every UTF-8 length, so that UTF-16 order and byte order differ
+    private static final String[] ALPHABET = {"a", "b", "z", "A", "0", "é", "ж", "￿", "😀"};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void everyWrittenUserIsFoundWithItsFields() throws IOException {
+        List<User> users = randomUsers(2000);
+        Path file = directory.resolve("users.snapshot");
+        assertEquals(users.size(), UserSnapshotWriter.write(file, users));
+
+        try (UserSnapshot snapshot = UserSnapshot.open(file)) {
+            assertEquals(users.size(), snapshot.size());
+            for (User user : users) {
+                User found = snapshot.get(user.getName());
+                assertNotNull(found, user.getName());
+                assertEquals(user.getPassword(), found.getPassword());
+                assertEquals(user.getStatus(), found.getStatus());
+            }
+
+            assertNull(snapshot.get(""));
+            assertNull(snapshot.get("missing"));
+            // A lone surrogate is looked up as the replacement character SQLite would store
+            assertNull(snapshot.get("\uD800"));
+        }
+    }
+
+    @Test
+    void pagesCoverTheUsersInByteOrder() throws IOException {
+        List<User> users = randomUsers(1000);
+        Path file = directory.resolve("users.snapshot");
+        UserSnapshotWriter.write(file, users);
+
+        try (UserSnapshot snapshot = UserSnapshot.open(file)) {
+            List<User> paged = new ArrayList<>();
+            String after = null;
+            List<User> page;
+            while (!(page = snapshot.page(after, 333)).isEmpty()) {
+                paged.addAll(page);
+                after = page.getLast().getName();
+            }
+
+            assertEquals(users.size(), paged.size());
+            for (int i = 1; i < paged.size(); i++) {
+                assertTrue(Arrays.compareUnsigned(utf8(paged.get(i - 1)), utf8(paged.get(i))) < 0);
+            }
+            assertEquals(paged, new SnapshotUserDao(snapshot).getAll());
+            assertEquals(paged, snapshot.stream().toList());
+        }
+    }
+
+    @Test
+    void exportedSnapshotServesTheUsersOfTheBackend() throws Exception {
+        InMemoryUserDao backend = new InMemoryUserDao();
+        for (User user : randomUsers(300)) {
+            backend.save(user);
+        }
+        Path file = directory.resolve("users.snapshot");
+
+        assertEquals(300, new UserSnapshotExporter(backend, file).export());
+
+        try (UserSnapshot snapshot = UserSnapshot.open(file)) {
+            SnapshotUserDao served = new SnapshotUserDao(snapshot);
+            for (User user : backend.getAll()) {
+                assertEquals(user, served.getUserByName(user.getName()));
+            }
+            assertThrows(UnsupportedOperationException.class, () -> served.save(new User("new", "user")));
+        }
+    }
+
+    @Test
+    void positionsOutsideTheIndexAreRejected() throws IOException {
+        Path file = directory.resolve("users.snapshot");
+        UserSnapshotWriter.write(file, List.of(new User("alice", "a"), new User("bob", "b")));
+
+        try (UserSnapshot snapshot = UserSnapshot.open(file)) {
+            assertEquals("bob", snapshot.userAt(1).getName());
+            assertThrows(IndexOutOfBoundsException.class, () -> snapshot.userAt(2));
+            assertThrows(IndexOutOfBoundsException.class, () -> snapshot.userAt(-1));
+        }
+    }
+
+    @Test
+    void invalidInputIsRejected() throws IOException {
+        Path file = directory.resolve("users.snapshot");
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> UserSnapshotWriter.write(file, List.of(new User("alice", "a"), new User("alice", "b")))
+        );
+
+        Files.write(file, new byte[10]);
+        assertThrows(IOException.class, () -> UserSnapshot.open(file));
+    }
+
+    private static List<User> randomUsers(int count) {
+        Random random = new Random(1);
+        Set<String> names = new HashSet<>();
+        while (names.size() < count) {
+            StringBuilder name = new StringBuilder();
+            for (int i = 0, length = 1 + random.nextInt(6); i < length; i++) {
+                name.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+            }
+            names.add(name.toString());
+        }
+
+        List<User> users = new ArrayList<>();
+        for (String name : names) {
+            users.add(new User(name, "password-" + name, random.nextBoolean() ? UserStatus.ADMIN : UserStatus.JUST_USER));
+        }
+        return users;
+    }
+
+    private static byte[] utf8(User user) {
+        return user.getName().getBytes(StandardCharsets.UTF_8);
+    }
+}